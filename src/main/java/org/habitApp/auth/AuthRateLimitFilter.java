@@ -0,0 +1,202 @@
+package org.habitApp.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ограничение частоты запросов на вход и регистрацию по IP клиента и по email из тела запроса.
+ * Стоит перед фильтрами Spring Security, поэтому отклоненный запрос не доходит ни до контроллера, ни до БД.
+ * Превышение лимита возвращает 429 с заголовком Retry-After.
+ * Если для нового email нет места в ограничителе, проверка по email пропускается и запрос ограничивается
+ * только по IP: иначе поток случайных email заполнил бы ограничитель и заблокировал вход всем новым email.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/auth/login", "/auth/register", "/auth/refresh");
+    private static final int MAX_BODY_BYTES = 4096;
+
+    private final ObjectMapper objectMapper;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter emailLimiter;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder rejectedByEmail = new LongAdder();
+    private final LongAdder emailChecksSkipped = new LongAdder();
+
+    public AuthRateLimitFilter(ObjectMapper objectMapper,
+                               @Value("${security.rate-limit.ip.capacity}") int ipCapacity,
+                               @Value("${security.rate-limit.ip.refill-period}") Duration ipRefillPeriod,
+                               @Value("${security.rate-limit.email.capacity}") int emailCapacity,
+                               @Value("${security.rate-limit.email.refill-period}") Duration emailRefillPeriod,
+                               @Value("${security.rate-limit.max-keys}") int maxKeys,
+                               @Value("${security.rate-limit.stripes}") int stripes) {
+        this(objectMapper,
+                new TokenBucketRateLimiter(ipCapacity, ipRefillPeriod, maxKeys, stripes),
+                new TokenBucketRateLimiter(emailCapacity, emailRefillPeriod, maxKeys, stripes));
+    }
+
+    AuthRateLimitFilter(ObjectMapper objectMapper, TokenBucketRateLimiter ipLimiter, TokenBucketRateLimiter emailLimiter) {
+        this.objectMapper = objectMapper;
+        this.ipLimiter = ipLimiter;
+        this.emailLimiter = emailLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = ipLimiter.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            rejectedByIp.increment();
+            reject(response, waitNanos);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY_BYTES + 1);
+        if (body.length > MAX_BODY_BYTES) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        String email = readEmail(body);
+        if (email != null) {
+            waitNanos = emailLimiter.tryAcquireIfRoom(email);
+            if (waitNanos == TokenBucketRateLimiter.NO_ROOM) {
+                emailChecksSkipped.increment();
+            } else if (waitNanos > 0) {
+                rejectedByEmail.increment();
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        allowed.increment();
+        filterChain.doFilter(new CachedBodyRequest(request, body), response);
+    }
+
+    /**
+     * Снимок счетчиков ограничителя
+     *
+     * @return пропущенные и отклоненные запросы, пропуски проверки по email, число отслеживаемых IP и email
+     */
+    public AuthRateLimiterMetrics getMetrics() {
+        return new AuthRateLimiterMetrics(allowed.sum(), rejectedByIp.sum(), rejectedByEmail.sum(),
+                emailChecksSkipped.sum(), ipLimiter.size(), emailLimiter.size());
+    }
+
+    private String readEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            // Некорректное тело отклонит контроллер, лимит по IP уже учтен
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1)));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\": \"Too many requests.\"}");
+    }
+
+    /**
+     * Запрос с уже прочитанным телом, которое повторно отдается контроллеру
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // Тело уже в памяти: данные доступны сразу, isReady() всегда true
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.habitApp.auth;
+
+import lombok.*;
+
+/**
+ * Снимок счетчиков AuthRateLimitFilter.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class AuthRateLimiterMetrics {
+    private long allowed;
+    private long rejectedByIp;
+    private long rejectedByEmail;
+    /**
+     * Запросы с новым email, для которого не нашлось места в ограничителе: ограничены только по IP
+     */
+    private long emailChecksSkipped;
+    private int trackedIps;
+    private int trackedEmails;
+}
@@ -4,7 +4,9 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.habitApp.cache.PrincipalCache;
 import org.habitApp.services.impl.UserDetailsService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,15 +15,34 @@ import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 
+/**
+ * Аутентификация запросов по токену из заголовка Authorization.
+ * Результат проверки токена берется из кэша проверенных токенов до истечения срока действия токена.
+ * Токены обновления и отозванные токены не аутентифицируют запрос, как и токены, выпущенные до изменения
+ * или удаления пользователя (отзыв всех токенов пользователя проверяется по ID из токена).
+ * В режиме security.jwt.stateless-principal пользователь восстанавливается из утверждений токена без обращения к БД;
+ * токены без ID и роли пользователя и режим с выключенным флагом используют поиск пользователя по email через кэш.
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final boolean statelessPrincipal;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   PrincipalCache principalCache, VerifiedTokenCache verifiedTokenCache,
+                                   TokenRevocationList tokenRevocationList,
+                                   @Value("${security.jwt.stateless-principal}") boolean statelessPrincipal) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationList = tokenRevocationList;
+        this.statelessPrincipal = statelessPrincipal;
     }
 
     @Override
@@ -31,11 +52,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            String email = jwtUtil.verifyAndGetUserId(token);
+            TokenClaims claims = verifiedTokenCache.get(token, jwtUtil::verify);
 
-            if (email != null) {
+            if (claims != null && claims.getEmail() != null && !claims.isRefresh() && !isRevoked(claims)) {
                 try {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                    UserDetails userDetails = loadPrincipal(claims);
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -49,4 +70,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Проверка отзыва токена по jti и отзыва всех токенов пользователя.
+     * Токены без ID пользователя аутентифицируются только через поиск пользователя в БД по email.
+     *
+     * @param claims проверенные утверждения токена
+     * @return true, если токен отозван
+     */
+    private boolean isRevoked(TokenClaims claims) {
+        return tokenRevocationList.isRevoked(claims.getTokenId())
+                || (claims.getUserId() != null
+                && tokenRevocationList.isRevokedForUser(claims.getUserId(), claims.getIssuedAt()));
+    }
+
+    /**
+     * Пользователь запроса: из утверждений токена или, если это невозможно или выключено, из БД через кэш
+     *
+     * @param claims проверенные утверждения токена
+     * @return данные пользователя
+     */
+    private UserDetails loadPrincipal(TokenClaims claims) {
+        if (statelessPrincipal && claims.hasPrincipal()) {
+            return claims.toPrincipal();
+        }
+        String email = claims.getEmail();
+        return principalCache.get(email, () -> userDetailsService.loadUserByUsername(email));
+    }
 }
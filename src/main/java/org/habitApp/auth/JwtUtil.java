@@ -4,39 +4,116 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.models.Role;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.UUID;
 
 @Component
 public class JwtUtil {
+    private static final String ACCESS_TOKEN_TYPE = "access";
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+    /**
+     * Время выпуска в миллисекундах: стандартное iat хранит только секунды
+     */
+    private static final String ISSUED_AT_MILLIS_CLAIM = "iatMillis";
+
     private final int expirationTimeInMilliseconds;
+    private final long refreshExpirationTimeInMilliseconds;
     private final Algorithm algorithm;
+    private final JWTVerifier verifier;
 
-    public JwtUtil(@Value("${security.jwt.secret}") String jwtSecret, @Value("${security.jwt.expirationTimeInMilliseconds}") int expirationTimeInMilliseconds) {
+    public JwtUtil(@Value("${security.jwt.secret}") String jwtSecret,
+                   @Value("${security.jwt.expirationTimeInMilliseconds}") int expirationTimeInMilliseconds,
+                   @Value("${security.jwt.refreshExpirationTimeInMilliseconds}") long refreshExpirationTimeInMilliseconds) {
         this.algorithm = Algorithm.HMAC256(jwtSecret);
         this.expirationTimeInMilliseconds = expirationTimeInMilliseconds;
+        this.refreshExpirationTimeInMilliseconds = refreshExpirationTimeInMilliseconds;
+        // JWTVerifier неизменяем и потокобезопасен, поэтому создается один раз
+        this.verifier = JWT.require(algorithm).build();
+    }
+
+    /**
+     * Выпуск токена доступа с email, ID, именем и ролью пользователя
+     *
+     * @param user пользователь
+     * @return подписанный токен
+     */
+    public String generate(UserEntity user) {
+        return sign(user, ACCESS_TOKEN_TYPE, expirationTimeInMilliseconds);
+    }
+
+    /**
+     * Выпуск токена обновления. Он не принимается как токен доступа и служит только для выпуска новой пары токенов.
+     *
+     * @param user пользователь
+     * @return подписанный токен
+     */
+    public String generateRefresh(UserEntity user) {
+        return sign(user, REFRESH_TOKEN_TYPE, refreshExpirationTimeInMilliseconds);
+    }
+
+    /**
+     * Проверка подписи и срока действия токена
+     *
+     * @param token токен
+     * @return утверждения токена или null, если токен недействителен
+     */
+    public TokenClaims verify(String token) {
+        try {
+            DecodedJWT decodedJWT = verifier.verify(token);
+            Claim userId = decodedJWT.getClaim("userId");
+            Claim issuedAtMillis = decodedJWT.getClaim(ISSUED_AT_MILLIS_CLAIM);
+            return new TokenClaims(
+                    decodedJWT.getClaim("email").asString(),
+                    userId.isMissing() || userId.isNull() ? null : userId.asLong(),
+                    decodedJWT.getClaim("username").asString(),
+                    parseRole(decodedJWT.getClaim("role").asString()),
+                    decodedJWT.getExpiresAtAsInstant(),
+                    decodedJWT.getId(),
+                    REFRESH_TOKEN_TYPE.equals(decodedJWT.getClaim("type").asString()),
+                    issuedAtMillis.isMissing() || issuedAtMillis.isNull()
+                            ? decodedJWT.getIssuedAtAsInstant()
+                            : Instant.ofEpochMilli(issuedAtMillis.asLong()));
+        } catch (JWTVerificationException e) {
+            return null;
+        }
+    }
+
+    public String verifyAndGetUserId(String token) {
+        TokenClaims claims = verify(token);
+        return claims == null ? null : claims.getEmail();
     }
 
-    public String generate(String email) {
+    private String sign(UserEntity user, String type, long ttlMillis) {
+        long now = System.currentTimeMillis();
         return JWT.create()
                 .withIssuer("Habit Tracker API")
-                .withClaim("email", email)
-                .withIssuedAt(new Date())
-                .withExpiresAt(new Date(System.currentTimeMillis() + expirationTimeInMilliseconds))
+                .withClaim("type", type)
+                .withClaim("email", user.getEmail())
+                .withClaim("userId", user.getId())
+                .withClaim("username", user.getUsername())
+                .withClaim("role", user.getRole() == null ? null : user.getRole().name())
+                .withIssuedAt(new Date(now))
+                .withClaim(ISSUED_AT_MILLIS_CLAIM, now)
+                .withExpiresAt(new Date(now + ttlMillis))
                 .withJWTId(UUID.randomUUID().toString())
                 .sign(algorithm);
     }
 
-    public String verifyAndGetUserId(String token) {
+    private Role parseRole(String role) {
+        if (role == null) {
+            return null;
+        }
         try {
-            JWTVerifier verifier = JWT.require(algorithm).build();
-            DecodedJWT decodedJWT = verifier.verify(token);
-            return decodedJWT.getClaim("email").asString();
-        } catch (JWTVerificationException e) {
+            return Role.valueOf(role);
+        } catch (IllegalArgumentException e) {
             return null;
         }
     }
@@ -0,0 +1,128 @@
+package org.habitApp.auth;
+
+import jakarta.annotation.PreDestroy;
+import org.habitApp.exceptions.PasswordHashingRejectedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Хеширование и проверка паролей на отдельном ограниченном пуле потоков.
+ * BCrypt намеренно дорогой, поэтому число одновременных вычислений ограничено размером пула,
+ * а число ожидающих - емкостью очереди. При заполненной очереди задача сразу отклоняется
+ * с PasswordHashingRejectedException (503), и поток запроса не ждет освобождения пула.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${security.password-hashing.threads}") int threads,
+                          @Value("${security.password-hashing.queue-capacity}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hasher-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Хеширование пароля
+     *
+     * @param rawPassword пароль
+     * @return хеш BCrypt
+     * @throws PasswordHashingRejectedException пул и очередь заполнены
+     */
+    public String encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Проверка пароля. Пароль, сохраненный до перехода на хеширование, сравнивается как есть.
+     *
+     * @param rawPassword    введенный пароль
+     * @param storedPassword сохраненный хеш или пароль
+     * @return true, если пароль верный
+     * @throws PasswordHashingRejectedException пул и очередь заполнены
+     */
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (isLegacy(storedPassword)) {
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+        return submit(() -> passwordEncoder.matches(rawPassword, storedPassword));
+    }
+
+    /**
+     * Признак пароля, сохраненного до перехода на хеширование
+     *
+     * @param storedPassword сохраненный пароль
+     * @return true, если значение не является хешем BCrypt
+     */
+    public boolean isLegacy(String storedPassword) {
+        return !BCRYPT_HASH.matcher(storedPassword).matches();
+    }
+
+    /**
+     * Снимок счетчиков пула
+     *
+     * @return выполненные и отклоненные задачи, занятость пула и очереди
+     */
+    public PasswordHasherMetrics getMetrics() {
+        return new PasswordHasherMetrics(completed.sum(), rejected.sum(), executor.getActiveCount(),
+                executor.getQueue().size(), executor.getMaximumPoolSize(), queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Сервер перегружен, повторите попытку позже.");
+        }
+        try {
+            T result = future.get();
+            completed.increment();
+            return result;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Проверка пароля прервана.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
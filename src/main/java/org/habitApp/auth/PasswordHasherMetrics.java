@@ -0,0 +1,19 @@
+package org.habitApp.auth;
+
+import lombok.*;
+
+/**
+ * Снимок счетчиков PasswordHasher.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class PasswordHasherMetrics {
+    private long completed;
+    private long rejected;
+    private int active;
+    private int queued;
+    private int threads;
+    private int queueCapacity;
+}
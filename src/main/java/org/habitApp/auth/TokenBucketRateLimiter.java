@@ -0,0 +1,148 @@
+package org.habitApp.auth;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничитель частоты запросов по ключу на основе корзин токенов.
+ * Корзина вмещает capacity токенов и полностью пополняется за refillPeriod.
+ * <p>
+ * Корзины разделены на полосы по хешу ключа, каждая полоса защищена своей блокировкой,
+ * поэтому запросы с разными ключами почти не конкурируют.
+ * Внутри полосы корзины упорядочены по времени последнего обращения. Корзина, к которой не обращались
+ * дольше refillPeriod, уже полна и неотличима от новой, поэтому удаляется только такая корзина.
+ * Полоса хранит не больше maxKeys / stripes корзин. Корзины, к которым обращались недавно, не вытесняются:
+ * иначе поток новых ключей мог бы вытеснить исчерпанную корзину и сбросить ее лимит.
+ * Для нового ключа в заполненной полосе {@link #tryAcquire} отклоняет запрос до освобождения места,
+ * а {@link #tryAcquireIfRoom} сообщает об отсутствии места, и вызывающий решает, чем заменить проверку.
+ */
+public class TokenBucketRateLimiter {
+
+    /**
+     * Результат {@link #tryAcquireIfRoom}: ключа нет, и для его корзины нет места
+     */
+    public static final long NO_ROOM = -1;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final long rotationNanos;
+    private final int maxKeysPerStripe;
+    private final LongSupplier nanoClock;
+    private final Stripe[] stripes;
+
+    public TokenBucketRateLimiter(int capacity, Duration refillPeriod, int maxKeys, int stripeCount) {
+        this(capacity, refillPeriod, maxKeys, stripeCount, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, Duration refillPeriod, int maxKeys, int stripeCount, LongSupplier nanoClock) {
+        if (capacity <= 0 || stripeCount <= 0 || maxKeys < stripeCount) {
+            throw new IllegalArgumentException("Некорректные параметры ограничителя частоты запросов.");
+        }
+        this.capacity = capacity;
+        this.rotationNanos = refillPeriod.toNanos();
+        this.tokensPerNano = capacity / (double) rotationNanos;
+        this.maxKeysPerStripe = maxKeys / stripeCount;
+        this.nanoClock = nanoClock;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Попытка взять токен из корзины ключа
+     *
+     * @param key ключ
+     * @return 0, если токен выдан, иначе время в наносекундах до появления токена
+     * или, для нового ключа в заполненной полосе, до освобождения места
+     */
+    public long tryAcquire(String key) {
+        return acquire(key, true);
+    }
+
+    /**
+     * Попытка взять токен из корзины ключа без отказа из-за нехватки места для новых ключей.
+     * Отслеживаемые ключи ограничиваются как обычно.
+     *
+     * @param key ключ
+     * @return 0, если токен выдан; {@link #NO_ROOM}, если ключ новый, а полоса заполнена корзинами,
+     * к которым обращались недавно; иначе время в наносекундах до появления токена
+     */
+    public long tryAcquireIfRoom(String key) {
+        return acquire(key, false);
+    }
+
+    private long acquire(String key, boolean failClosed) {
+        Stripe stripe = stripes[Math.floorMod(spread(key.hashCode()), stripes.length)];
+        synchronized (stripe) {
+            long now = nanoClock.getAsLong();
+            stripe.evictIdle(now);
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxKeysPerStripe) {
+                    // Место освободится, когда самая давняя корзина простоит refillPeriod
+                    return failClosed ? rotationNanos - (now - stripe.eldest().updatedAt) : NO_ROOM;
+                }
+                bucket = new Bucket(capacity, now);
+                stripe.buckets.put(key, bucket);
+            }
+            bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.updatedAt) * tokensPerNano);
+            bucket.updatedAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / tokensPerNano);
+        }
+    }
+
+    /**
+     * Число корзин в памяти
+     *
+     * @return количество отслеживаемых ключей
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private final class Stripe {
+        /**
+         * Корзины в порядке обращений: при каждом обращении updatedAt корзины становится равным текущему времени,
+         * поэтому первая корзина - с самым давним обращением
+         */
+        private final LinkedHashMap<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+
+        private void evictIdle(long now) {
+            Iterator<Bucket> iterator = buckets.values().iterator();
+            while (iterator.hasNext() && now - iterator.next().updatedAt >= rotationNanos) {
+                iterator.remove();
+            }
+        }
+
+        private Bucket eldest() {
+            return buckets.values().iterator().next();
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.habitApp.auth;
+
+import lombok.*;
+import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.models.Role;
+
+import java.time.Instant;
+
+/**
+ * Проверенные утверждения токена.
+ * userId, username и role отсутствуют (null) в токенах, выпущенных до их добавления.
+ * Токены без типа выпущены до появления токенов обновления и считаются токенами доступа.
+ * issuedAt отсутствует (null) только в токенах без времени выпуска.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class TokenClaims {
+    private String email;
+    private Long userId;
+    private String username;
+    private Role role;
+    private Instant expiresAt;
+    private String tokenId;
+    private boolean refresh;
+    private Instant issuedAt;
+
+    /**
+     * Признак того, что пользователя можно восстановить по токену без обращения к БД
+     *
+     * @return true, если в токене есть ID и роль пользователя
+     */
+    public boolean hasPrincipal() {
+        return email != null && userId != null && role != null;
+    }
+
+    /**
+     * Пользователь, восстановленный по утверждениям токена. Пароль в токен не входит и остается пустым.
+     *
+     * @return пользователь
+     */
+    public UserEntity toPrincipal() {
+        return new UserEntity(userId, email, null, username, role);
+    }
+}
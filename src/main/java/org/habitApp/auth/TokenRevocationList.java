@@ -0,0 +1,130 @@
+package org.habitApp.auth;
+
+import org.habitApp.utils.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Список отозванных токенов (по jti) до истечения их срока действия.
+ * Перед точным множеством стоит фильтр Блума: для неотозванного токена, то есть почти всегда,
+ * проверка ограничивается несколькими чтениями битов без обращения к множеству и к БД.
+ * Кроме отдельных токенов, можно отозвать все токены пользователя, выпущенные до заданного момента:
+ * так изменение и удаление пользователя лишают силы его токены обновления.
+ * Истекшие записи удаляются периодически, и фильтр строится заново по оставшимся.
+ * Список хранится в памяти и не переживает перезапуск приложения.
+ */
+@Component
+public class TokenRevocationList {
+
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final Duration tokenLifetime;
+    private final Clock clock;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    /**
+     * Момент, до которого выпущенные токены пользователя недействительны, по ID пользователя
+     */
+    private final Map<Long, Instant> revokedUsersBefore = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public TokenRevocationList(@Value("${security.revocation.expected-revocations}") long expectedRevocations,
+                               @Value("${security.revocation.false-positive-rate}") double falsePositiveRate,
+                               @Value("${security.jwt.refreshExpirationTimeInMilliseconds}") long tokenLifetimeMillis) {
+        this(expectedRevocations, falsePositiveRate, Duration.ofMillis(tokenLifetimeMillis), Clock.systemUTC());
+    }
+
+    TokenRevocationList(long expectedRevocations, double falsePositiveRate, Duration tokenLifetime, Clock clock) {
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.tokenLifetime = tokenLifetime;
+        this.clock = clock;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+    }
+
+    /**
+     * Отзыв токена до истечения его срока действия.
+     * Из параллельных вызовов для одного токена true получает только один, поэтому результат
+     * можно использовать для однократного обмена токена обновления.
+     *
+     * @param tokenId   jti токена
+     * @param expiresAt срок действия токена
+     * @return true, если токен отозван этим вызовом; false, если он уже был отозван или истек
+     */
+    public synchronized boolean revoke(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || !expiresAt.isAfter(clock.instant())) {
+            return false;
+        }
+        // Сначала множество, затем фильтр: токен, найденный фильтром, уже есть в множестве
+        if (revoked.putIfAbsent(tokenId, expiresAt) != null) {
+            return false;
+        }
+        filter.put(tokenId);
+        return true;
+    }
+
+    /**
+     * Отзыв всех токенов пользователя, выпущенных до текущего момента
+     *
+     * @param userId ID пользователя
+     */
+    public void revokeUserTokens(long userId) {
+        revokedUsersBefore.put(userId, clock.instant());
+    }
+
+    /**
+     * Проверка отзыва токенов пользователя
+     *
+     * @param userId   ID пользователя
+     * @param issuedAt время выпуска токена, null для токенов без времени выпуска
+     * @return true, если токены пользователя отозваны позже выпуска этого токена
+     */
+    public boolean isRevokedForUser(long userId, Instant issuedAt) {
+        Instant revokedBefore = revokedUsersBefore.get(userId);
+        return revokedBefore != null && (issuedAt == null || !issuedAt.isAfter(revokedBefore));
+    }
+
+    /**
+     * Проверка отзыва токена
+     *
+     * @param tokenId jti токена
+     * @return true, если токен отозван и его срок действия не истек
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.mightContain(tokenId)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt.isAfter(clock.instant());
+    }
+
+    /**
+     * Удаление истекших записей и перестроение фильтра по оставшимся
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.purge-interval}")
+    public synchronized void purgeExpired() {
+        Instant now = clock.instant();
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        // Токены, выпущенные до отзыва, к этому моменту уже истекли
+        revokedUsersBefore.values().removeIf(revokedBefore -> !revokedBefore.plus(tokenLifetime).isAfter(now));
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+
+    /**
+     * Число отозванных токенов, срок действия которых еще не истек на момент последней очистки
+     *
+     * @return размер списка
+     */
+    public int size() {
+        return revoked.size();
+    }
+}
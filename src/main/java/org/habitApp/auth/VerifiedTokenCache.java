@@ -0,0 +1,77 @@
+package org.habitApp.auth;
+
+import org.habitApp.cache.CacheStats;
+import org.habitApp.cache.ExpiringLruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Кэш проверенных токенов: повторный запрос с тем же токеном не проверяет подпись и не разбирает JSON заново.
+ * Ключ - SHA-256 от строки токена, поэтому сами токены в памяти не хранятся, а подобрать другой токен
+ * с тем же ключом практически невозможно. Запись не используется после истечения срока действия токена (exp),
+ * даже если срок жизни записи в кэше еще не истек. Недействительные токены не кэшируются.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен.", e);
+        }
+    });
+
+    private final ExpiringLruCache<String, TokenClaims> tokens;
+    private final Clock clock;
+
+    public VerifiedTokenCache(@Value("${security.jwt.token-cache.max-size}") int maxSize,
+                              @Value("${security.jwt.token-cache.ttl}") Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    VerifiedTokenCache(int maxSize, Duration ttl, Clock clock) {
+        this.tokens = new ExpiringLruCache<>(maxSize, ttl);
+        this.clock = clock;
+    }
+
+    /**
+     * Утверждения токена из кэша или полученные проверкой при промахе
+     *
+     * @param token    токен
+     * @param verifier проверка токена, возвращает null для недействительного токена
+     * @return утверждения токена или null, если токен недействителен или истек
+     */
+    public TokenClaims get(String token, Function<String, TokenClaims> verifier) {
+        String key = digest(token);
+        TokenClaims claims = tokens.get(key, () -> verifier.apply(token));
+        if (claims != null && claims.getExpiresAt() != null && !claims.getExpiresAt().isAfter(clock.instant())) {
+            tokens.invalidate(key);
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * Счетчики кэша
+     *
+     * @return снимок счетчиков
+     */
+    public CacheStats getStats() {
+        return tokens.getStats();
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.get();
+        sha256.reset();
+        return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+}
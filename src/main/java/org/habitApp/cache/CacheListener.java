@@ -0,0 +1,29 @@
+package org.habitApp.cache;
+
+/**
+ * Уведомления о сохранении и удалении записей {@link ExpiringLruCache}.
+ * Вызываются под блокировкой кэша, поэтому должны быть быстрыми и не обращаться к самому кэшу.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public interface CacheListener<K, V> {
+
+    /**
+     * Запись сохранена в кэше
+     *
+     * @param key ключ
+     * @param value значение
+     */
+    default void onStore(K key, V value) {
+    }
+
+    /**
+     * Запись покинула кэш: вытеснена, истекла, инвалидирована или заменена новым значением
+     *
+     * @param key ключ
+     * @param value значение
+     */
+    default void onRemoval(K key, V value) {
+    }
+}
@@ -0,0 +1,12 @@
+package org.habitApp.cache;
+
+/**
+ * Загрузка значения при промахе кэша.
+ *
+ * @param <V> тип значения
+ * @param <E> тип проверяемого исключения загрузки
+ */
+@FunctionalInterface
+public interface CacheLoader<V, E extends Exception> {
+    V load() throws E;
+}
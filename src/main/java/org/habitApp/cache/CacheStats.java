@@ -0,0 +1,31 @@
+package org.habitApp.cache;
+
+import lombok.*;
+
+/**
+ * Снимок счетчиков кэша.
+ * evictions - записи, вытесненные по размеру, expirations - удаленные по истечении срока жизни,
+ * invalidations - удаленные явно при изменении данных.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class CacheStats {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+    private int size;
+    private int maxSize;
+
+    /**
+     * Доля попаданий среди всех обращений
+     * @return значение от 0 до 1, 0 если обращений не было
+     */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
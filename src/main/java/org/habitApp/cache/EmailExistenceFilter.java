@@ -0,0 +1,75 @@
+package org.habitApp.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.habitApp.repositories.UserRepository;
+import org.habitApp.utils.BloomFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * Фильтр Блума по email зарегистрированных пользователей.
+ * Позволяет пропустить поиск пользователя по email перед записью, если такой email точно не встречался.
+ * Заполняется из таблицы users после запуска приложения и пополняется при создании пользователей и смене email.
+ * Удаленные email остаются в фильтре и приводят лишь к лишнему поиску.
+ * Фильтр не гарантирует уникальность: email, добавленный в обход этого экземпляра приложения,
+ * отсекается уникальным ограничением users.email.
+ */
+@Slf4j
+@Component
+public class EmailExistenceFilter {
+
+    private final UserRepository userRepository;
+    private final int fetchSize;
+    private final BloomFilter emails;
+    private volatile boolean warmedUp;
+
+    public EmailExistenceFilter(UserRepository userRepository,
+                                @Value("${users.email-filter.expected-insertions}") long expectedInsertions,
+                                @Value("${users.email-filter.false-positive-rate}") double falsePositiveRate,
+                                @Value("${users.email-filter.fetch-size}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.fetchSize = fetchSize;
+        this.emails = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * Заполнение фильтра email всех пользователей.
+     * До завершения заполнения, в том числе при ошибке, каждый email считается возможно существующим.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long startTime = System.currentTimeMillis();
+        try {
+            long count = userRepository.forEachEmail(fetchSize, emails::put);
+            warmedUp = true;
+            log.info("Фильтр email заполнен: {} адресов за {} мс.", count, System.currentTimeMillis() - startTime);
+        } catch (SQLException e) {
+            log.warn("Не удалось заполнить фильтр email, проверка выполняется запросом к БД.", e);
+        }
+    }
+
+    /**
+     * Проверка, что email может принадлежать существующему пользователю
+     *
+     * @param email email
+     * @return false, если пользователя с таким email точно нет; true, если нужна проверка в БД
+     */
+    public boolean mightExist(String email) {
+        return !warmedUp || email == null || emails.mightContain(email);
+    }
+
+    /**
+     * Добавление email созданного или измененного пользователя
+     *
+     * @param email email
+     */
+    public void add(String email) {
+        if (email != null) {
+            emails.put(email);
+        }
+    }
+}
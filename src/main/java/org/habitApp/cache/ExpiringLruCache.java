@@ -0,0 +1,211 @@
+package org.habitApp.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Кэш с ограничением размера (вытесняется давно не использованная запись) и сроком жизни записей.
+ * Доступ к таблице записей синхронизирован, загрузка значения при промахе выполняется вне блокировки.
+ * Значение, загруженное до инвалидации, в кэш не попадает: при промахе для ключа регистрируется загрузка,
+ * инвалидация ключа отменяет ее, и значение сохраняется, только если загрузка не отменена.
+ * Инвалидация одного ключа не влияет на загрузки других ключей.
+ * Сохранение и удаление записей можно отслеживать через {@link CacheListener}.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final CacheListener<K, V> listener;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final HashMap<K, Object> pendingLoads = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ExpiringLruCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, new CacheListener<>() {
+        });
+    }
+
+    public ExpiringLruCache(int maxSize, Duration ttl, CacheListener<K, V> listener) {
+        this(maxSize, ttl, listener, System::nanoTime);
+    }
+
+    ExpiringLruCache(int maxSize, Duration ttl, CacheListener<K, V> listener, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным.");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.listener = listener;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringLruCache.this.maxSize) {
+                    evictions.increment();
+                    listener.onRemoval(eldest.getKey(), eldest.getValue().value());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Значение из кэша или загруженное при промахе
+     *
+     * @param key ключ
+     * @param loader загрузка значения при промахе, null-значения не кэшируются
+     * @return значение
+     * @throws E ошибка загрузки
+     */
+    public <E extends Exception> V get(K key, CacheLoader<V, E> loader) throws E {
+        Object load = new Object();
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (nanoClock.getAsLong() - entry.expiresAt < 0) {
+                    hits.increment();
+                    return entry.value;
+                }
+                entries.remove(key);
+                expirations.increment();
+                listener.onRemoval(key, entry.value);
+            }
+            misses.increment();
+            pendingLoads.put(key, load);
+        }
+
+        V value = null;
+        try {
+            value = loader.load();
+        } finally {
+            synchronized (this) {
+                // Загрузка могла быть отменена инвалидацией ключа или заменена более поздним промахом
+                if (pendingLoads.remove(key, load) && value != null) {
+                    store(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Значение из кэша без загрузки при промахе и без учета в счетчиках попаданий и промахов
+     *
+     * @param key ключ
+     * @return значение или null, если записи нет или срок ее жизни истек
+     */
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Удаление записи
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        pendingLoads.remove(key);
+        Entry<V> removed = entries.remove(key);
+        if (removed != null) {
+            invalidations.increment();
+            listener.onRemoval(key, removed.value);
+        }
+    }
+
+    /**
+     * Удаление записей, ключи которых подходят под условие.
+     * Проходит по всем записям, поэтому стоимость пропорциональна размеру кэша.
+     *
+     * @param keyFilter условие для ключа
+     */
+    public synchronized void invalidateIf(Predicate<? super K> keyFilter) {
+        pendingLoads.keySet().removeIf(keyFilter);
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (keyFilter.test(entry.getKey())) {
+                iterator.remove();
+                invalidations.increment();
+                listener.onRemoval(entry.getKey(), entry.getValue().value());
+            }
+        }
+    }
+
+    /**
+     * Удаление записей, подходящих под условие по ключу и значению.
+     * Проходит по всем записям, поэтому стоимость пропорциональна размеру кэша.
+     * Значения незавершенных загрузок еще неизвестны, поэтому отменяются все загрузки.
+     *
+     * @param entryFilter условие для ключа и значения
+     */
+    public synchronized void invalidateEntriesIf(BiPredicate<? super K, ? super V> entryFilter) {
+        pendingLoads.clear();
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (entryFilter.test(entry.getKey(), entry.getValue().value())) {
+                iterator.remove();
+                invalidations.increment();
+                listener.onRemoval(entry.getKey(), entry.getValue().value());
+            }
+        }
+    }
+
+    /**
+     * Удаление всех записей
+     */
+    public synchronized void clear() {
+        pendingLoads.clear();
+        invalidations.add(entries.size());
+        entries.forEach((key, entry) -> listener.onRemoval(key, entry.value));
+        entries.clear();
+    }
+
+    /**
+     * Снимок счетчиков
+     *
+     * @return попадания, промахи, вытеснения и текущий размер
+     */
+    public CacheStats getStats() {
+        int size;
+        synchronized (this) {
+            size = entries.size();
+        }
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(),
+                invalidations.sum(), size, maxSize);
+    }
+
+    private void store(K key, V value) {
+        // Замененная запись покидает кэш раньше, чем сохраняется новая
+        Entry<V> replaced = entries.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos));
+        if (replaced != null) {
+            listener.onRemoval(key, replaced.value);
+        }
+        listener.onStore(key, value);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,160 @@
+package org.habitApp.cache;
+
+import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.repositories.HabitCompletionHistoryRepository;
+import org.habitApp.utils.CompletionBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Индекс дней выполнения привычек в памяти: для каждой привычки хранится {@link CompletionBitmap}.
+ * Карта загружается из истории выполнения при первом обращении и дополняется при каждой новой отметке.
+ * Карта попадает в кэш до чтения истории, поэтому отметки, сделанные во время загрузки, не теряются.
+ * Число карт ограничено, вытесняются карты давно не запрашивавшихся привычек. Срок жизни карты ограничивает
+ * время, в течение которого не видны отметки, сделанные другими экземплярами приложения.
+ */
+@Component
+public class HabitCompletionIndex {
+
+    private final HabitCompletionHistoryRepository habitCompletionHistoryRepository;
+
+    private final ExpiringLruCache<Long, CompletionBitmap> bitmaps;
+
+    public HabitCompletionIndex(HabitCompletionHistoryRepository habitCompletionHistoryRepository,
+                                @Value("${habits.completion-index.max-size}") int maxSize,
+                                @Value("${habits.completion-index.ttl}") Duration ttl) {
+        this.habitCompletionHistoryRepository = habitCompletionHistoryRepository;
+        this.bitmaps = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Карта дней выполнения привычки, при первом обращении загружается из БД
+     *
+     * @param habit привычка
+     * @return карта дней выполнения
+     * @throws SQLException ошибка работы с БД
+     */
+    public CompletionBitmap get(HabitEntity habit) throws SQLException {
+        CompletionBitmap bitmap = bitmaps.get(habit.getId(), () -> new CompletionBitmap(habit.getCreatedDate()));
+        if (bitmap.isLoaded()) {
+            return bitmap;
+        }
+
+        synchronized (bitmap) {
+            if (!bitmap.isLoaded()) {
+                try {
+                    for (LocalDate day : habitCompletionHistoryRepository.getCompletionHistoryForHabit(habit.getId())) {
+                        bitmap.set(day);
+                    }
+                } catch (SQLException | RuntimeException e) {
+                    bitmaps.invalidate(habit.getId());
+                    throw e;
+                }
+                bitmap.markLoaded();
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Карты дней выполнения всех привычек пользователя.
+     * Незагруженные карты заполняются одним запросом истории всех привычек пользователя.
+     *
+     * @param userId ID владельца привычек
+     * @param habits привычки пользователя
+     * @return карты дней выполнения по ID привычки
+     * @throws SQLException ошибка работы с БД
+     */
+    public Map<Long, CompletionBitmap> getAll(long userId, Collection<HabitEntity> habits) throws SQLException {
+        Map<Long, CompletionBitmap> result = new HashMap<>();
+        List<HabitEntity> unloaded = new ArrayList<>();
+        for (HabitEntity habit : habits) {
+            CompletionBitmap bitmap = bitmaps.get(habit.getId(), () -> new CompletionBitmap(habit.getCreatedDate()));
+            result.put(habit.getId(), bitmap);
+            if (!bitmap.isLoaded()) {
+                unloaded.add(habit);
+            }
+        }
+        if (unloaded.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, List<LocalDate>> history;
+        try {
+            history = habitCompletionHistoryRepository.getCompletionHistoryForUserHabits(userId);
+        } catch (SQLException | RuntimeException e) {
+            unloaded.forEach(habit -> bitmaps.invalidate(habit.getId()));
+            throw e;
+        }
+        for (HabitEntity habit : unloaded) {
+            CompletionBitmap bitmap = result.get(habit.getId());
+            synchronized (bitmap) {
+                if (!bitmap.isLoaded()) {
+                    history.getOrDefault(habit.getId(), List.of()).forEach(bitmap::set);
+                    bitmap.markLoaded();
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Учет новой отметки выполнения. Если карта привычки еще не загружена, отметка попадет в нее при загрузке.
+     *
+     * @param habitId ID привычки
+     * @param day     день выполнения
+     */
+    public void recordCompletion(long habitId, LocalDate day) {
+        CompletionBitmap bitmap = bitmaps.getIfPresent(habitId);
+        if (bitmap != null) {
+            bitmap.set(day);
+        }
+    }
+
+    /**
+     * Учет нескольких новых отметок выполнения
+     *
+     * @param habitId ID привычки
+     * @param days    дни выполнения
+     */
+    public void recordCompletions(long habitId, Collection<LocalDate> days) {
+        CompletionBitmap bitmap = bitmaps.getIfPresent(habitId);
+        if (bitmap != null) {
+            days.forEach(bitmap::set);
+        }
+    }
+
+    /**
+     * Удаление карты привычки (привычка удалена)
+     *
+     * @param habitId ID привычки
+     */
+    public void evict(long habitId) {
+        bitmaps.invalidate(habitId);
+    }
+
+    /**
+     * Удаление всех карт (история изменена в обход сервиса привычек, например массовой загрузкой)
+     */
+    public void clear() {
+        bitmaps.clear();
+    }
+
+    /**
+     * Счетчики кэша для подбора размера и срока жизни
+     *
+     * @return снимок счетчиков
+     */
+    public CacheStats getStats() {
+        return bitmaps.getStats();
+    }
+}
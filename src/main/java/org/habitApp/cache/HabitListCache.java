@@ -0,0 +1,54 @@
+package org.habitApp.cache;
+
+import org.habitApp.domain.entities.HabitEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Кэш списков привычек по ID пользователя.
+ * Список пользователя удаляется при создании, изменении и удалении его привычек и при удалении самого пользователя.
+ * Размер ограничен числом пользователей, вытесняются давно не запрашивавшие список.
+ */
+@Component
+public class HabitListCache {
+
+    private final ExpiringLruCache<Long, List<HabitEntity>> habitsByUser;
+
+    public HabitListCache(@Value("${habits.cache.max-size}") int maxSize,
+                          @Value("${habits.cache.ttl}") Duration ttl) {
+        this.habitsByUser = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Список привычек пользователя из кэша или загруженный при промахе
+     *
+     * @param userId ID пользователя
+     * @param loader загрузка списка из БД
+     * @return неизменяемый список привычек
+     * @throws E ошибка загрузки
+     */
+    public <E extends Exception> List<HabitEntity> get(long userId, CacheLoader<List<HabitEntity>, E> loader) throws E {
+        return habitsByUser.get(userId, () -> List.copyOf(loader.load()));
+    }
+
+    /**
+     * Удаление списка привычек пользователя
+     *
+     * @param userId ID пользователя
+     */
+    public void invalidate(long userId) {
+        habitsByUser.invalidate(userId);
+    }
+
+    /**
+     * Счетчики кэша для подбора размера
+     *
+     * @return снимок счетчиков
+     */
+    public CacheStats getStats() {
+        return habitsByUser.getStats();
+    }
+}
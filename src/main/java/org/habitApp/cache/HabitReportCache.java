@@ -0,0 +1,73 @@
+package org.habitApp.cache;
+
+import org.habitApp.domain.dto.habitDto.HabitReportDto;
+import org.habitApp.models.Period;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Кэш отчетов о прогрессе привычек по ключу (привычка, период, дата).
+ * Дата входит в ключ, поэтому после смены дня отчеты пересчитываются без явной очистки.
+ * Записи привычки удаляются при ее выполнении, изменении и удалении.
+ */
+@Component
+public class HabitReportCache {
+
+    private final ExpiringLruCache<ReportKey, HabitReportDto> reports;
+
+    public HabitReportCache(@Value("${reports.cache.max-size}") int maxSize,
+                            @Value("${reports.cache.ttl}") Duration ttl) {
+        this.reports = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Отчет из кэша или построенный при промахе
+     *
+     * @param habitId ID привычки
+     * @param period  период отчета
+     * @param date    дата, на которую строится отчет
+     * @param loader  построение отчета
+     * @return отчет о прогрессе
+     * @throws E ошибка построения отчета
+     */
+    public <E extends Exception> HabitReportDto get(long habitId, Period period, LocalDate date,
+                                                    CacheLoader<HabitReportDto, E> loader) throws E {
+        return reports.get(new ReportKey(habitId, period, date), loader);
+    }
+
+    /**
+     * Удаление отчетов привычки на текущую дату по каждому периоду.
+     * Отчеты на прошлые даты не запрашиваются и вытесняются по размеру и сроку жизни,
+     * поэтому удаляются только точные ключи, без обхода всего кэша.
+     *
+     * @param habitId ID привычки
+     */
+    public void invalidate(long habitId) {
+        LocalDate today = LocalDate.now();
+        for (Period period : Period.values()) {
+            reports.invalidate(new ReportKey(habitId, period, today));
+        }
+    }
+
+    /**
+     * Удаление всех отчетов (история изменена в обход сервиса привычек)
+     */
+    public void clear() {
+        reports.clear();
+    }
+
+    /**
+     * Счетчики кэша для подбора размера и срока жизни
+     *
+     * @return снимок счетчиков
+     */
+    public CacheStats getStats() {
+        return reports.getStats();
+    }
+
+    private record ReportKey(long habitId, Period period, LocalDate date) {
+    }
+}
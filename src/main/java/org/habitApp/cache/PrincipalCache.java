@@ -0,0 +1,99 @@
+package org.habitApp.cache;
+
+import org.habitApp.domain.entities.UserEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш данных аутентифицированных пользователей по email из токена.
+ * Избавляет каждый запрос с токеном от чтения пользователя из БД.
+ * Кэш хранит собственную копию пользователя и каждому запросу выдает новую копию,
+ * поэтому изменения объекта в одном запросе не видны другим запросам и самому кэшу.
+ * Запись удаляется при изменении и удалении пользователя; короткий срок жизни ограничивает
+ * устаревание при изменениях в обход сервиса пользователей.
+ */
+@Component
+public class PrincipalCache {
+
+    private final ExpiringLruCache<String, UserDetails> principals;
+
+    /**
+     * Email закэшированных пользователей по ID, поддерживается слушателем кэша
+     * и содержит не больше записей, чем сам кэш
+     */
+    private final Map<Long, String> emailsByUserId = new ConcurrentHashMap<>();
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size}") int maxSize,
+                          @Value("${security.principal-cache.ttl}") Duration ttl) {
+        this.principals = new ExpiringLruCache<>(maxSize, ttl, new CacheListener<>() {
+            @Override
+            public void onStore(String email, UserDetails user) {
+                if (user instanceof UserEntity entity) {
+                    emailsByUserId.put(entity.getId(), email);
+                }
+            }
+
+            @Override
+            public void onRemoval(String email, UserDetails user) {
+                if (user instanceof UserEntity entity) {
+                    emailsByUserId.remove(entity.getId(), email);
+                }
+            }
+        });
+    }
+
+    /**
+     * Копия пользователя из кэша или загруженного при промахе
+     *
+     * @param email  email пользователя
+     * @param loader загрузка пользователя, отсутствующий пользователь (null) не кэшируется
+     * @return данные пользователя или null
+     * @throws E ошибка загрузки
+     */
+    public <E extends Exception> UserDetails get(String email, CacheLoader<UserDetails, E> loader) throws E {
+        return copyOf(principals.get(email, () -> copyOf(loader.load())));
+    }
+
+    /**
+     * Удаление пользователя по email
+     *
+     * @param email email пользователя
+     */
+    public void invalidate(String email) {
+        principals.invalidate(email);
+    }
+
+    /**
+     * Удаление пользователя по ID, когда email неизвестен
+     *
+     * @param userId ID пользователя
+     */
+    public void invalidateUser(long userId) {
+        String email = emailsByUserId.get(userId);
+        if (email != null) {
+            principals.invalidate(email);
+        }
+    }
+
+    /**
+     * Счетчики кэша
+     *
+     * @return снимок счетчиков
+     */
+    public CacheStats getStats() {
+        return principals.getStats();
+    }
+
+    private static UserDetails copyOf(UserDetails user) {
+        if (user instanceof UserEntity entity) {
+            return new UserEntity(entity.getId(), entity.getEmail(), entity.getPassword(),
+                    entity.getUsername(), entity.getRole());
+        }
+        return user;
+    }
+}
@@ -0,0 +1,39 @@
+package org.habitApp.config;
+
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.id.SequenceHiLoIdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.habitApp.repositories.constants.HabitCompletionHistorySqlQueries.HABIT_COMPLETION_HISTORY_ID_SEQUENCE;
+import static org.habitApp.repositories.constants.HabitSqlQueries.HABITS_ID_SEQUENCE;
+import static org.habitApp.repositories.constants.UserSqlQueries.USERS_ID_SEQUENCE;
+
+/**
+ * Выдача id для репозиториев.
+ * Имена бинов совпадают с именами параметров конструкторов репозиториев.
+ */
+@Configuration
+public class IdAllocatorConfig {
+
+    /**
+     * Размер блока id, совпадает с INCREMENT BY последовательностей из 005-add-id-sequences.xml
+     */
+    public static final int ID_BLOCK_SIZE = 50;
+
+    @Bean
+    public IdAllocator userIdAllocator(JdbcExecutor jdbcExecutor) {
+        return new SequenceHiLoIdAllocator(jdbcExecutor, USERS_ID_SEQUENCE, ID_BLOCK_SIZE);
+    }
+
+    @Bean
+    public IdAllocator habitIdAllocator(JdbcExecutor jdbcExecutor) {
+        return new SequenceHiLoIdAllocator(jdbcExecutor, HABITS_ID_SEQUENCE, ID_BLOCK_SIZE);
+    }
+
+    @Bean
+    public IdAllocator habitCompletionHistoryIdAllocator(JdbcExecutor jdbcExecutor) {
+        return new SequenceHiLoIdAllocator(jdbcExecutor, HABIT_COMPLETION_HISTORY_ID_SEQUENCE, ID_BLOCK_SIZE);
+    }
+}
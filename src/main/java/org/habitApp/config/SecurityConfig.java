@@ -31,7 +31,7 @@ public class SecurityConfig {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(authz -> authz
-                        .requestMatchers("users/admin/**", "habits/admin/**", "/auth/admin/**").hasAuthority("ROLE_ADMIN")
+                        .requestMatchers("users/admin/**", "habits/admin/**", "/auth/admin/**", "/admin/**").hasAuthority("ROLE_ADMIN")
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/swagger-resources/*", "/v3/api-docs/**").permitAll()
                         .anyRequest().authenticated()
@@ -45,8 +45,12 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Статический метод: кодировщик нужен PasswordHasher, который через сервис пользователей
+     * входит в зависимости фильтра этой конфигурации, поэтому бин создается без экземпляра SecurityConfig.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public static PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
 
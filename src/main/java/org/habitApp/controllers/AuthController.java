@@ -4,13 +4,17 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.habitApp.domain.dto.userDto.RefreshTokenDto;
 import org.habitApp.domain.dto.userDto.UserDtoLogin;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.InvalidCredentialsException;
+import org.habitApp.exceptions.PasswordHashingRejectedException;
 import org.habitApp.exceptions.UserAlreadyExistsException;
 import org.habitApp.services.AuthService;
 import org.habitApp.services.UserService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -45,6 +49,8 @@ public class AuthController {
             authService.registerUser(userDtoRegisterUpdate);
         } catch (SQLException | UserAlreadyExistsException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         }
         return ResponseEntity.ok().build();
     }
@@ -67,9 +73,44 @@ public class AuthController {
             return ResponseEntity.ok(authService.loginUser(userDtoLogin));
         } catch (SQLException | InvalidCredentialsException e) {
             return ResponseEntity.status(403).body(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         }
     }
 
+    /**
+     * Выпуск новой пары токенов по токену обновления.
+     *
+     * @param refreshTokenDto Токен обновления
+     * @return Ответ с новыми токенами или сообщение об ошибке
+     */
+    @Operation(summary = "Обновление токенов", description = "Выдает новые токен доступа и токен обновления, использованный токен обновления отзывается.")
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenDto refreshTokenDto) {
+        try {
+            return ResponseEntity.ok(authService.refresh(refreshTokenDto.getRefreshToken()));
+        } catch (SQLException | InvalidCredentialsException e) {
+            return ResponseEntity.status(403).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Выход пользователя: отзыв токена доступа из заголовка Authorization и переданного токена обновления.
+     *
+     * @param authHeader Заголовок Authorization
+     * @param refreshTokenDto Токен обновления, может отсутствовать
+     * @return Ответ с кодом состояния
+     */
+    @Operation(summary = "Выход пользователя", description = "Отзывает текущий токен доступа и переданный токен обновления.")
+    @SecurityRequirement(name = "bearerAuth")
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                    @RequestBody(required = false) RefreshTokenDto refreshTokenDto) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, refreshTokenDto == null ? null : refreshTokenDto.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Проверяет авторизацию пользователя
      *
@@ -0,0 +1,66 @@
+package org.habitApp.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.habitApp.services.ExportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Контроллер полной выгрузки привычек и пользователей в NDJSON (только для админа).
+ */
+@Tag(name = "ExportController", description = "Потоковая выгрузка привычек и пользователей для администратора.")
+@SecurityRequirement(name = "bearerAuth")
+@RestController
+@RequestMapping("/admin/export")
+@RequiredArgsConstructor
+public class ExportController {
+    private final ExportService exportService;
+
+    /**
+     * Выгружает все привычки, по одному JSON-объекту на строку.
+     *
+     * @return ResponseEntity с потоком привычек
+     */
+    @Operation(summary = "Выгрузка всех привычек", description = "Выгружает все привычки в формате NDJSON, строки читаются из БД курсором.")
+    @GetMapping("/habits")
+    public ResponseEntity<StreamingResponseBody> exportHabits() {
+        return ndjson(out -> {
+            try {
+                exportService.exportHabits(out);
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Выгружает всех пользователей без хешей паролей, по одному JSON-объекту на строку.
+     *
+     * @return ResponseEntity с потоком пользователей
+     */
+    @Operation(summary = "Выгрузка всех пользователей", description = "Выгружает всех пользователей в формате NDJSON, строки читаются из БД курсором.")
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        return ndjson(out -> {
+            try {
+                exportService.exportUsers(out);
+            } catch (SQLException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        });
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -0,0 +1,76 @@
+package org.habitApp.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.habitApp.models.CopyFormat;
+import org.habitApp.services.HabitCompletionHistoryTransferService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+/**
+ * Контроллер массовой выгрузки и загрузки истории выполнения привычек (только для админа).
+ */
+@Tag(name = "HabitCompletionHistoryTransferController", description = "Массовый перенос истории выполнения привычек через COPY.")
+@SecurityRequirement(name = "bearerAuth")
+@RestController
+@RequestMapping("/admin/completion-history")
+@RequiredArgsConstructor
+public class HabitCompletionHistoryTransferController {
+    private final HabitCompletionHistoryTransferService habitCompletionHistoryTransferService;
+
+    /**
+     * Выгружает всю историю выполнения в тело ответа.
+     * Строки передаются из БД в ответ потоком, скорость выгрузки пишется в лог.
+     *
+     * @param format формат выгрузки ("csv", "binary")
+     * @return ResponseEntity с потоком данных или с сообщением об ошибке.
+     */
+    @Operation(summary = "Выгрузка истории выполнения", description = "Выгружает всю историю выполнения привычек потоком в формате CSV или binary COPY.")
+    @GetMapping("/export/{format}")
+    public ResponseEntity<?> exportCompletionHistory(@PathVariable("format") String format) {
+        try {
+            CopyFormat copyFormat = CopyFormat.fromString(format);
+            StreamingResponseBody body = out -> {
+                try {
+                    habitCompletionHistoryTransferService.exportTo(copyFormat, out);
+                } catch (SQLException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(copyFormat.getMediaType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"habit_completion_history." + copyFormat.getFormatName() + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Загружает историю выполнения из тела запроса в одной транзакции.
+     *
+     * @param format формат загрузки ("csv", "binary")
+     * @param request запрос, тело которого передается в COPY без промежуточной буферизации
+     * @return ResponseEntity с числом строк и скоростью загрузки или с сообщением об ошибке.
+     */
+    @Operation(summary = "Загрузка истории выполнения", description = "Загружает историю выполнения привычек из тела запроса в формате CSV или binary COPY, уже отмеченные дни пропускаются.")
+    @PostMapping("/import/{format}")
+    public ResponseEntity<?> importCompletionHistory(@PathVariable("format") String format, HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(habitCompletionHistoryTransferService.importFrom(
+                    CopyFormat.fromString(format), request.getInputStream()));
+        } catch (SQLException | IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
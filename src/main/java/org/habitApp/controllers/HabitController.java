@@ -4,20 +4,30 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.habitApp.domain.dto.KeysetPageDto;
+import org.habitApp.domain.dto.habitDto.HabitCompletionBatchDto;
+import org.habitApp.domain.dto.habitDto.HabitCompletionBatchResultDto;
 import org.habitApp.domain.dto.habitDto.HabitDtoCreateUpdate;
 import org.habitApp.domain.dto.habitDto.HabitDtoResponse;
 import org.habitApp.domain.dto.habitDto.HabitReportDto;
+import org.habitApp.domain.entities.HabitEntity;
 import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.exceptions.HabitAlreadyCompletedException;
 import org.habitApp.exceptions.HabitNotFoundException;
 import org.habitApp.exceptions.UnauthorizedAccessException;
 import org.habitApp.mappers.HabitMapper;
 import org.habitApp.models.Period;
 import org.habitApp.services.HabitService;
+import org.habitApp.services.HabitStreakRepairService;
+import org.habitApp.services.HabitStreakSweepService;
+import org.habitApp.services.StreakLeaderboardService;
+import org.habitApp.utils.KeysetPagination;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "HabitController", description = "Контроллер для управления привычками пользователя.")
@@ -27,6 +37,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HabitController {
     private final HabitService habitService;
+    private final HabitStreakRepairService habitStreakRepairService;
+    private final HabitStreakSweepService habitStreakSweepService;
+    private final StreakLeaderboardService streakLeaderboardService;
     private final HabitMapper habitMapper;
 
     /**
@@ -114,18 +127,72 @@ public class HabitController {
     }
 
     /**
-     * Возвращает список всех привычек для администратора.
+     * Возвращает страницу привычек всех пользователей для администратора.
+     * Для следующей страницы nextCursor из ответа передается в параметр after.
      *
-     * @return ResponseEntity со списком всех привычек или с сообщением об ошибке.
+     * @param after идентификатор последней привычки предыдущей страницы
+     * @param limit размер страницы
+     * @return ResponseEntity со страницей привычек или с сообщением об ошибке.
      */
-    @Operation(summary = "Получение всех привычек для администратора", description = "Возвращает список всех привычек для администратора.")
+    @Operation(summary = "Получение всех привычек для администратора", description = "Возвращает страницу привычек всех пользователей для администратора. Для следующей страницы nextCursor передается в параметр after.")
     @GetMapping("/admin/all")
-    public ResponseEntity<?> getAllHabitsAdmin() {
+    public ResponseEntity<?> getAllHabitsAdmin(@RequestParam(value = "after", required = false) Long after,
+                                               @RequestParam(value = "limit", defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit) {
         try {
-            List<HabitDtoResponse> habits = habitService.getAllHabitsAdmin()
+            KeysetPageDto<HabitEntity> page = habitService.getAllHabitsAdmin(after, limit);
+            List<HabitDtoResponse> habits = page.getItems()
                     .stream().map(habitMapper::habitToHabitDtoResponse).toList();
-            return ResponseEntity.ok(habits);
-        } catch (SQLException | UnauthorizedAccessException e) {
+            return ResponseEntity.ok(new KeysetPageDto<>(habits, page.getNextCursor()));
+        } catch (SQLException | UnauthorizedAccessException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Пересчитывает серии выполнения всех привычек по истории и исправляет расхождения (только для администратора).
+     *
+     * @return ResponseEntity с количеством проверенных и исправленных привычек или с сообщением об ошибке.
+     */
+    @Operation(summary = "Сверка серий выполнения", description = "Пересчитывает серии выполнения всех привычек по истории и исправляет расхождения с сохраненными значениями.")
+    @PostMapping("/admin/streaks/repair")
+    public ResponseEntity<?> repairStreaks() {
+        try {
+            return ResponseEntity.ok(habitStreakRepairService.repairStreaks());
+        } catch (SQLException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Сбрасывает текущие серии привычек, не отмеченных вчера и сегодня (только для администратора).
+     *
+     * @return ResponseEntity с количеством сброшенных серий или с сообщением об ошибке.
+     */
+    @Operation(summary = "Сброс прерванных серий", description = "Сбрасывает текущие серии привычек, не отмеченных вчера и сегодня. Обычно выполняется по расписанию после полуночи.")
+    @PostMapping("/admin/streaks/sweep")
+    public ResponseEntity<?> resetBrokenStreaks() {
+        try {
+            return ResponseEntity.ok(habitStreakSweepService.resetBrokenStreaks());
+        } catch (SQLException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Возвращает таблицу лидеров по текущей и максимальной серии (только для администратора).
+     * Таблица пересчитывается по расписанию, между запусками возвращается сохраненный результат.
+     *
+     * @param refresh пересчитать таблицу сейчас
+     * @return ResponseEntity с таблицей лидеров или с сообщением об ошибке.
+     */
+    @Operation(summary = "Таблица лидеров по сериям", description = "Возвращает пользователей с лучшей текущей и максимальной серией выполнения привычек. Результат хранится до следующего пересчета.")
+    @GetMapping("/admin/leaderboard")
+    public ResponseEntity<?> getLeaderboard(@RequestParam(value = "refresh", defaultValue = "false") boolean refresh) {
+        try {
+            return ResponseEntity.ok(refresh
+                    ? streakLeaderboardService.refreshLeaderboard()
+                    : streakLeaderboardService.getLeaderboard());
+        } catch (SQLException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
@@ -162,7 +229,28 @@ public class HabitController {
         try {
             habitService.markHabitAsCompleted(id);
             return ResponseEntity.ok().body("Habit marked as completed.");
-        } catch (SQLException | HabitNotFoundException | UnauthorizedAccessException e) {
+        } catch (SQLException | HabitNotFoundException | UnauthorizedAccessException | HabitAlreadyCompletedException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Отмечает привычку как выполненную за набор дат одной транзакцией.
+     * Дни, которые уже отмечены, пропускаются.
+     *
+     * @param id идентификатор привычки.
+     * @param batchDto даты выполнения
+     * @param currentUser текущий пользователь
+     * @return ResponseEntity с количеством добавленных и пропущенных отметок или с сообщением об ошибке.
+     */
+    @Operation(summary = "Пакетная отметка привычки как выполненной", description = "Отмечает привычку как выполненную за набор дат одной транзакцией, уже отмеченные дни пропускаются.")
+    @PostMapping("/{id}/complete/batch")
+    public ResponseEntity<?> markHabitCompletedOnDates(@PathVariable("id") long id, @RequestBody HabitCompletionBatchDto batchDto, @AuthenticationPrincipal UserEntity currentUser) {
+        try {
+            List<LocalDate> dates = batchDto.getDates();
+            int added = habitService.markHabitAsCompletedOnDates(id, dates, currentUser);
+            return ResponseEntity.ok(new HabitCompletionBatchResultDto(dates.size(), added, dates.size() - added));
+        } catch (SQLException | HabitNotFoundException | UnauthorizedAccessException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
@@ -179,20 +267,31 @@ public class HabitController {
     @GetMapping("/{id}/report/{period}")
     public ResponseEntity<?> getHabitReport(@PathVariable("id") long id, @PathVariable("period") String period, @AuthenticationPrincipal UserEntity currentUser) {
         try {
-            int completionCount = habitService.calculateHabitCompletedByPeriod(
+            HabitReportDto reportDto = habitService.generateProgressReport(
                     habitService.getHabitById(id, currentUser), Period.fromString(period));
-            int currentStreak = habitService.calculateCurrentStreak(habitService.getHabitById(id, currentUser));
-
-            HabitReportDto reportDto = new HabitReportDto();
-            reportDto.setCompletionCount(completionCount);
-            reportDto.setStreak(currentStreak);
-
             return ResponseEntity.ok(reportDto);
         } catch (SQLException | HabitNotFoundException | UnauthorizedAccessException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Возвращает отчеты о прогрессе всех привычек текущего пользователя за указанный период одним запросом.
+     *
+     * @param period период для отчетов (например, "day", "week")
+     * @param currentUser текущий пользователь
+     * @return ResponseEntity со списком отчетов или с сообщением об ошибке.
+     */
+    @Operation(summary = "Отчеты по всем привычкам", description = "Возвращает отчеты о прогрессе всех привычек текущего пользователя за указанный период одним запросом.")
+    @GetMapping("/reports/{period}")
+    public ResponseEntity<?> getHabitReports(@PathVariable("period") String period, @AuthenticationPrincipal UserEntity currentUser) {
+        try {
+            return ResponseEntity.ok(habitService.generateProgressReports(currentUser, Period.fromString(period)));
+        } catch (SQLException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Возвращает процент выполнения привычки за указанный период.
      *
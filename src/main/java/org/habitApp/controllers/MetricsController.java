@@ -0,0 +1,145 @@
+package org.habitApp.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.habitApp.auth.AuthRateLimitFilter;
+import org.habitApp.auth.AuthRateLimiterMetrics;
+import org.habitApp.auth.PasswordHasher;
+import org.habitApp.auth.PasswordHasherMetrics;
+import org.habitApp.auth.VerifiedTokenCache;
+import org.habitApp.cache.CacheStats;
+import org.habitApp.cache.HabitCompletionIndex;
+import org.habitApp.cache.HabitListCache;
+import org.habitApp.cache.HabitReportCache;
+import org.habitApp.cache.PrincipalCache;
+import org.habitApp.domain.dto.habitDto.HabitStreakSweepResultDto;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.repositories.jdbc.JdbcExecutorMetrics;
+import org.habitApp.services.HabitStreakSweepService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Контроллер для просмотра внутренних счетчиков приложения (только для админа).
+ */
+@Tag(name = "MetricsController", description = "Внутренние метрики приложения для администратора.")
+@SecurityRequirement(name = "bearerAuth")
+@RestController
+@RequestMapping("/admin/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+    private final JdbcExecutor jdbcExecutor;
+    private final HabitStreakSweepService habitStreakSweepService;
+    private final HabitReportCache habitReportCache;
+    private final HabitListCache habitListCache;
+    private final HabitCompletionIndex habitCompletionIndex;
+    private final PrincipalCache principalCache;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final PasswordHasher passwordHasher;
+    private final AuthRateLimitFilter authRateLimitFilter;
+
+    /**
+     * Возвращает счетчики использования соединений с БД.
+     *
+     * @return ResponseEntity с метриками соединений
+     */
+    @Operation(summary = "Метрики соединений с БД", description = "Возвращает число выдач соединений, время их получения и удержания, число занятых соединений.")
+    @GetMapping("/jdbc")
+    public ResponseEntity<JdbcExecutorMetrics> getJdbcMetrics() {
+        return ResponseEntity.ok(jdbcExecutor.getMetrics());
+    }
+
+    /**
+     * Возвращает результат последнего сброса прерванных серий.
+     *
+     * @return ResponseEntity с результатом или 204, если сброс еще не выполнялся
+     */
+    @Operation(summary = "Последний сброс серий", description = "Возвращает дату, число сброшенных серий, число порций и время последнего сброса прерванных серий.")
+    @GetMapping("/streak-sweep")
+    public ResponseEntity<HabitStreakSweepResultDto> getLastStreakSweep() {
+        return habitStreakSweepService.getLastResult()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Возвращает счетчики кэша отчетов о прогрессе.
+     *
+     * @return ResponseEntity с попаданиями, промахами, вытеснениями и размером кэша
+     */
+    @Operation(summary = "Метрики кэша отчетов", description = "Возвращает попадания, промахи, вытеснения по размеру и сроку жизни, инвалидации и текущий размер кэша отчетов.")
+    @GetMapping("/report-cache")
+    public ResponseEntity<CacheStats> getReportCacheStats() {
+        return ResponseEntity.ok(habitReportCache.getStats());
+    }
+
+    /**
+     * Возвращает счетчики кэша списков привычек.
+     *
+     * @return ResponseEntity с попаданиями, промахами, вытеснениями и размером кэша
+     */
+    @Operation(summary = "Метрики кэша привычек", description = "Возвращает попадания, промахи, вытеснения, инвалидации и текущий размер кэша списков привычек пользователей.")
+    @GetMapping("/habit-cache")
+    public ResponseEntity<CacheStats> getHabitCacheStats() {
+        return ResponseEntity.ok(habitListCache.getStats());
+    }
+
+    /**
+     * Возвращает счетчики индекса дней выполнения привычек.
+     *
+     * @return ResponseEntity с попаданиями, промахами, вытеснениями и размером кэша
+     */
+    @Operation(summary = "Метрики индекса выполнений", description = "Возвращает попадания, промахи, вытеснения по размеру и сроку жизни, инвалидации и текущее число битовых карт дней выполнения.")
+    @GetMapping("/completion-index")
+    public ResponseEntity<CacheStats> getCompletionIndexStats() {
+        return ResponseEntity.ok(habitCompletionIndex.getStats());
+    }
+
+    /**
+     * Возвращает счетчики кэша аутентифицированных пользователей.
+     *
+     * @return ResponseEntity с попаданиями, промахами, вытеснениями и размером кэша
+     */
+    @Operation(summary = "Метрики кэша пользователей", description = "Возвращает попадания, промахи, истечения срока жизни, инвалидации и текущий размер кэша пользователей, аутентифицированных по токену.")
+    @GetMapping("/principal-cache")
+    public ResponseEntity<CacheStats> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.getStats());
+    }
+
+    /**
+     * Возвращает счетчики кэша проверенных токенов.
+     *
+     * @return ResponseEntity с попаданиями, промахами, вытеснениями и размером кэша
+     */
+    @Operation(summary = "Метрики кэша токенов", description = "Возвращает попадания, промахи, вытеснения, истекшие токены и текущий размер кэша проверенных токенов.")
+    @GetMapping("/token-cache")
+    public ResponseEntity<CacheStats> getTokenCacheStats() {
+        return ResponseEntity.ok(verifiedTokenCache.getStats());
+    }
+
+    /**
+     * Возвращает счетчики пула хеширования паролей.
+     *
+     * @return ResponseEntity с числом выполненных и отклоненных задач и занятостью пула
+     */
+    @Operation(summary = "Метрики хеширования паролей", description = "Возвращает число выполненных и отклоненных задач хеширования, занятые потоки и длину очереди.")
+    @GetMapping("/password-hashing")
+    public ResponseEntity<PasswordHasherMetrics> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(passwordHasher.getMetrics());
+    }
+
+    /**
+     * Возвращает счетчики ограничителя частоты запросов на вход и регистрацию.
+     *
+     * @return ResponseEntity с числом пропущенных и отклоненных запросов
+     */
+    @Operation(summary = "Метрики ограничения входа", description = "Возвращает число пропущенных запросов, отклоненных по IP и по email, и число отслеживаемых ключей.")
+    @GetMapping("/auth-rate-limit")
+    public ResponseEntity<AuthRateLimiterMetrics> getAuthRateLimitMetrics() {
+        return ResponseEntity.ok(authRateLimitFilter.getMetrics());
+    }
+}
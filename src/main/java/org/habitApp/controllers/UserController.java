@@ -4,14 +4,19 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.habitApp.domain.dto.KeysetPageDto;
 import org.habitApp.domain.dto.userDto.UserDto;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.UnauthorizedAccessException;
+import org.habitApp.exceptions.PasswordHashingRejectedException;
 import org.habitApp.exceptions.UserAlreadyExistsException;
 import org.habitApp.exceptions.UserNotFoundException;
 import org.habitApp.mappers.UserMapper;
 import org.habitApp.services.UserService;
+import org.habitApp.utils.KeysetPagination;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -47,6 +52,8 @@ public class UserController {
             userService.updateCurrentUserProfile(userDtoRegisterUpdate, currentUser);
         } catch (SQLException | UserNotFoundException | UserAlreadyExistsException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         }
         return ResponseEntity.ok().build();
     }
@@ -85,17 +92,21 @@ public class UserController {
     }
 
     /**
-     * Получение списка всех пользователей (доступно только администраторам).
+     * Получение страницы пользователей (доступно только администраторам).
+     * Для следующей страницы nextCursor из ответа передается в параметр after.
      *
-     * @return Ответ со списком пользователей
+     * @param after ID последнего пользователя предыдущей страницы
+     * @param limit Размер страницы
+     * @return Ответ со страницей пользователей и курсором следующей страницы
      */
-    @Operation(summary = "Получение списка пользователей", description = "Возвращает список всех пользователей для администратора.")
+    @Operation(summary = "Получение списка пользователей", description = "Возвращает страницу пользователей для администратора. Для следующей страницы nextCursor передается в параметр after.")
     @GetMapping("/admin")
-    public ResponseEntity<?> getAllUsers() {
+    public ResponseEntity<?> getAllUsers(@RequestParam(value = "after", required = false) Long after,
+                                         @RequestParam(value = "limit", defaultValue = KeysetPagination.DEFAULT_LIMIT) int limit) {
         try {
-            List<UserDto> users = userService.getAllUsers();
+            KeysetPageDto<UserDto> users = userService.getAllUsers(after, limit);
             return ResponseEntity.ok(users);
-        } catch (SQLException | UnauthorizedAccessException e) {
+        } catch (SQLException | UnauthorizedAccessException | IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
@@ -116,6 +127,8 @@ public class UserController {
             return ResponseEntity.ok(updatedUserDto);
         } catch (SQLException | UnauthorizedAccessException | UserNotFoundException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
         }
     }
 
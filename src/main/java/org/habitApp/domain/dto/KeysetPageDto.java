@@ -0,0 +1,22 @@
+package org.habitApp.domain.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Страница списка при keyset-пагинации.
+ * nextCursor передается в параметр after следующего запроса, null означает последнюю страницу.
+ *
+ * @param <T> тип элементов страницы
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class KeysetPageDto<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,18 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Набор дат выполнения привычки для пакетной отметки (перенос истории из других трекеров).
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class HabitCompletionBatchDto {
+    private List<LocalDate> dates;
+}
@@ -0,0 +1,18 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+/**
+ * Результат пакетной отметки выполнения привычки.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class HabitCompletionBatchResultDto {
+    private int requested;
+    private int added;
+    private int skipped;
+}
@@ -0,0 +1,22 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+import org.habitApp.models.CopyFormat;
+
+/**
+ * Результат выгрузки или загрузки истории выполнения через COPY.
+ * Для выгрузки rowsInserted не заполняется.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class HabitCompletionCopyResultDto {
+    private CopyFormat format;
+    private long rowsCopied;
+    private long rowsInserted;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
@@ -0,0 +1,17 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+/**
+ * Текущая и максимальная серии выполнения привычки (в днях).
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class HabitStreakDto {
+    private int currentStreak;
+    private int longestStreak;
+}
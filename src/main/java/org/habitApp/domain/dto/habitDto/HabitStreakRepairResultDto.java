@@ -0,0 +1,19 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+/**
+ * Результат сверки сохраненных серий выполнения с историей.
+ * repaired - количество привычек, для которых серии были исправлены.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class HabitStreakRepairResultDto {
+    private long checked;
+    private long repaired;
+    private long elapsedMillis;
+}
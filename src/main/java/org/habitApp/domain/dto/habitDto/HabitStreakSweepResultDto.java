@@ -0,0 +1,22 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Результат сброса прерванных серий при смене дня.
+ * rowsReset - количество сброшенных серий, chunks - количество выполненных UPDATE.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class HabitStreakSweepResultDto {
+    private LocalDate day;
+    private long rowsReset;
+    private int chunks;
+    private long elapsedMillis;
+}
@@ -0,0 +1,23 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Таблица лидеров по сериям выполнения привычек.
+ * Списки упорядочены по убыванию серии, при равенстве - по id пользователя.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class StreakLeaderboardDto {
+    private LocalDateTime generatedAt;
+    private long elapsedMillis;
+    private List<StreakLeaderboardEntryDto> byCurrentStreak;
+    private List<StreakLeaderboardEntryDto> byLongestStreak;
+}
@@ -0,0 +1,18 @@
+package org.habitApp.domain.dto.habitDto;
+
+import lombok.*;
+
+/**
+ * Строка таблицы лидеров: пользователь и его лучшая серия среди всех привычек (в днях).
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class StreakLeaderboardEntryDto {
+    private long userId;
+    private String username;
+    private int streak;
+}
@@ -0,0 +1,16 @@
+package org.habitApp.domain.dto.userDto;
+
+import lombok.*;
+
+/**
+ * Токен обновления в теле запроса
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class RefreshTokenDto {
+    private String refreshToken;
+}
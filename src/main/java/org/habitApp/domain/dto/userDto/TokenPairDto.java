@@ -0,0 +1,17 @@
+package org.habitApp.domain.dto.userDto;
+
+import lombok.*;
+
+/**
+ * Токен доступа и токен обновления, выдаваемые при входе и обновлении
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class TokenPairDto {
+    private String accessToken;
+    private String refreshToken;
+}
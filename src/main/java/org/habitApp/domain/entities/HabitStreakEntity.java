@@ -0,0 +1,24 @@
+package org.habitApp.domain.entities;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Серии выполнения привычки, хранящиеся в таблице habits.
+ * currentStreak - длина серии, заканчивающейся в lastCompletedDate,
+ * или 0, если серия прервана и сброшена при смене дня.
+ * Если привычка ни разу не выполнялась, lastCompletedDate равна null.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class HabitStreakEntity {
+    private long habitId;
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastCompletedDate;
+}
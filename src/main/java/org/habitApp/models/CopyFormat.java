@@ -0,0 +1,63 @@
+package org.habitApp.models;
+
+/**
+ * Enum для формата потока COPY
+ */
+public enum CopyFormat {
+    CSV("csv", "text/csv", "(FORMAT csv, HEADER true)"),                     // Текстовый CSV с заголовком
+    BINARY("binary", "application/octet-stream", "(FORMAT binary)");         // Бинарный формат PostgreSQL
+
+    private final String formatName;
+    private final String mediaType;
+    private final String copyOptions;
+
+    /**
+     * Конструктор
+     * @param formatName имя формата
+     * @param mediaType тип содержимого HTTP
+     * @param copyOptions параметры команды COPY
+     */
+    CopyFormat(String formatName, String mediaType, String copyOptions) {
+        this.formatName = formatName;
+        this.mediaType = mediaType;
+        this.copyOptions = copyOptions;
+    }
+
+    /**
+     * Геттер
+     * @return string имя формата
+     */
+    public String getFormatName() {
+        return formatName;
+    }
+
+    /**
+     * Геттер
+     * @return string тип содержимого HTTP
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Геттер
+     * @return string параметры команды COPY
+     */
+    public String getCopyOptions() {
+        return copyOptions;
+    }
+
+    /**
+     * Метод для приведения строки к enum
+     * @param formatName string формат
+     * @return enum формат
+     */
+    public static CopyFormat fromString(String formatName) {
+        for (CopyFormat format : CopyFormat.values()) {
+            if (format.formatName.equalsIgnoreCase(formatName)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown copy format: " + formatName);
+    }
+}
@@ -37,6 +37,16 @@ public interface BaseRepository<IdType, EntityType> {
      */
     List<EntityType> findAll() throws SQLException;
 
+    /**
+     * Возвращает страницу сущностей, упорядоченных по id (keyset-пагинация).
+     * Стоимость запроса не зависит от номера страницы: БД начинает чтение индекса сразу с курсора.
+     *
+     * @param after id последней сущности предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество сущностей на странице
+     * @return Список сущностей с id больше after
+     */
+    List<EntityType> findPage(IdType after, int limit) throws SQLException;
+
     /**
      * Обновляет существующую сущность.
      *
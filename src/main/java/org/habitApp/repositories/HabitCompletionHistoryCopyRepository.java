@@ -0,0 +1,39 @@
+package org.habitApp.repositories;
+
+import org.habitApp.domain.dto.habitDto.HabitCompletionCopyResultDto;
+import org.habitApp.models.CopyFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+/**
+ * Интерфейс для потоковой выгрузки и загрузки истории выполнения привычек командой COPY (только PostgreSQL).
+ * Данные передаются между БД и потоком напрямую, без создания сущностей.
+ */
+public interface HabitCompletionHistoryCopyRepository {
+
+    /**
+     * Выгрузка всей истории выполнения в поток.
+     *
+     * @param format формат COPY
+     * @param out поток для записи
+     * @return количество выгруженных строк
+     * @throws SQLException ошибка работы с БД или СУБД не поддерживает COPY
+     * @throws IOException ошибка записи в поток
+     */
+    long copyOut(CopyFormat format, OutputStream out) throws SQLException, IOException;
+
+    /**
+     * Загрузка истории выполнения из потока в одной транзакции.
+     * Строки потока содержат столбцы id, habit_id, user_id, completion_date; id из потока не используется.
+     *
+     * @param format формат COPY
+     * @param in поток для чтения
+     * @return количество прочитанных и добавленных строк
+     * @throws SQLException ошибка работы с БД или СУБД не поддерживает COPY
+     * @throws IOException ошибка чтения из потока
+     */
+    HabitCompletionCopyResultDto copyIn(CopyFormat format, InputStream in) throws SQLException, IOException;
+}
@@ -1,10 +1,15 @@
 package org.habitApp.repositories;
 
+import org.habitApp.domain.dto.habitDto.HabitStreakDto;
 import org.habitApp.domain.entities.HabitCompletionHistoryEntity;
+import org.habitApp.domain.entities.HabitStreakEntity;
+import org.habitApp.models.Period;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Интерфейс для работы с историей выполнения привычек.
@@ -20,13 +25,82 @@ public interface HabitCompletionHistoryRepository extends BaseRepository<Long, H
      */
     List<LocalDate> getCompletionHistoryForHabit(long habitId) throws SQLException;
 
+    /**
+     * Подсчет выполнений привычки в диапазоне дат на стороне БД.
+     *
+     * @param habitId ID привычки
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return количество выполнений
+     * @throws SQLException ошибка работы с БД
+     */
+    int countCompletionsBetween(long habitId, LocalDate from, LocalDate to) throws SQLException;
+
+    /**
+     * Получение истории выполнения всех привычек пользователя одним запросом.
+     *
+     * @param userId ID владельца привычек
+     * @return даты выполнения по ID привычки; привычки без выполнений отсутствуют
+     * @throws SQLException ошибка работы с БД
+     */
+    Map<Long, List<LocalDate>> getCompletionHistoryForUserHabits(long userId) throws SQLException;
+
+    /**
+     * Подсчет выполнений привычки в диапазоне дат с группировкой по дням, неделям или месяцам.
+     *
+     * @param habitId ID привычки
+     * @param groupBy период группировки
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return количество выполнений по началу каждого периода, упорядоченное по дате
+     * @throws SQLException ошибка работы с БД
+     */
+    Map<LocalDate, Integer> countCompletionsGroupedBy(long habitId, Period groupBy, LocalDate from, LocalDate to)
+            throws SQLException;
+
+    /**
+     * Подсчет текущей и максимальной серий выполнения привычки за один запрос.
+     *
+     * @param habitId ID привычки
+     * @param today текущая дата, относительно которой определяется текущая серия
+     * @return текущая и максимальная серии
+     * @throws SQLException ошибка работы с БД
+     */
+    HabitStreakDto getStreaks(long habitId, LocalDate today) throws SQLException;
+
+    /**
+     * Пересчет по истории значений для колонок серий в habits.
+     *
+     * @param habitId ID привычки
+     * @return серия, заканчивающаяся последней отметкой, максимальная серия и дата последней отметки
+     * @throws SQLException ошибка работы с БД
+     */
+    HabitStreakEntity calculateStreakState(long habitId) throws SQLException;
+
     /**
      * Добавление даты выполнения привычки для пользователя.
+     * Повторная отметка за тот же день не добавляется (уникальный индекс habit_id, completion_date).
+     * Серии в habits обновляются в той же транзакции.
      *
      * @param habitId ID привычки
      * @param userId ID пользователя
      * @param completionDate дата выполнения
+     * @return true, если запись добавлена, false, если привычка уже отмечена в этот день
      * @throws SQLException ошибка работы с БД
      */
-    void addCompletionDateByHabitIdUserId(long habitId, long userId, LocalDate completionDate) throws SQLException;
+    boolean addCompletionDateByHabitIdUserId(long habitId, long userId, LocalDate completionDate) throws SQLException;
+
+    /**
+     * Пакетное добавление дат выполнения привычки в одной транзакции.
+     * Даты, уже отмеченные в истории, и повторы внутри набора пропускаются.
+     * Серии в habits пересчитываются в той же транзакции.
+     *
+     * @param habitId ID привычки
+     * @param userId ID пользователя
+     * @param completionDates даты выполнения
+     * @return количество добавленных записей
+     * @throws SQLException ошибка работы с БД, транзакция при этом откатывается
+     */
+    int addCompletionDatesByHabitIdUserId(long habitId, long userId, Collection<LocalDate> completionDates)
+            throws SQLException;
 }
@@ -1,10 +1,15 @@
 package org.habitApp.repositories;
 
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardEntryDto;
 import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.domain.entities.HabitStreakEntity;
 import org.habitApp.domain.entities.UserEntity;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс репозитория для работы с сущностью HabitEntity.
@@ -20,4 +25,127 @@ public interface HabitRepository extends BaseRepository<Long, HabitEntity> {
      * @throws SQLException ошибка при работе с БД
      */
     List<HabitEntity> getHabitsByUser(UserEntity user) throws SQLException;
+
+    /**
+     * Поиск привычки по id среди привычек пользователя.
+     *
+     * @param habitId id привычки
+     * @param userId id владельца
+     * @return Optional с привычкой, пустой, если привычки нет или она принадлежит другому пользователю
+     * @throws SQLException ошибка при работе с БД
+     */
+    Optional<HabitEntity> findByIdAndUserId(long habitId, long userId) throws SQLException;
+
+    /**
+     * Обновление привычки, если она принадлежит пользователю.
+     *
+     * @param habit привычка с новыми данными и id
+     * @param userId id владельца
+     * @return true, если привычка обновлена, false, если привычки нет или она принадлежит другому пользователю
+     * @throws SQLException ошибка при работе с БД
+     */
+    boolean updateByIdAndUserId(HabitEntity habit, long userId) throws SQLException;
+
+    /**
+     * Удаление привычки, если она принадлежит пользователю.
+     *
+     * @param habitId id привычки
+     * @param userId id владельца
+     * @return true, если привычка удалена, false, если привычки нет или она принадлежит другому пользователю
+     * @throws SQLException ошибка при работе с БД
+     */
+    boolean deleteByIdAndUserId(long habitId, long userId) throws SQLException;
+
+    /**
+     * Проверка существования привычки.
+     * Используется, чтобы отличить отсутствующую привычку от чужой, когда запрос с владельцем не затронул строк.
+     *
+     * @param habitId id привычки
+     * @return true, если привычка существует
+     * @throws SQLException ошибка при работе с БД
+     */
+    boolean existsById(long habitId) throws SQLException;
+
+    /**
+     * Последовательный обход всех привычек в порядке id без загрузки таблицы в память.
+     *
+     * @param fetchSize количество строк, получаемых из БД за одно обращение
+     * @param action действие для каждой привычки
+     * @return количество обработанных привычек
+     * @throws SQLException ошибка при работе с БД
+     */
+    long forEachHabit(int fetchSize, Consumer<HabitEntity> action) throws SQLException;
+
+    /**
+     * Получение сохраненных серий выполнения привычки.
+     *
+     * @param habitId id привычки
+     * @return Optional с сериями, если привычка существует
+     * @throws SQLException ошибка при работе с БД
+     */
+    Optional<HabitStreakEntity> findStreakById(long habitId) throws SQLException;
+
+    /**
+     * Получение страницы сохраненных серий выполнения, упорядоченных по id привычки.
+     *
+     * @param after id последней привычки предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество записей
+     * @return серии привычек с id больше after
+     * @throws SQLException ошибка при работе с БД
+     */
+    List<HabitStreakEntity> findStreakPage(Long after, int limit) throws SQLException;
+
+    /**
+     * Запись пересчитанных серий, если сохраненные значения не изменились с момента чтения.
+     * Не перезаписывает серию, продвинутую отметкой выполнения во время пересчета.
+     *
+     * @param expected прочитанные ранее значения
+     * @param actual новые значения
+     * @return true, если серии обновлены
+     * @throws SQLException ошибка при работе с БД
+     */
+    boolean updateStreakIfUnchanged(HabitStreakEntity expected, HabitStreakEntity actual) throws SQLException;
+
+    /**
+     * Конец следующей порции прерванных серий: наибольший id среди не больше limit привычек
+     * с id после курсора, текущая серия которых не сброшена, а последняя отметка раньше указанной даты.
+     *
+     * @param lastCompletedBefore граница даты последней отметки (не включительно)
+     * @param afterId курсор: id последней привычки предыдущей порции, 0 для первой порции
+     * @param limit размер порции
+     * @return Optional с id последней привычки порции или пустой Optional, если прерванных серий больше нет
+     * @throws SQLException ошибка при работе с БД
+     */
+    Optional<Long> findBrokenStreaksChunkEnd(LocalDate lastCompletedBefore, long afterId, int limit) throws SQLException;
+
+    /**
+     * Сброс текущих серий в диапазоне id, последняя отметка которых раньше указанной даты.
+     * Обновляет только одну порцию, чтобы не держать блокировки на всей таблице.
+     *
+     * @param lastCompletedBefore граница даты последней отметки (не включительно)
+     * @param afterId начало диапазона id (не включительно)
+     * @param upToId конец диапазона id (включительно)
+     * @return количество сброшенных серий
+     * @throws SQLException ошибка при работе с БД
+     */
+    int resetStreaksCompletedBefore(LocalDate lastCompletedBefore, long afterId, long upToId) throws SQLException;
+
+    /**
+     * Пользователи с лучшей текущей серией среди своих привычек.
+     *
+     * @param activeSince серии с последней отметкой раньше этой даты считаются прерванными
+     * @param limit количество пользователей
+     * @return пользователи по убыванию серии
+     * @throws SQLException ошибка при работе с БД
+     */
+    List<StreakLeaderboardEntryDto> findTopUsersByCurrentStreak(LocalDate activeSince, int limit) throws SQLException;
+
+    /**
+     * Пользователи с лучшей максимальной серией среди своих привычек.
+     *
+     * @param limit количество пользователей
+     * @return пользователи по убыванию серии
+     * @throws SQLException ошибка при работе с БД
+     */
+    List<StreakLeaderboardEntryDto> findTopUsersByLongestStreak(int limit) throws SQLException;
 }
@@ -4,6 +4,7 @@ import org.habitApp.domain.entities.UserEntity;
 
 import java.sql.SQLException;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepository extends BaseRepository<Long, UserEntity> {
 
@@ -14,4 +15,24 @@ public interface UserRepository extends BaseRepository<Long, UserEntity> {
      * @return Optional с пользователем, если найден, или пустой Optional, если нет
      */
     Optional<UserEntity> findByEmail(String email) throws SQLException;
+
+    /**
+     * Последовательный обход всех пользователей в порядке ID без загрузки таблицы в память.
+     *
+     * @param fetchSize Количество строк, получаемых из БД за одно обращение
+     * @param action Действие для каждого пользователя
+     * @return Количество обработанных пользователей
+     * @throws SQLException В случае ошибок при работе с базой данных
+     */
+    long forEachUser(int fetchSize, Consumer<UserEntity> action) throws SQLException;
+
+    /**
+     * Последовательный обход email всех пользователей без загрузки таблицы в память.
+     *
+     * @param fetchSize Количество строк, получаемых из БД за одно обращение
+     * @param action Действие для каждого email
+     * @return Количество обработанных email
+     * @throws SQLException В случае ошибок при работе с базой данных
+     */
+    long forEachEmail(int fetchSize, Consumer<String> action) throws SQLException;
 }
@@ -6,24 +6,143 @@ package org.habitApp.repositories.constants;
  */
 public class HabitCompletionHistorySqlQueries {
 
+    public static final String HABIT_COMPLETION_HISTORY_ID_SEQUENCE = "habit_completion_history_hilo_seq";
+
     public static final String CREATE_COMPLETION_HISTORY =
-            "INSERT INTO habit_completion_history (habit_id, user_id, completion_date) VALUES (?, ?, ?)";
+            "INSERT INTO habit_completion_history (id, habit_id, user_id, completion_date) VALUES (?, ?, ?, ?)";
 
     public static final String GET_COMPLETION_HISTORY_FOR_HABIT =
             "SELECT completion_date FROM habit_completion_history WHERE habit_id = ?";
 
+    public static final String COUNT_COMPLETIONS_BETWEEN =
+            "SELECT COUNT(*) FROM habit_completion_history " +
+            "WHERE habit_id = ? AND completion_date >= ? AND completion_date < ?";
+
+    /**
+     * История выполнения всех привычек пользователя.
+     * Привычки выбираются по habits.user_id, чтобы история читалась по индексу (habit_id, completion_date).
+     */
+    public static final String GET_COMPLETION_HISTORY_FOR_USER_HABITS =
+            "SELECT habit_id, completion_date FROM habit_completion_history " +
+            "WHERE habit_id IN (SELECT id FROM habits WHERE user_id = ?)";
+
+    public static final String COUNT_COMPLETIONS_GROUPED_BY_PERIOD =
+            "SELECT CAST(date_trunc(?, completion_date) AS DATE) AS period_start, COUNT(*) AS completion_count " +
+            "FROM habit_completion_history " +
+            "WHERE habit_id = ? AND completion_date >= ? AND completion_date < ? " +
+            "GROUP BY period_start ORDER BY period_start";
+
+    /**
+     * Непрерывные серии выполнения методом gaps-and-islands: у дней одной серии
+     * разность даты и ее порядкового номера одинакова.
+     * Для каждой серии - день окончания, длина и день последней отметки привычки.
+     * Параметр: ID привычки.
+     */
+    private static final String STREAK_RUNS_FOR_HABIT =
+            "(SELECT MAX(completion_day) AS run_end, COUNT(*) AS run_length, " +
+            "MAX(MAX(completion_day)) OVER () AS last_completion_day " +
+            "FROM (SELECT completion_day, " +
+            "completion_day - CAST(ROW_NUMBER() OVER (ORDER BY completion_day) AS INTEGER) AS island " +
+            "FROM (SELECT DISTINCT CAST(completion_date AS DATE) AS completion_day " +
+            "FROM habit_completion_history WHERE habit_id = ?) completion_days) islands " +
+            "GROUP BY island) runs";
+
+    /**
+     * Текущая и максимальная серии относительно текущей даты.
+     * Параметры: текущая дата, ID привычки.
+     */
+    public static final String GET_STREAKS_FOR_HABIT =
+            "SELECT COALESCE(MAX(run_length), 0) AS longest_streak, " +
+            "COALESCE(MAX(CASE WHEN run_end = last_completion_day AND run_end >= CAST(? AS DATE) - 1 " +
+            "THEN run_length END), 0) AS current_streak " +
+            "FROM " + STREAK_RUNS_FOR_HABIT;
+
+    /**
+     * Значения для колонок серий в habits: серия, заканчивающаяся последней отметкой, максимальная серия
+     * и дата последней отметки. Параметр: ID привычки.
+     */
+    public static final String GET_STREAK_STATE_FOR_HABIT =
+            "SELECT COALESCE(MAX(run_length), 0) AS longest_streak, " +
+            "COALESCE(MAX(CASE WHEN run_end = last_completion_day THEN run_length END), 0) AS current_streak, " +
+            "MAX(run_end) AS last_completed_date " +
+            "FROM " + STREAK_RUNS_FOR_HABIT;
+
     public static final String ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID =
             "INSERT INTO habit_completion_history (id, habit_id, user_id, completion_date) VALUES (?, ?, ?, ?)";
 
+    public static final String ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID_ON_CONFLICT_DO_NOTHING =
+            ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID + " ON CONFLICT (habit_id, completion_date) DO NOTHING";
+
+    public static final String GET_COMPLETION_DATES_FOR_HABIT_BETWEEN =
+            "SELECT completion_date FROM habit_completion_history " +
+            "WHERE habit_id = ? AND completion_date >= ? AND completion_date < ?";
+
     public static final String GET_COMPLETION_HISTORY_BY_ID =
             "SELECT * FROM habit_completion_history WHERE id = ?";
 
     public static final String GET_ALL_COMPLETION_HISTORY =
             "SELECT * FROM habit_completion_history";
 
+    public static final String GET_COMPLETION_HISTORY_PAGE =
+            "SELECT * FROM habit_completion_history WHERE id > ? ORDER BY id LIMIT ?";
+
     public static final String UPDATE_COMPLETION_HISTORY =
             "UPDATE habit_completion_history SET habit_id = ?, user_id = ?, completion_date = ? WHERE id = ?";
 
     public static final String DELETE_COMPLETION_HISTORY_BY_ID =
             "DELETE FROM habit_completion_history WHERE id = ?";
+
+    public static final String COPY_COLUMNS = "(id, habit_id, user_id, completion_date)";
+
+    public static final String COPY_COMPLETION_HISTORY_OUT =
+            "COPY (SELECT id, habit_id, user_id, completion_date FROM habit_completion_history ORDER BY id) TO STDOUT WITH ";
+
+    public static final String CREATE_COMPLETION_HISTORY_IMPORT_TABLE =
+            "CREATE TEMP TABLE habit_completion_history_import " +
+            "(id BIGINT, habit_id BIGINT, user_id BIGINT, completion_date DATE) ON COMMIT DROP";
+
+    public static final String COPY_COMPLETION_HISTORY_IN =
+            "COPY habit_completion_history_import " + COPY_COLUMNS + " FROM STDIN WITH ";
+
+    /**
+     * Перенос загруженных строк в историю.
+     * Сначала отбрасываются повторы, строки с несуществующей привычкой или чужим user_id и уже отмеченные дни,
+     * затем под оставшиеся строки резервируется ceil(n / blockSize) блоков hi-lo последовательности
+     * и строка с номером rn получает id из блока rn / blockSize. ON CONFLICT остается для параллельных отметок.
+     * Все четыре параметра - размер блока.
+     */
+    public static final String MERGE_COMPLETION_HISTORY_IMPORT =
+            "WITH import_rows AS (" +
+            "SELECT ROW_NUMBER() OVER (ORDER BY i.habit_id, i.completion_date) - 1 AS rn, " +
+            "i.habit_id, i.user_id, i.completion_date " +
+            "FROM (SELECT DISTINCT habit_id, user_id, completion_date FROM habit_completion_history_import) i " +
+            "JOIN habits h ON h.id = i.habit_id AND h.user_id = i.user_id " +
+            "WHERE NOT EXISTS (SELECT 1 FROM habit_completion_history c " +
+            "WHERE c.habit_id = i.habit_id AND c.completion_date = i.completion_date)), " +
+            "id_blocks AS (" +
+            "SELECT nextval('" + HABIT_COMPLETION_HISTORY_ID_SEQUENCE + "') AS block_start, n - 1 AS block_no " +
+            "FROM generate_series(1, (SELECT CAST((COUNT(*) + ? - 1) / ? AS INTEGER) FROM import_rows)) n) " +
+            "INSERT INTO habit_completion_history " + COPY_COLUMNS + " " +
+            "SELECT b.block_start + r.rn % ?, r.habit_id, r.user_id, r.completion_date " +
+            "FROM import_rows r JOIN id_blocks b ON b.block_no = r.rn / ? " +
+            "ON CONFLICT DO NOTHING";
+
+    /**
+     * Пересчет серий в habits для привычек из загруженного файла, выполняется в транзакции загрузки.
+     */
+    public static final String REFRESH_STREAKS_FOR_IMPORTED_HABITS =
+            "UPDATE habits h SET current_streak = s.current_streak, longest_streak = s.longest_streak, " +
+            "last_completed_date = s.last_completed_date " +
+            "FROM (SELECT habit_id, MAX(run_length) AS longest_streak, " +
+            "MAX(CASE WHEN run_end = last_day THEN run_length END) AS current_streak, " +
+            "MAX(run_end) AS last_completed_date " +
+            "FROM (SELECT habit_id, MAX(completion_date) AS run_end, COUNT(*) AS run_length, " +
+            "MAX(MAX(completion_date)) OVER (PARTITION BY habit_id) AS last_day " +
+            "FROM (SELECT habit_id, completion_date, completion_date - " +
+            "CAST(ROW_NUMBER() OVER (PARTITION BY habit_id ORDER BY completion_date) AS INTEGER) AS island " +
+            "FROM habit_completion_history " +
+            "WHERE habit_id IN (SELECT DISTINCT habit_id FROM habit_completion_history_import)) days " +
+            "GROUP BY habit_id, island) runs " +
+            "GROUP BY habit_id) s " +
+            "WHERE h.id = s.habit_id";
 }
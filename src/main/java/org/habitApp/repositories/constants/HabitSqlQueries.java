@@ -4,10 +4,96 @@ package org.habitApp.repositories.constants;
  * Список констант запросов к таблице habits
  */
 public class HabitSqlQueries {
+    public static final String HABITS_ID_SEQUENCE = "habits_hilo_seq";
     public static final String GET_HABITS_BY_USER_ID = "SELECT * FROM habits WHERE user_id = ?";
     public static final String GET_HABIT_BY_ID = "SELECT * FROM habits WHERE id = ?";
+    public static final String GET_HABIT_BY_ID_AND_USER_ID = "SELECT * FROM habits WHERE id = ? AND user_id = ?";
+    public static final String EXISTS_HABIT_BY_ID = "SELECT EXISTS (SELECT 1 FROM habits WHERE id = ?)";
     public static final String GET_ALL_HABITS = "SELECT * FROM habits";
+    public static final String GET_ALL_HABITS_ORDERED_BY_ID = "SELECT * FROM habits ORDER BY id";
+    public static final String GET_HABITS_PAGE = "SELECT * FROM habits WHERE id > ? ORDER BY id LIMIT ?";
     public static final String CREATE_HABIT = "INSERT INTO habits (id, name, description, frequency, created_date, user_id) VALUES (?, ?, ?, ?, ?, ?)";
     public static final String UPDATE_HABIT = "UPDATE habits SET name = ?, description = ?, frequency = ? WHERE id = ?";
+    public static final String UPDATE_HABIT_BY_ID_AND_USER_ID = "UPDATE habits SET name = ?, description = ?, frequency = ? WHERE id = ? AND user_id = ?";
     public static final String DELETE_HABIT = "DELETE FROM habits WHERE id = ?";
-}
\ No newline at end of file
+    public static final String DELETE_HABIT_BY_ID_AND_USER_ID = "DELETE FROM habits WHERE id = ? AND user_id = ?";
+
+    public static final String GET_HABIT_STREAK_BY_ID =
+            "SELECT id, current_streak, longest_streak, last_completed_date FROM habits WHERE id = ?";
+    public static final String GET_HABIT_STREAKS_PAGE =
+            "SELECT id, current_streak, longest_streak, last_completed_date FROM habits WHERE id > ? ORDER BY id LIMIT ?";
+
+    /**
+     * Продление серии отметкой за день, следующий за последней отметкой, или начало новой серии.
+     * Правые части SET используют значения до обновления.
+     * Строка не обновляется, если день не позже последней отметки: такую отметку нужно учитывать пересчетом.
+     * Параметры: предыдущий день, предыдущий день, день отметки, ID привычки, день отметки.
+     */
+    public static final String ADVANCE_HABIT_STREAK =
+            "UPDATE habits SET " +
+            "current_streak = CASE WHEN last_completed_date = ? THEN current_streak + 1 ELSE 1 END, " +
+            "longest_streak = GREATEST(longest_streak, CASE WHEN last_completed_date = ? THEN current_streak + 1 ELSE 1 END), " +
+            "last_completed_date = ? " +
+            "WHERE id = ? AND (last_completed_date IS NULL OR last_completed_date < ?)";
+
+    /**
+     * Блокировка строки привычки перед пересчетом серий по истории.
+     * Параллельная отметка ждет фиксации пересчета, а пересчет, дождавшийся ее фиксации,
+     * читает историю уже с этой отметкой. Для PostgreSQL берется FOR NO KEY UPDATE:
+     * эта блокировка не конфликтует с проверкой внешнего ключа при вставке в историю.
+     */
+    public static final String LOCK_HABIT_FOR_STREAK_UPDATE = "SELECT id FROM habits WHERE id = ? FOR UPDATE";
+
+    public static final String LOCK_HABIT_FOR_STREAK_UPDATE_POSTGRESQL =
+            "SELECT id FROM habits WHERE id = ? FOR NO KEY UPDATE";
+
+    public static final String UPDATE_HABIT_STREAK =
+            "UPDATE habits SET current_streak = ?, longest_streak = ?, last_completed_date = ? WHERE id = ?";
+
+    /**
+     * Запись пересчитанных серий, только если сохраненные значения не изменились с момента чтения.
+     */
+    public static final String UPDATE_HABIT_STREAK_IF_UNCHANGED =
+            UPDATE_HABIT_STREAK + " AND current_streak = ? AND longest_streak = ? " +
+            "AND last_completed_date IS NOT DISTINCT FROM ?";
+
+    /**
+     * Наибольший id в следующей порции прерванных серий после курсора.
+     * Поиск продолжается с курсора по первичному ключу, поэтому уже сброшенные строки повторно не читаются.
+     * Параметры: граница даты, курсор (id последней строки предыдущей порции), размер порции.
+     */
+    public static final String GET_BROKEN_STREAKS_CHUNK_END =
+            "SELECT MAX(id) FROM (SELECT id FROM habits " +
+            "WHERE current_streak > 0 AND last_completed_date < ? AND id > ? ORDER BY id LIMIT ?) chunk";
+
+    /**
+     * Сброс прерванных серий в диапазоне id порции.
+     * Условие проверяется при обновлении: строка, продвинутая параллельной отметкой, не сбрасывается.
+     * Параметры: граница даты, курсор (не включительно), конец порции (включительно).
+     */
+    public static final String RESET_BROKEN_STREAKS_RANGE =
+            "UPDATE habits SET current_streak = 0 " +
+            "WHERE current_streak > 0 AND last_completed_date < ? AND id > ? AND id <= ?";
+
+    /**
+     * Пользователи с лучшей текущей серией среди своих привычек.
+     * Учитываются только серии, продленные вчера или сегодня, даже если сброс при смене дня еще не выполнялся.
+     * Параметры: вчерашний день, количество строк.
+     */
+    public static final String GET_TOP_USERS_BY_CURRENT_STREAK =
+            "SELECT u.id AS user_id, u.username, s.streak FROM " +
+            "(SELECT user_id, MAX(current_streak) AS streak FROM habits " +
+            "WHERE current_streak > 0 AND last_completed_date >= ? GROUP BY user_id) s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "ORDER BY s.streak DESC, u.id LIMIT ?";
+
+    /**
+     * Пользователи с лучшей максимальной серией среди своих привычек. Параметр: количество строк.
+     */
+    public static final String GET_TOP_USERS_BY_LONGEST_STREAK =
+            "SELECT u.id AS user_id, u.username, s.streak FROM " +
+            "(SELECT user_id, MAX(longest_streak) AS streak FROM habits " +
+            "WHERE longest_streak > 0 GROUP BY user_id) s " +
+            "JOIN users u ON u.id = s.user_id " +
+            "ORDER BY s.streak DESC, u.id LIMIT ?";
+}
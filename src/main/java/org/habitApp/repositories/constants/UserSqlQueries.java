@@ -4,6 +4,7 @@ package org.habitApp.repositories.constants;
  * Список констант запросов к таблице users
  */
 public class UserSqlQueries {
+    public static final String USERS_ID_SEQUENCE = "users_hilo_seq";
     public static final String GET_USER_BY_EMAIL = "SELECT * FROM users WHERE email = ?";
     public static final String GET_USER_BY_ID = "SELECT * FROM users WHERE id = ?";
     public static final String REGISTER_USER = "INSERT INTO users (id, username, email, password, role) VALUES (?, ?, ?, ?, ?)";
@@ -11,4 +12,7 @@ public class UserSqlQueries {
     public static final String DELETE_USER_BY_EMAIL = "DELETE FROM users WHERE email = ?";
     public static final String DELETE_USER_BY_ID = "DELETE FROM users WHERE id = ?";
     public static final String GET_ALL_USERS = "SELECT * FROM users";
+    public static final String GET_ALL_USER_EMAILS = "SELECT email FROM users";
+    public static final String GET_ALL_USERS_ORDERED_BY_ID = "SELECT * FROM users ORDER BY id";
+    public static final String GET_USERS_PAGE = "SELECT * FROM users WHERE id > ? ORDER BY id LIMIT ?";
 }
@@ -0,0 +1,18 @@
+package org.habitApp.repositories.id;
+
+import java.sql.SQLException;
+
+/**
+ * Выдача идентификаторов для новых записей.
+ */
+@FunctionalInterface
+public interface IdAllocator {
+
+    /**
+     * Получение следующего свободного id.
+     *
+     * @return id для новой записи
+     * @throws SQLException ошибка работы с БД
+     */
+    long nextId() throws SQLException;
+}
@@ -0,0 +1,56 @@
+package org.habitApp.repositories.id;
+
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.repositories.jdbc.StatementSetter;
+
+import java.sql.SQLException;
+
+/**
+ * Выдача id блоками из последовательности БД.
+ * Один nextval резервирует диапазон [значение, значение + blockSize), дальше id выдаются из памяти
+ * без обращения к БД. Значения возрастают, поэтому вставки идут в конец индекса по первичному ключу.
+ * Шаг последовательности (INCREMENT BY) должен быть равен blockSize.
+ */
+public class SequenceHiLoIdAllocator implements IdAllocator {
+
+    private final JdbcExecutor jdbcExecutor;
+    private final String nextValueSql;
+    private final int blockSize;
+
+    private long nextId;
+    private long blockEnd;
+
+    public SequenceHiLoIdAllocator(JdbcExecutor jdbcExecutor, String sequenceName, int blockSize) {
+        if (!sequenceName.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid sequence name: " + sequenceName);
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.jdbcExecutor = jdbcExecutor;
+        this.nextValueSql = "SELECT nextval('" + sequenceName + "')";
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Получение следующего id.
+     * Обращение к БД происходит только при исчерпании текущего блока.
+     *
+     * @return id для новой записи
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public synchronized long nextId() throws SQLException {
+        if (nextId == blockEnd) {
+            long blockStart = jdbcExecutor.query(nextValueSql, StatementSetter.NONE, resultSet -> {
+                if (!resultSet.next()) {
+                    throw new SQLException("Sequence returned no value: " + nextValueSql);
+                }
+                return resultSet.getLong(1);
+            });
+            nextId = blockStart;
+            blockEnd = blockStart + blockSize;
+        }
+        return nextId++;
+    }
+}
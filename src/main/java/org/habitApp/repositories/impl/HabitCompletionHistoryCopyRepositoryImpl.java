@@ -0,0 +1,127 @@
+package org.habitApp.repositories.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.habitApp.domain.dto.habitDto.HabitCompletionCopyResultDto;
+import org.habitApp.models.CopyFormat;
+import org.habitApp.repositories.HabitCompletionHistoryCopyRepository;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.repositories.jdbc.StatementSetter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+
+import static org.habitApp.config.IdAllocatorConfig.ID_BLOCK_SIZE;
+import static org.habitApp.repositories.constants.HabitCompletionHistorySqlQueries.*;
+
+/**
+ * Реализация потоковой выгрузки и загрузки истории выполнения через CopyManager драйвера PostgreSQL.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HabitCompletionHistoryCopyRepositoryImpl implements HabitCompletionHistoryCopyRepository {
+
+    private final JdbcExecutor jdbcExecutor;
+
+    /**
+     * Выгрузка всей истории выполнения в поток командой COPY ... TO STDOUT
+     *
+     * @param format формат COPY
+     * @param out поток для записи
+     * @return количество выгруженных строк
+     * @throws SQLException ошибка работы с БД или СУБД не поддерживает COPY
+     * @throws IOException ошибка записи в поток
+     */
+    @Override
+    public long copyOut(CopyFormat format, OutputStream out) throws SQLException, IOException {
+        requirePostgreSql();
+        try {
+            return jdbcExecutor.execute(connection -> {
+                try {
+                    return copyManager(connection).copyOut(COPY_COMPLETION_HISTORY_OUT + format.getCopyOptions(), out);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Загрузка истории выполнения из потока.
+     * Поток копируется во временную таблицу, после чего строки одним запросом переносятся в историю.
+     * ID выдаются только строкам, прошедшим фильтрацию, из блоков hi-lo последовательности,
+     * зарезервированных под загрузку целиком, поэтому ID не пересекаются с IdAllocator и блоки не расходуются впустую.
+     * Серии затронутых привычек в habits пересчитываются в той же транзакции.
+     *
+     * @param format формат COPY
+     * @param in поток для чтения
+     * @return количество прочитанных и добавленных строк
+     * @throws SQLException ошибка работы с БД или СУБД не поддерживает COPY, транзакция при этом откатывается
+     * @throws IOException ошибка чтения из потока
+     */
+    @Override
+    public HabitCompletionCopyResultDto copyIn(CopyFormat format, InputStream in) throws SQLException, IOException {
+        requirePostgreSql();
+        try {
+            return jdbcExecutor.inTransaction(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_COMPLETION_HISTORY_IMPORT_TABLE);
+                }
+                long rowsCopied;
+                try {
+                    rowsCopied = copyManager(connection).copyIn(COPY_COMPLETION_HISTORY_IN + format.getCopyOptions(), in);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                long rowsInserted = jdbcExecutor.update(MERGE_COMPLETION_HISTORY_IMPORT, statement -> {
+                    for (int i = 1; i <= 4; i++) {
+                        statement.setInt(i, ID_BLOCK_SIZE);
+                    }
+                });
+                if (rowsInserted > 0) {
+                    jdbcExecutor.update(REFRESH_STREAKS_FOR_IMPORTED_HABITS, StatementSetter.NONE);
+                }
+
+                HabitCompletionCopyResultDto result = new HabitCompletionCopyResultDto();
+                result.setFormat(format);
+                result.setRowsCopied(rowsCopied);
+                result.setRowsInserted(rowsInserted);
+                return result;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * CopyManager для соединения из пула
+     *
+     * @param connection соединение (в том числе обертка пула)
+     * @return CopyManager драйвера PostgreSQL
+     * @throws SQLException соединение не является соединением PostgreSQL
+     */
+    private CopyManager copyManager(Connection connection) throws SQLException {
+        return connection.unwrap(PGConnection.class).getCopyAPI();
+    }
+
+    /**
+     * Проверка, что СУБД поддерживает COPY
+     *
+     * @throws SQLException СУБД не PostgreSQL
+     */
+    private void requirePostgreSql() throws SQLException {
+        if (!jdbcExecutor.isPostgreSql()) {
+            throw new SQLFeatureNotSupportedException("COPY поддерживается только для PostgreSQL.");
+        }
+    }
+}
@@ -1,19 +1,35 @@
 package org.habitApp.repositories.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.habitApp.domain.dto.habitDto.HabitStreakDto;
 import org.habitApp.domain.entities.HabitCompletionHistoryEntity;
+import org.habitApp.domain.entities.HabitStreakEntity;
+import org.habitApp.models.Period;
 import org.habitApp.repositories.HabitCompletionHistoryRepository;
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.repositories.jdbc.StatementSetter;
+import org.habitApp.utils.StreakCalculator;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
-import java.util.Random;
+import java.util.TreeSet;
 
 import static org.habitApp.repositories.constants.HabitCompletionHistorySqlQueries.*;
+import static org.habitApp.repositories.constants.HabitSqlQueries.ADVANCE_HABIT_STREAK;
+import static org.habitApp.repositories.constants.HabitSqlQueries.LOCK_HABIT_FOR_STREAK_UPDATE;
+import static org.habitApp.repositories.constants.HabitSqlQueries.LOCK_HABIT_FOR_STREAK_UPDATE_POSTGRESQL;
+import static org.habitApp.repositories.constants.HabitSqlQueries.UPDATE_HABIT_STREAK;
 
 /**
  * Реализация репозитория для работы с историей выполнения привычек.
@@ -22,7 +38,8 @@ import static org.habitApp.repositories.constants.HabitCompletionHistorySqlQueri
 @RequiredArgsConstructor
 public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHistoryRepository {
 
-    private final DataSource dataSource;
+    private final JdbcExecutor jdbcExecutor;
+    private final IdAllocator habitCompletionHistoryIdAllocator;
 
     /**
      * Получение истории выполнения для конкретной привычки
@@ -33,35 +50,236 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
      */
     @Override
     public List<LocalDate> getCompletionHistoryForHabit(long habitId) throws SQLException {
-        List<LocalDate> completionHistory = new ArrayList<>();
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_COMPLETION_HISTORY_FOR_HABIT)) {
+        return jdbcExecutor.queryForList(GET_COMPLETION_HISTORY_FOR_HABIT,
+                statement -> statement.setLong(1, habitId),
+                resultSet -> resultSet.getDate("completion_date").toLocalDate());
+    }
+
+    /**
+     * Подсчет выполнений привычки в диапазоне дат.
+     * Граница to включается целиком: условие строится как completion_date < to + 1 день,
+     * поэтому отметки с временем в течение последнего дня тоже учитываются.
+     *
+     * @param habitId ID привычки
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return количество выполнений
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public int countCompletionsBetween(long habitId, LocalDate from, LocalDate to) throws SQLException {
+        return jdbcExecutor.query(COUNT_COMPLETIONS_BETWEEN, statement -> {
             statement.setLong(1, habitId);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    completionHistory.add(resultSet.getDate("completion_date").toLocalDate());
-                }
+            statement.setDate(2, Date.valueOf(from));
+            statement.setDate(3, Date.valueOf(to.plusDays(1)));
+        }, resultSet -> resultSet.next() ? resultSet.getInt(1) : 0);
+    }
+
+    /**
+     * Получение истории выполнения всех привычек пользователя одним запросом
+     *
+     * @param userId ID владельца привычек
+     * @return даты выполнения по ID привычки
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public Map<Long, List<LocalDate>> getCompletionHistoryForUserHabits(long userId) throws SQLException {
+        return jdbcExecutor.query(GET_COMPLETION_HISTORY_FOR_USER_HABITS, statement -> statement.setLong(1, userId),
+                resultSet -> {
+                    Map<Long, List<LocalDate>> history = new HashMap<>();
+                    while (resultSet.next()) {
+                        history.computeIfAbsent(resultSet.getLong("habit_id"), habitId -> new ArrayList<>())
+                                .add(resultSet.getDate("completion_date").toLocalDate());
+                    }
+                    return history;
+                });
+    }
+
+    /**
+     * Подсчет выполнений привычки в диапазоне дат с группировкой по периоду
+     *
+     * @param habitId ID привычки
+     * @param groupBy период группировки
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return количество выполнений по началу каждого периода
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public Map<LocalDate, Integer> countCompletionsGroupedBy(long habitId, Period groupBy, LocalDate from, LocalDate to)
+            throws SQLException {
+        return jdbcExecutor.query(COUNT_COMPLETIONS_GROUPED_BY_PERIOD, statement -> {
+            statement.setString(1, groupBy.getPeriodName());
+            statement.setLong(2, habitId);
+            statement.setDate(3, Date.valueOf(from));
+            statement.setDate(4, Date.valueOf(to.plusDays(1)));
+        }, resultSet -> {
+            Map<LocalDate, Integer> counts = new LinkedHashMap<>();
+            while (resultSet.next()) {
+                counts.put(resultSet.getDate("period_start").toLocalDate(), resultSet.getInt("completion_count"));
             }
+            return counts;
+        });
+    }
+
+    /**
+     * Подсчет текущей и максимальной серий выполнения привычки.
+     * Для PostgreSQL серии считаются в БД одним запросом, для остальных СУБД - в памяти по истории выполнения.
+     *
+     * @param habitId ID привычки
+     * @param today текущая дата
+     * @return текущая и максимальная серии
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public HabitStreakDto getStreaks(long habitId, LocalDate today) throws SQLException {
+        if (jdbcExecutor.isPostgreSql()) {
+            return getStreaksFromDatabase(habitId, today);
         }
-        return completionHistory;
+        return StreakCalculator.calculate(getCompletionHistoryForHabit(habitId), today);
     }
 
     /**
-     * Добавление даты выполнения привычки для пользователя
+     * Подсчет серий выполнения запросом с оконными функциями
+     *
+     * @param habitId ID привычки
+     * @param today текущая дата
+     * @return текущая и максимальная серии
+     * @throws SQLException ошибка работы с БД
+     */
+    HabitStreakDto getStreaksFromDatabase(long habitId, LocalDate today) throws SQLException {
+        return jdbcExecutor.query(GET_STREAKS_FOR_HABIT, statement -> {
+            statement.setDate(1, Date.valueOf(today));
+            statement.setLong(2, habitId);
+        }, resultSet -> resultSet.next()
+                ? new HabitStreakDto(resultSet.getInt("current_streak"), resultSet.getInt("longest_streak"))
+                : new HabitStreakDto(0, 0));
+    }
+
+    /**
+     * Пересчет по истории значений для колонок серий в habits.
+     * Для PostgreSQL серии считаются в БД одним запросом, для остальных СУБД - в памяти по истории выполнения.
+     *
+     * @param habitId ID привычки
+     * @return серии и дата последней отметки
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public HabitStreakEntity calculateStreakState(long habitId) throws SQLException {
+        if (jdbcExecutor.isPostgreSql()) {
+            return calculateStreakStateFromDatabase(habitId);
+        }
+        List<LocalDate> history = getCompletionHistoryForHabit(habitId);
+        if (history.isEmpty()) {
+            return new HabitStreakEntity(habitId, 0, 0, null);
+        }
+        LocalDate lastCompletedDate = Collections.max(history);
+        HabitStreakDto streaks = StreakCalculator.calculate(history, lastCompletedDate);
+        return new HabitStreakEntity(habitId, streaks.getCurrentStreak(), streaks.getLongestStreak(), lastCompletedDate);
+    }
+
+    /**
+     * Пересчет серий для колонок habits запросом с оконными функциями
+     *
+     * @param habitId ID привычки
+     * @return серии и дата последней отметки
+     * @throws SQLException ошибка работы с БД
+     */
+    HabitStreakEntity calculateStreakStateFromDatabase(long habitId) throws SQLException {
+        return jdbcExecutor.query(GET_STREAK_STATE_FOR_HABIT, statement -> statement.setLong(1, habitId),
+                resultSet -> {
+                    if (!resultSet.next()) {
+                        return new HabitStreakEntity(habitId, 0, 0, null);
+                    }
+                    Date lastCompletedDate = resultSet.getDate("last_completed_date");
+                    return new HabitStreakEntity(habitId,
+                            resultSet.getInt("current_streak"),
+                            resultSet.getInt("longest_streak"),
+                            lastCompletedDate == null ? null : lastCompletedDate.toLocalDate());
+                });
+    }
+
+    /**
+     * Добавление даты выполнения привычки для пользователя.
+     * Для PostgreSQL повтор отсекается через ON CONFLICT DO NOTHING без предварительного чтения истории,
+     * для остальных СУБД - по ошибке нарушения уникального индекса.
+     * В той же транзакции продлевается серия в habits; отметка не позже последней учитывается пересчетом по истории.
      *
      * @param habitId ID привычки
      * @param userId ID пользователя
      * @param completionDate дата выполнения
+     * @return true, если запись добавлена, false, если привычка уже отмечена в этот день
      * @throws SQLException ошибка работы с БД
      */
     @Override
-    public void addCompletionDateByHabitIdUserId(long habitId, long userId, LocalDate completionDate) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID)) {
-            statement.setLong(1, new Random().nextLong());
+    public boolean addCompletionDateByHabitIdUserId(long habitId, long userId, LocalDate completionDate) throws SQLException {
+        long id = habitCompletionHistoryIdAllocator.nextId();
+        StatementSetter setter = statement -> {
+            statement.setLong(1, id);
             statement.setLong(2, habitId);
             statement.setLong(3, userId);
             statement.setDate(4, Date.valueOf(completionDate));
-            statement.executeUpdate();
+        };
+        return jdbcExecutor.inTransaction(connection -> {
+            if (!insertCompletion(setter)) {
+                return false;
+            }
+            advanceStreak(habitId, completionDate);
+            return true;
+        });
+    }
+
+    /**
+     * Пакетное добавление дат выполнения привычки.
+     * В транзакции сначала одним запросом читаются уже отмеченные даты из диапазона набора,
+     * затем оставшиеся даты отправляются одним JDBC-пакетом. Для PostgreSQL пакет вставляется
+     * с ON CONFLICT DO NOTHING, что защищает от параллельной отметки тех же дней,
+     * а драйвер с параметром reWriteBatchedInserts склеивает пакет в многострочные INSERT.
+     * Даты пакета могут быть в прошлом, поэтому серии в habits пересчитываются по истории в той же транзакции.
+     *
+     * @param habitId ID привычки
+     * @param userId ID пользователя
+     * @param completionDates даты выполнения
+     * @return количество добавленных записей
+     * @throws SQLException ошибка работы с БД, транзакция при этом откатывается
+     */
+    @Override
+    public int addCompletionDatesByHabitIdUserId(long habitId, long userId, Collection<LocalDate> completionDates)
+            throws SQLException {
+        NavigableSet<LocalDate> newDates = new TreeSet<>(completionDates);
+        if (newDates.isEmpty()) {
+            return 0;
         }
+
+        return jdbcExecutor.inTransaction(connection -> {
+            newDates.removeAll(jdbcExecutor.queryForList(GET_COMPLETION_DATES_FOR_HABIT_BETWEEN, statement -> {
+                statement.setLong(1, habitId);
+                statement.setDate(2, Date.valueOf(newDates.first()));
+                statement.setDate(3, Date.valueOf(newDates.last().plusDays(1)));
+            }, resultSet -> resultSet.getDate("completion_date").toLocalDate()));
+            if (newDates.isEmpty()) {
+                return 0;
+            }
+
+            List<HabitCompletionHistoryEntity> rows = new ArrayList<>(newDates.size());
+            for (LocalDate completionDate : newDates) {
+                rows.add(new HabitCompletionHistoryEntity(
+                        habitCompletionHistoryIdAllocator.nextId(), habitId, userId, completionDate));
+            }
+            String sql = jdbcExecutor.isPostgreSql()
+                    ? ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID_ON_CONFLICT_DO_NOTHING
+                    : ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID;
+            int inserted = countInserted(jdbcExecutor.batchUpdate(sql, rows, (statement, row) -> {
+                statement.setLong(1, row.getId());
+                statement.setLong(2, row.getHabitId());
+                statement.setLong(3, row.getUserId());
+                statement.setDate(4, Date.valueOf(row.getCompletionDate()));
+            }));
+            if (inserted > 0) {
+                refreshStreak(habitId);
+            }
+            return inserted;
+        });
     }
 
     /**
@@ -72,18 +290,14 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
      */
     @Override
     public HabitCompletionHistoryEntity create(HabitCompletionHistoryEntity historyEntity) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(CREATE_COMPLETION_HISTORY, Statement.RETURN_GENERATED_KEYS)) {
-            statement.setLong(1, historyEntity.getHabitId());
-            statement.setLong(2, historyEntity.getUserId());
-            statement.setDate(3, Date.valueOf(historyEntity.getCompletionDate()));
-            statement.executeUpdate();
-
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    historyEntity.setId(generatedKeys.getLong(1));
-                }
-            }
-        }
+        long id = habitCompletionHistoryIdAllocator.nextId();
+        jdbcExecutor.update(CREATE_COMPLETION_HISTORY, statement -> {
+            statement.setLong(1, id);
+            statement.setLong(2, historyEntity.getHabitId());
+            statement.setLong(3, historyEntity.getUserId());
+            statement.setDate(4, Date.valueOf(historyEntity.getCompletionDate()));
+        });
+        historyEntity.setId(id);
         return historyEntity;
     }
 
@@ -96,15 +310,9 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
      */
     @Override
     public Optional<HabitCompletionHistoryEntity> findById(Long id) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_COMPLETION_HISTORY_BY_ID)) {
-            statement.setLong(1, id);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return Optional.of(mapRowToEntity(resultSet));
-                }
-            }
-        }
-        return Optional.empty();
+        return jdbcExecutor.queryForOptional(GET_COMPLETION_HISTORY_BY_ID,
+                statement -> statement.setLong(1, id),
+                this::mapRowToEntity);
     }
 
     /**
@@ -115,15 +323,23 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
      */
     @Override
     public List<HabitCompletionHistoryEntity> findAll() throws SQLException {
-        List<HabitCompletionHistoryEntity> historyList = new ArrayList<>();
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_ALL_COMPLETION_HISTORY)) {
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    historyList.add(mapRowToEntity(resultSet));
-                }
-            }
-        }
-        return historyList;
+        return jdbcExecutor.queryForList(GET_ALL_COMPLETION_HISTORY, StatementSetter.NONE, this::mapRowToEntity);
+    }
+
+    /**
+     * Получение страницы записей истории выполнения, упорядоченных по ID
+     *
+     * @param after ID последней записи предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество записей
+     * @return список записей с ID больше after
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public List<HabitCompletionHistoryEntity> findPage(Long after, int limit) throws SQLException {
+        return jdbcExecutor.queryForList(GET_COMPLETION_HISTORY_PAGE, statement -> {
+            statement.setLong(1, after == null ? Long.MIN_VALUE : after);
+            statement.setInt(2, limit);
+        }, this::mapRowToEntity);
     }
 
     /**
@@ -135,13 +351,12 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
      */
     @Override
     public boolean update(HabitCompletionHistoryEntity historyEntity) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(UPDATE_COMPLETION_HISTORY)) {
+        return jdbcExecutor.update(UPDATE_COMPLETION_HISTORY, statement -> {
             statement.setLong(1, historyEntity.getHabitId());
             statement.setLong(2, historyEntity.getUserId());
             statement.setDate(3, Date.valueOf(historyEntity.getCompletionDate()));
             statement.setLong(4, historyEntity.getId());
-            return statement.executeUpdate() > 0;
-        }
+        }) > 0;
     }
 
     /**
@@ -153,10 +368,7 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
      */
     @Override
     public boolean deleteById(Long id) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(DELETE_COMPLETION_HISTORY_BY_ID)) {
-            statement.setLong(1, id);
-            return statement.executeUpdate() > 0;
-        }
+        return jdbcExecutor.update(DELETE_COMPLETION_HISTORY_BY_ID, statement -> statement.setLong(1, id)) > 0;
     }
 
     /**
@@ -175,4 +387,91 @@ public class HabitCompletionHistoryRepositoryImpl implements HabitCompletionHist
                 resultSet.getDate("completion_date").toLocalDate()
         );
     }
+
+    /**
+     * Вставка одной отметки выполнения
+     *
+     * @param setter установка параметров вставки
+     * @return true, если запись добавлена, false, если день уже отмечен
+     * @throws SQLException ошибка работы с БД
+     */
+    private boolean insertCompletion(StatementSetter setter) throws SQLException {
+        if (jdbcExecutor.isPostgreSql()) {
+            return jdbcExecutor.update(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID_ON_CONFLICT_DO_NOTHING, setter) > 0;
+        }
+        try {
+            return jdbcExecutor.update(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID, setter) > 0;
+        } catch (SQLException e) {
+            if (JdbcExecutor.isUniqueViolation(e)) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Продление серии в habits новой отметкой.
+     * Если отметка не позже последней (например, отметка задним числом), серии пересчитываются по истории.
+     *
+     * @param habitId ID привычки
+     * @param completionDate дата отметки
+     * @throws SQLException ошибка работы с БД
+     */
+    private void advanceStreak(long habitId, LocalDate completionDate) throws SQLException {
+        Date day = Date.valueOf(completionDate);
+        Date previousDay = Date.valueOf(completionDate.minusDays(1));
+        int updated = jdbcExecutor.update(ADVANCE_HABIT_STREAK, statement -> {
+            statement.setDate(1, previousDay);
+            statement.setDate(2, previousDay);
+            statement.setDate(3, day);
+            statement.setLong(4, habitId);
+            statement.setDate(5, day);
+        });
+        if (updated == 0) {
+            refreshStreak(habitId);
+        }
+    }
+
+    /**
+     * Запись в habits серий, пересчитанных по истории.
+     * Вызывается внутри транзакции: строка привычки блокируется до чтения истории, поэтому параллельное
+     * продление серии не может быть перезаписано значением, посчитанным без его отметки.
+     *
+     * @param habitId ID привычки
+     * @throws SQLException ошибка работы с БД
+     */
+    private void refreshStreak(long habitId) throws SQLException {
+        String lockSql = jdbcExecutor.isPostgreSql()
+                ? LOCK_HABIT_FOR_STREAK_UPDATE_POSTGRESQL
+                : LOCK_HABIT_FOR_STREAK_UPDATE;
+        boolean habitExists = jdbcExecutor.query(lockSql, statement -> statement.setLong(1, habitId), ResultSet::next);
+        if (!habitExists) {
+            return;
+        }
+        HabitStreakEntity streak = calculateStreakState(habitId);
+        jdbcExecutor.update(UPDATE_HABIT_STREAK, statement -> {
+            statement.setInt(1, streak.getCurrentStreak());
+            statement.setInt(2, streak.getLongestStreak());
+            statement.setDate(3, streak.getLastCompletedDate() == null ? null : Date.valueOf(streak.getLastCompletedDate()));
+            statement.setLong(4, habitId);
+        });
+    }
+
+    /**
+     * Количество вставленных строк по результату пакета.
+     * При склейке пакета драйвер PostgreSQL возвращает SUCCESS_NO_INFO, такая строка считается добавленной:
+     * уже отмеченные даты отфильтрованы до вставки.
+     *
+     * @param updateCounts результат executeBatch
+     * @return количество вставленных строк
+     */
+    private int countInserted(int[] updateCounts) {
+        int inserted = 0;
+        for (int updateCount : updateCounts) {
+            if (updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO) {
+                inserted++;
+            }
+        }
+        return inserted;
+    }
 }
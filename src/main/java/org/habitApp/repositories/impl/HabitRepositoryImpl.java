@@ -1,16 +1,21 @@
 package org.habitApp.repositories.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardEntryDto;
 import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.domain.entities.HabitStreakEntity;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.repositories.HabitRepository;
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.repositories.jdbc.StatementSetter;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.habitApp.repositories.constants.HabitSqlQueries.*;
 
@@ -21,7 +26,8 @@ import static org.habitApp.repositories.constants.HabitSqlQueries.*;
 @RequiredArgsConstructor
 public class HabitRepositoryImpl implements HabitRepository {
 
-    private final DataSource dataSource;
+    private final JdbcExecutor jdbcExecutor;
+    private final IdAllocator habitIdAllocator;
 
     /**
      * Получение всех привычек пользователя
@@ -31,16 +37,9 @@ public class HabitRepositoryImpl implements HabitRepository {
      */
     @Override
     public List<HabitEntity> getHabitsByUser(UserEntity user) throws SQLException {
-        List<HabitEntity> habits = new ArrayList<>();
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_HABITS_BY_USER_ID)) {
-            statement.setLong(1, user.getId());
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    habits.add(mapRowToEntity(resultSet));
-                }
-            }
-        }
-        return habits;
+        return jdbcExecutor.queryForList(GET_HABITS_BY_USER_ID,
+                statement -> statement.setLong(1, user.getId()),
+                this::mapRowToEntity);
     }
 
     /**
@@ -51,15 +50,9 @@ public class HabitRepositoryImpl implements HabitRepository {
      */
     @Override
     public Optional<HabitEntity> findById(Long id) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_HABIT_BY_ID)) {
-            statement.setLong(1, id);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return Optional.of(mapRowToEntity(resultSet));
-                }
-            }
-        }
-        return Optional.empty();
+        return jdbcExecutor.queryForOptional(GET_HABIT_BY_ID,
+                statement -> statement.setLong(1, id),
+                this::mapRowToEntity);
     }
 
     /**
@@ -69,15 +62,36 @@ public class HabitRepositoryImpl implements HabitRepository {
      */
     @Override
     public List<HabitEntity> findAll() throws SQLException {
-        List<HabitEntity> habits = new ArrayList<>();
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_ALL_HABITS)) {
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    habits.add(mapRowToEntity(resultSet));
-                }
-            }
-        }
-        return habits;
+        return jdbcExecutor.queryForList(GET_ALL_HABITS, StatementSetter.NONE, this::mapRowToEntity);
+    }
+
+    /**
+     * Получение страницы привычек, упорядоченных по ID
+     *
+     * @param after ID последней записи предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество записей
+     * @return список записей с ID больше after
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public List<HabitEntity> findPage(Long after, int limit) throws SQLException {
+        return jdbcExecutor.queryForList(GET_HABITS_PAGE, statement -> {
+            statement.setLong(1, after == null ? Long.MIN_VALUE : after);
+            statement.setInt(2, limit);
+        }, this::mapRowToEntity);
+    }
+
+    /**
+     * Последовательный обход всех привычек курсором
+     * @param fetchSize количество строк, получаемых из БД за одно обращение
+     * @param action действие для каждой привычки
+     * @return количество обработанных привычек
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public long forEachHabit(int fetchSize, Consumer<HabitEntity> action) throws SQLException {
+        return jdbcExecutor.queryForEach(GET_ALL_HABITS_ORDERED_BY_ID, StatementSetter.NONE, fetchSize,
+                resultSet -> action.accept(mapRowToEntity(resultSet)));
     }
 
     /**
@@ -88,20 +102,16 @@ public class HabitRepositoryImpl implements HabitRepository {
      */
     @Override
     public HabitEntity create(HabitEntity habit) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(CREATE_HABIT, Statement.RETURN_GENERATED_KEYS)) {
-            statement.setString(1, habit.getName());
-            statement.setString(2, habit.getDescription());
-            statement.setString(3, habit.getFrequency());
-            statement.setDate(4, Date.valueOf(habit.getCreatedDate()));
-            statement.setLong(5, habit.getUserId());
-            statement.executeUpdate();
-
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    habit.setId(generatedKeys.getLong(1));
-                }
-            }
-        }
+        long id = habitIdAllocator.nextId();
+        jdbcExecutor.update(CREATE_HABIT, statement -> {
+            statement.setLong(1, id);
+            statement.setString(2, habit.getName());
+            statement.setString(3, habit.getDescription());
+            statement.setString(4, habit.getFrequency());
+            statement.setDate(5, Date.valueOf(habit.getCreatedDate()));
+            statement.setLong(6, habit.getUserId());
+        });
+        habit.setId(id);
         return habit;
     }
 
@@ -113,13 +123,12 @@ public class HabitRepositoryImpl implements HabitRepository {
      */
     @Override
     public boolean update(HabitEntity habit) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(UPDATE_HABIT)) {
+        return jdbcExecutor.update(UPDATE_HABIT, statement -> {
             statement.setString(1, habit.getName());
             statement.setString(2, habit.getDescription());
             statement.setString(3, habit.getFrequency());
             statement.setLong(4, habit.getId());
-            return statement.executeUpdate() > 0;
-        }
+        }) > 0;
     }
 
     /**
@@ -130,10 +139,183 @@ public class HabitRepositoryImpl implements HabitRepository {
      */
     @Override
     public boolean deleteById(Long habitId) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(DELETE_HABIT)) {
+        return jdbcExecutor.update(DELETE_HABIT, statement -> statement.setLong(1, habitId)) > 0;
+    }
+
+    /**
+     * Поиск привычки по id и владельцу
+     * @param habitId id привычки
+     * @param userId id владельца
+     * @return Optional с привычкой, если она найдена у пользователя
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public Optional<HabitEntity> findByIdAndUserId(long habitId, long userId) throws SQLException {
+        return jdbcExecutor.queryForOptional(GET_HABIT_BY_ID_AND_USER_ID, statement -> {
             statement.setLong(1, habitId);
-            return statement.executeUpdate() > 0;
-        }
+            statement.setLong(2, userId);
+        }, this::mapRowToEntity);
+    }
+
+    /**
+     * Обновление привычки с проверкой владельца в условии запроса
+     * @param habit привычка с новыми данными и id
+     * @param userId id владельца
+     * @return true, если привычка обновлена
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public boolean updateByIdAndUserId(HabitEntity habit, long userId) throws SQLException {
+        return jdbcExecutor.update(UPDATE_HABIT_BY_ID_AND_USER_ID, statement -> {
+            statement.setString(1, habit.getName());
+            statement.setString(2, habit.getDescription());
+            statement.setString(3, habit.getFrequency());
+            statement.setLong(4, habit.getId());
+            statement.setLong(5, userId);
+        }) > 0;
+    }
+
+    /**
+     * Удаление привычки с проверкой владельца в условии запроса
+     * @param habitId id привычки
+     * @param userId id владельца
+     * @return true, если привычка удалена
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public boolean deleteByIdAndUserId(long habitId, long userId) throws SQLException {
+        return jdbcExecutor.update(DELETE_HABIT_BY_ID_AND_USER_ID, statement -> {
+            statement.setLong(1, habitId);
+            statement.setLong(2, userId);
+        }) > 0;
+    }
+
+    /**
+     * Проверка существования привычки
+     * @param habitId id привычки
+     * @return true, если привычка существует
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public boolean existsById(long habitId) throws SQLException {
+        return jdbcExecutor.query(EXISTS_HABIT_BY_ID, statement -> statement.setLong(1, habitId),
+                resultSet -> resultSet.next() && resultSet.getBoolean(1));
+    }
+
+    /**
+     * Получение сохраненных серий выполнения привычки
+     * @param habitId id привычки
+     * @return Optional с сериями, если привычка существует
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public Optional<HabitStreakEntity> findStreakById(long habitId) throws SQLException {
+        return jdbcExecutor.queryForOptional(GET_HABIT_STREAK_BY_ID,
+                statement -> statement.setLong(1, habitId),
+                this::mapRowToStreak);
+    }
+
+    /**
+     * Получение страницы сохраненных серий выполнения, упорядоченных по id привычки
+     * @param after id последней привычки предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество записей
+     * @return серии привычек с id больше after
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public List<HabitStreakEntity> findStreakPage(Long after, int limit) throws SQLException {
+        return jdbcExecutor.queryForList(GET_HABIT_STREAKS_PAGE, statement -> {
+            statement.setLong(1, after == null ? Long.MIN_VALUE : after);
+            statement.setInt(2, limit);
+        }, this::mapRowToStreak);
+    }
+
+    /**
+     * Запись пересчитанных серий, если сохраненные значения не изменились с момента чтения
+     * @param expected прочитанные ранее значения
+     * @param actual новые значения
+     * @return true, если серии обновлены
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public boolean updateStreakIfUnchanged(HabitStreakEntity expected, HabitStreakEntity actual) throws SQLException {
+        return jdbcExecutor.update(UPDATE_HABIT_STREAK_IF_UNCHANGED, statement -> {
+            statement.setInt(1, actual.getCurrentStreak());
+            statement.setInt(2, actual.getLongestStreak());
+            statement.setDate(3, toSqlDate(actual.getLastCompletedDate()));
+            statement.setLong(4, expected.getHabitId());
+            statement.setInt(5, expected.getCurrentStreak());
+            statement.setInt(6, expected.getLongestStreak());
+            statement.setDate(7, toSqlDate(expected.getLastCompletedDate()));
+        }) > 0;
+    }
+
+    /**
+     * Конец следующей порции прерванных серий после курсора
+     * @param lastCompletedBefore граница даты последней отметки (не включительно)
+     * @param afterId курсор: id последней привычки предыдущей порции
+     * @param limit размер порции
+     * @return Optional с id последней привычки порции
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public Optional<Long> findBrokenStreaksChunkEnd(LocalDate lastCompletedBefore, long afterId, int limit)
+            throws SQLException {
+        return jdbcExecutor.query(GET_BROKEN_STREAKS_CHUNK_END, statement -> {
+            statement.setDate(1, Date.valueOf(lastCompletedBefore));
+            statement.setLong(2, afterId);
+            statement.setInt(3, limit);
+        }, resultSet -> {
+            resultSet.next();
+            long chunkEnd = resultSet.getLong(1);
+            return resultSet.wasNull() ? Optional.empty() : Optional.of(chunkEnd);
+        });
+    }
+
+    /**
+     * Сброс текущих серий в диапазоне id, последняя отметка которых раньше указанной даты
+     * @param lastCompletedBefore граница даты последней отметки (не включительно)
+     * @param afterId начало диапазона id (не включительно)
+     * @param upToId конец диапазона id (включительно)
+     * @return количество сброшенных серий
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public int resetStreaksCompletedBefore(LocalDate lastCompletedBefore, long afterId, long upToId) throws SQLException {
+        return jdbcExecutor.update(RESET_BROKEN_STREAKS_RANGE, statement -> {
+            statement.setDate(1, Date.valueOf(lastCompletedBefore));
+            statement.setLong(2, afterId);
+            statement.setLong(3, upToId);
+        });
+    }
+
+    /**
+     * Пользователи с лучшей текущей серией среди своих привычек
+     * @param activeSince серии с последней отметкой раньше этой даты считаются прерванными
+     * @param limit количество пользователей
+     * @return пользователи по убыванию серии
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public List<StreakLeaderboardEntryDto> findTopUsersByCurrentStreak(LocalDate activeSince, int limit)
+            throws SQLException {
+        return jdbcExecutor.queryForList(GET_TOP_USERS_BY_CURRENT_STREAK, statement -> {
+            statement.setDate(1, Date.valueOf(activeSince));
+            statement.setInt(2, limit);
+        }, this::mapRowToLeaderboardEntry);
+    }
+
+    /**
+     * Пользователи с лучшей максимальной серией среди своих привычек
+     * @param limit количество пользователей
+     * @return пользователи по убыванию серии
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public List<StreakLeaderboardEntryDto> findTopUsersByLongestStreak(int limit) throws SQLException {
+        return jdbcExecutor.queryForList(GET_TOP_USERS_BY_LONGEST_STREAK,
+                statement -> statement.setInt(1, limit),
+                this::mapRowToLeaderboardEntry);
     }
 
     /**
@@ -153,4 +335,32 @@ public class HabitRepositoryImpl implements HabitRepository {
                 resultSet.getLong("user_id")
         );
     }
+
+    /**
+     * Преобразование строки с колонками серий в объект HabitStreakEntity
+     * @param resultSet Результат запроса
+     * @return серии выполнения привычки
+     * @throws SQLException В случае ошибок при работе с результатом запроса
+     */
+    private HabitStreakEntity mapRowToStreak(ResultSet resultSet) throws SQLException {
+        Date lastCompletedDate = resultSet.getDate("last_completed_date");
+        return new HabitStreakEntity(
+                resultSet.getLong("id"),
+                resultSet.getInt("current_streak"),
+                resultSet.getInt("longest_streak"),
+                lastCompletedDate == null ? null : lastCompletedDate.toLocalDate()
+        );
+    }
+
+    private StreakLeaderboardEntryDto mapRowToLeaderboardEntry(ResultSet resultSet) throws SQLException {
+        return new StreakLeaderboardEntryDto(
+                resultSet.getLong("user_id"),
+                resultSet.getString("username"),
+                resultSet.getInt("streak")
+        );
+    }
+
+    private static Date toSqlDate(LocalDate date) {
+        return date == null ? null : Date.valueOf(date);
+    }
 }
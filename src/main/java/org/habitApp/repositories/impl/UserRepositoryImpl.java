@@ -5,13 +5,15 @@ import lombok.RequiredArgsConstructor;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.models.Role;
 import org.habitApp.repositories.UserRepository;
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.repositories.jdbc.StatementSetter;
 import org.springframework.stereotype.Repository;
 
-import javax.sql.DataSource;
 import java.sql.*;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.habitApp.repositories.constants.UserSqlQueries.*;
 
@@ -23,7 +25,8 @@ import static org.habitApp.repositories.constants.UserSqlQueries.*;
 @RequiredArgsConstructor
 public class UserRepositoryImpl implements UserRepository {
 
-    private final DataSource dataSource; // Источник данных для подключения к базе данных
+    private final JdbcExecutor jdbcExecutor; // Выполнение запросов с управлением соединениями
+    private final IdAllocator userIdAllocator; // Выдача id для новых пользователей
 
 
     /**
@@ -35,15 +38,9 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public Optional<UserEntity> findByEmail(String email) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_USER_BY_EMAIL)) {
-            statement.setString(1, email);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return Optional.of(mapRowToEntity(resultSet));
-                }
-                return Optional.empty();
-            }
-        }
+        return jdbcExecutor.queryForOptional(GET_USER_BY_EMAIL,
+                statement -> statement.setString(1, email),
+                this::mapRowToEntity);
     }
 
     /**
@@ -55,15 +52,9 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public Optional<UserEntity> findById(Long id) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(GET_USER_BY_ID)) {
-            statement.setLong(1, id);
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return Optional.of(mapRowToEntity(resultSet));
-                }
-                return Optional.empty();
-            }
-        }
+        return jdbcExecutor.queryForOptional(GET_USER_BY_ID,
+                statement -> statement.setLong(1, id),
+                this::mapRowToEntity);
     }
 
     /**
@@ -74,14 +65,51 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public List<UserEntity> findAll() throws SQLException {
-        List<UserEntity> users = new ArrayList<>();
-        try (Statement statement = dataSource.getConnection().createStatement();
-             ResultSet resultSet = statement.executeQuery(GET_ALL_USERS)) {
-            while (resultSet.next()) {
-                users.add(mapRowToEntity(resultSet));
-            }
-        }
-        return users;
+        return jdbcExecutor.queryForList(GET_ALL_USERS, StatementSetter.NONE, this::mapRowToEntity);
+    }
+
+    /**
+     * Получение страницы пользователей, упорядоченных по ID
+     *
+     * @param after ID последней записи предыдущей страницы, null для первой страницы
+     * @param limit максимальное количество записей
+     * @return список записей с ID больше after
+     * @throws SQLException ошибка работы с БД
+     */
+    @Override
+    public List<UserEntity> findPage(Long after, int limit) throws SQLException {
+        return jdbcExecutor.queryForList(GET_USERS_PAGE, statement -> {
+            statement.setLong(1, after == null ? Long.MIN_VALUE : after);
+            statement.setInt(2, limit);
+        }, this::mapRowToEntity);
+    }
+
+    /**
+     * Последовательный обход всех пользователей курсором.
+     *
+     * @param fetchSize Количество строк, получаемых из БД за одно обращение
+     * @param action Действие для каждого пользователя
+     * @return Количество обработанных пользователей
+     * @throws SQLException В случае ошибок при работе с базой данных
+     */
+    @Override
+    public long forEachUser(int fetchSize, Consumer<UserEntity> action) throws SQLException {
+        return jdbcExecutor.queryForEach(GET_ALL_USERS_ORDERED_BY_ID, StatementSetter.NONE, fetchSize,
+                resultSet -> action.accept(mapRowToEntity(resultSet)));
+    }
+
+    /**
+     * Последовательный обход email всех пользователей курсором.
+     *
+     * @param fetchSize Количество строк, получаемых из БД за одно обращение
+     * @param action Действие для каждого email
+     * @return Количество обработанных email
+     * @throws SQLException В случае ошибок при работе с базой данных
+     */
+    @Override
+    public long forEachEmail(int fetchSize, Consumer<String> action) throws SQLException {
+        return jdbcExecutor.queryForEach(GET_ALL_USER_EMAILS, StatementSetter.NONE, fetchSize,
+                resultSet -> action.accept(resultSet.getString("email")));
     }
 
     /**
@@ -93,20 +121,15 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public UserEntity create(UserEntity user) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(REGISTER_USER, Statement.RETURN_GENERATED_KEYS)) {
-            statement.setObject(1, user.getId());
+        long id = userIdAllocator.nextId();
+        jdbcExecutor.update(REGISTER_USER, statement -> {
+            statement.setLong(1, id);
             statement.setString(2, user.getUsername());
             statement.setString(3, user.getEmail());
             statement.setString(4, user.getPassword());
             statement.setString(5, user.getRole().toString());
-            statement.executeUpdate();
-
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    user.setId(generatedKeys.getLong(1));
-                }
-            }
-        }
+        });
+        user.setId(id);
         return user;
     }
 
@@ -119,13 +142,12 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public boolean update(UserEntity user) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(UPDATE_USER)) {
+        return jdbcExecutor.update(UPDATE_USER, statement -> {
             statement.setString(1, user.getUsername());
             statement.setString(2, user.getPassword());
             statement.setString(3, user.getRole().toString());
             statement.setString(4, user.getEmail());
-            return statement.executeUpdate() > 0;
-        }
+        }) > 0;
     }
 
     /**
@@ -137,10 +159,7 @@ public class UserRepositoryImpl implements UserRepository {
      */
     @Override
     public boolean deleteById(Long id) throws SQLException {
-        try (PreparedStatement statement = dataSource.getConnection().prepareStatement(DELETE_USER_BY_ID)) {
-            statement.setLong(1, id);
-            return statement.executeUpdate() > 0;
-        }
+        return jdbcExecutor.update(DELETE_USER_BY_ID, statement -> statement.setLong(1, id)) > 0;
     }
 
     /**
@@ -0,0 +1,14 @@
+package org.habitApp.repositories.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Установка параметров запроса для одного элемента пакета.
+ *
+ * @param <T> тип элемента пакета
+ */
+@FunctionalInterface
+public interface BatchStatementSetter<T> {
+    void setValues(PreparedStatement statement, T item) throws SQLException;
+}
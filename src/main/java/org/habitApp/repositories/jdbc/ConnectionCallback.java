@@ -0,0 +1,14 @@
+package org.habitApp.repositories.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Действие, выполняемое на выданном JdbcExecutor соединении.
+ *
+ * @param <T> тип результата
+ */
+@FunctionalInterface
+public interface ConnectionCallback<T> {
+    T doInConnection(Connection connection) throws SQLException;
+}
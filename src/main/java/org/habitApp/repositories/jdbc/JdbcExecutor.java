@@ -0,0 +1,303 @@
+package org.habitApp.repositories.jdbc;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общий слой выполнения JDBC-запросов для репозиториев.
+ * Берет соединение из пула, выполняет действие и гарантированно возвращает соединение обратно.
+ * Внутри {@link #inTransaction(ConnectionCallback)} все вызовы текущего потока используют одно соединение.
+ * Ведет счетчики времени получения и удержания соединений, а также числа занятых соединений.
+ */
+@Component
+public class JdbcExecutor {
+
+    /**
+     * SQLState нарушения уникального ограничения (PostgreSQL, H2)
+     */
+    public static final String UNIQUE_VIOLATION = "23505";
+
+    private final DataSource dataSource;
+
+    private final ThreadLocal<Connection> boundConnection = new ThreadLocal<>();
+
+    private volatile String databaseProductName;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    public JdbcExecutor(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Выполнение действия на соединении.
+     * Если поток уже находится внутри транзакции, используется ее соединение.
+     *
+     * @param callback действие
+     * @return результат действия
+     * @throws SQLException ошибка работы с БД
+     */
+    public <T> T execute(ConnectionCallback<T> callback) throws SQLException {
+        Connection bound = boundConnection.get();
+        if (bound != null) {
+            return callback.doInConnection(bound);
+        }
+
+        long startTime = System.nanoTime();
+        Connection connection = dataSource.getConnection();
+        long acquiredTime = System.nanoTime();
+        recordBorrow(acquiredTime - startTime);
+        try {
+            return callback.doInConnection(connection);
+        } finally {
+            release(connection, acquiredTime);
+        }
+    }
+
+    /**
+     * Выполнение действия в одной транзакции.
+     * Вложенные вызовы JdbcExecutor из того же потока участвуют в этой же транзакции.
+     *
+     * @param callback действие
+     * @return результат действия
+     * @throws SQLException ошибка работы с БД, транзакция при этом откатывается
+     */
+    public <T> T inTransaction(ConnectionCallback<T> callback) throws SQLException {
+        if (boundConnection.get() != null) {
+            return callback.doInConnection(boundConnection.get());
+        }
+
+        return execute(connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            boundConnection.set(connection);
+            try {
+                T result = callback.doInConnection(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                // Ошибка отката не должна скрывать исходную ошибку
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackError) {
+                    e.addSuppressed(rollbackError);
+                }
+                throw e;
+            } finally {
+                boundConnection.remove();
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /**
+     * Выполнение запроса с обработкой всего результата.
+     *
+     * @param sql запрос
+     * @param setter установка параметров
+     * @param extractor обработчик результата
+     * @return результат обработки
+     * @throws SQLException ошибка работы с БД
+     */
+    public <T> T query(String sql, StatementSetter setter, ResultSetExtractor<T> extractor) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                setter.setValues(statement);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return extractor.extract(resultSet);
+                }
+            }
+        });
+    }
+
+    /**
+     * Выполнение запроса с преобразованием каждой строки.
+     *
+     * @param sql запрос
+     * @param setter установка параметров
+     * @param rowMapper преобразование строки
+     * @return список объектов
+     * @throws SQLException ошибка работы с БД
+     */
+    public <T> List<T> queryForList(String sql, StatementSetter setter, RowMapper<T> rowMapper) throws SQLException {
+        return query(sql, setter, resultSet -> {
+            List<T> result = new ArrayList<>();
+            while (resultSet.next()) {
+                result.add(rowMapper.mapRow(resultSet));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Потоковое выполнение запроса: строки читаются курсором порциями по fetchSize и передаются обработчику.
+     * Запрос выполняется в транзакции, так как драйвер PostgreSQL использует курсор только при выключенном autocommit,
+     * иначе весь результат загружается в память.
+     *
+     * @param sql запрос
+     * @param setter установка параметров
+     * @param fetchSize количество строк, получаемых из БД за одно обращение
+     * @param handler обработчик строки
+     * @return количество обработанных строк
+     * @throws SQLException ошибка работы с БД
+     */
+    public long queryForEach(String sql, StatementSetter setter, int fetchSize, RowCallbackHandler handler)
+            throws SQLException {
+        return inTransaction(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(fetchSize);
+                setter.setValues(statement);
+                long rows = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        handler.processRow(resultSet);
+                        rows++;
+                    }
+                }
+                return rows;
+            }
+        });
+    }
+
+    /**
+     * Выполнение запроса, возвращающего не более одной строки.
+     *
+     * @param sql запрос
+     * @param setter установка параметров
+     * @param rowMapper преобразование строки
+     * @return Optional с объектом, если строка найдена
+     * @throws SQLException ошибка работы с БД
+     */
+    public <T> Optional<T> queryForOptional(String sql, StatementSetter setter, RowMapper<T> rowMapper) throws SQLException {
+        return query(sql, setter, resultSet -> resultSet.next()
+                ? Optional.of(rowMapper.mapRow(resultSet))
+                : Optional.empty());
+    }
+
+    /**
+     * Выполнение запроса на изменение данных.
+     *
+     * @param sql запрос
+     * @param setter установка параметров
+     * @return количество измененных строк
+     * @throws SQLException ошибка работы с БД
+     */
+    public int update(String sql, StatementSetter setter) throws SQLException {
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                setter.setValues(statement);
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Пакетное выполнение запроса для набора элементов.
+     *
+     * @param sql запрос
+     * @param items элементы пакета
+     * @param setter установка параметров для элемента
+     * @return количество измененных строк для каждого элемента
+     * @throws SQLException ошибка работы с БД
+     */
+    public <T> int[] batchUpdate(String sql, Collection<T> items, BatchStatementSetter<T> setter) throws SQLException {
+        if (items.isEmpty()) {
+            return new int[0];
+        }
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (T item : items) {
+                    setter.setValues(statement, item);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Название СУБД, определяется один раз по метаданным соединения.
+     *
+     * @return название СУБД
+     * @throws SQLException ошибка работы с БД
+     */
+    public String getDatabaseProductName() throws SQLException {
+        if (databaseProductName == null) {
+            databaseProductName = execute(connection -> connection.getMetaData().getDatabaseProductName());
+        }
+        return databaseProductName;
+    }
+
+    /**
+     * Проверка, что приложение работает с PostgreSQL.
+     * Используется репозиториями для выбора запросов, специфичных для PostgreSQL.
+     *
+     * @return true, если СУБД - PostgreSQL
+     * @throws SQLException ошибка работы с БД
+     */
+    public boolean isPostgreSql() throws SQLException {
+        return "PostgreSQL".equalsIgnoreCase(getDatabaseProductName());
+    }
+
+    /**
+     * Проверка, что ошибка вызвана нарушением уникального ограничения.
+     * Остальные ошибки целостности (внешний ключ, NOT NULL, CHECK) сюда не относятся.
+     *
+     * @param e ошибка
+     * @return true, если SQLState равен 23505
+     */
+    public static boolean isUniqueViolation(SQLException e) {
+        return UNIQUE_VIOLATION.equals(e.getSQLState());
+    }
+
+    /**
+     * Снимок счетчиков использования соединений.
+     *
+     * @return метрики пула соединений со стороны приложения
+     */
+    public JdbcExecutorMetrics getMetrics() {
+        long borrows = borrowCount.sum();
+        return new JdbcExecutorMetrics(
+                borrows,
+                borrows == 0 ? 0 : acquireNanos.sum() / borrows / 1_000,
+                maxAcquireNanos.get() / 1_000,
+                borrows == 0 ? 0 : holdNanos.sum() / borrows / 1_000,
+                inFlight.get(),
+                peakInFlight.get()
+        );
+    }
+
+    private void recordBorrow(long acquireTime) {
+        borrowCount.increment();
+        acquireNanos.add(acquireTime);
+        maxAcquireNanos.accumulateAndGet(acquireTime, Math::max);
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    }
+
+    private void release(Connection connection, long acquiredTime) throws SQLException {
+        try {
+            connection.close();
+        } finally {
+            inFlight.decrementAndGet();
+            holdNanos.add(System.nanoTime() - acquiredTime);
+        }
+    }
+}
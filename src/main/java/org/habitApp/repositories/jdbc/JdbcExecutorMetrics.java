@@ -0,0 +1,20 @@
+package org.habitApp.repositories.jdbc;
+
+import lombok.*;
+
+/**
+ * Снимок счетчиков JdbcExecutor.
+ * Время указано в микросекундах.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class JdbcExecutorMetrics {
+    private long borrowCount;
+    private long averageAcquireMicros;
+    private long maxAcquireMicros;
+    private long averageHoldMicros;
+    private int inFlight;
+    private int peakInFlight;
+}
@@ -0,0 +1,14 @@
+package org.habitApp.repositories.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Обработка всего результата запроса целиком.
+ *
+ * @param <T> тип результата
+ */
+@FunctionalInterface
+public interface ResultSetExtractor<T> {
+    T extract(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,19 @@
+package org.habitApp.repositories.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Обработка строки результата без накопления строк в памяти.
+ */
+@FunctionalInterface
+public interface RowCallbackHandler {
+
+    /**
+     * Обработка текущей строки результата.
+     *
+     * @param resultSet результат запроса, установленный на текущую строку
+     * @throws SQLException ошибка чтения строки
+     */
+    void processRow(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,14 @@
+package org.habitApp.repositories.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Преобразование текущей строки результата запроса в объект.
+ *
+ * @param <T> тип объекта
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,14 @@
+package org.habitApp.repositories.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Установка параметров подготовленного запроса.
+ */
+@FunctionalInterface
+public interface StatementSetter {
+    StatementSetter NONE = statement -> { };
+
+    void setValues(PreparedStatement statement) throws SQLException;
+}
@@ -1,5 +1,6 @@
 package org.habitApp.services;
 
+import org.habitApp.domain.dto.userDto.TokenPairDto;
 import org.habitApp.domain.dto.userDto.UserDtoLogin;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.exceptions.InvalidCredentialsException;
@@ -26,9 +27,28 @@ public interface AuthService {
      * Вход пользователя в систему.
      *
      * @param userDtoLogin Данные для входа (email и пароль)
-     * @return Токен JWT при успешной аутентификации
+     * @return Токен доступа и токен обновления при успешной аутентификации
      * @throws SQLException В случае ошибок при работе с базой данных
      * @throws InvalidCredentialsException Если указаны неверные учетные данные
      */
-    String loginUser(UserDtoLogin userDtoLogin) throws SQLException, InvalidCredentialsException;
+    TokenPairDto loginUser(UserDtoLogin userDtoLogin) throws SQLException, InvalidCredentialsException;
+
+    /**
+     * Выпуск новой пары токенов по токену обновления. Использованный токен обновления отзывается.
+     *
+     * @param refreshToken Токен обновления
+     * @return Новые токен доступа и токен обновления
+     * @throws SQLException В случае ошибок при работе с базой данных
+     * @throws InvalidCredentialsException Если токен недействителен, отозван или пользователь не найден
+     */
+    TokenPairDto refresh(String refreshToken) throws SQLException, InvalidCredentialsException;
+
+    /**
+     * Выход: отзыв токена доступа и токена обновления до истечения их срока действия.
+     * Недействительные и отсутствующие токены пропускаются.
+     *
+     * @param accessToken Токен доступа
+     * @param refreshToken Токен обновления
+     */
+    void logout(String accessToken, String refreshToken);
 }
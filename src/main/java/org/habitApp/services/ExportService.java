@@ -0,0 +1,27 @@
+package org.habitApp.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+/**
+ * Интерфейс полной выгрузки данных для администратора в формате NDJSON (один JSON-объект на строку).
+ */
+public interface ExportService {
+
+    /**
+     * Выгрузка всех привычек в поток
+     * @param out поток для записи
+     * @return количество выгруженных привычек
+     * @throws SQLException, IOException
+     */
+    long exportHabits(OutputStream out) throws SQLException, IOException;
+
+    /**
+     * Выгрузка всех пользователей в поток (без хешей паролей)
+     * @param out поток для записи
+     * @return количество выгруженных пользователей
+     * @throws SQLException, IOException
+     */
+    long exportUsers(OutputStream out) throws SQLException, IOException;
+}
@@ -0,0 +1,53 @@
+package org.habitApp.services;
+
+import org.habitApp.domain.dto.habitDto.HabitCompletionCopyResultDto;
+import org.habitApp.models.CopyFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Интерфейс для массового переноса истории выполнения привычек (миграции, выгрузки в хранилище).
+ * Каждая операция возвращает число строк и скорость в строках в секунду.
+ */
+public interface HabitCompletionHistoryTransferService {
+
+    /**
+     * Выгрузка истории выполнения в поток
+     * @param format формат COPY
+     * @param out поток для записи
+     * @return результат выгрузки
+     * @throws SQLException, IOException
+     */
+    HabitCompletionCopyResultDto exportTo(CopyFormat format, OutputStream out) throws SQLException, IOException;
+
+    /**
+     * Выгрузка истории выполнения в файл
+     * @param format формат COPY
+     * @param file файл, существующий файл перезаписывается
+     * @return результат выгрузки
+     * @throws SQLException, IOException
+     */
+    HabitCompletionCopyResultDto exportToFile(CopyFormat format, Path file) throws SQLException, IOException;
+
+    /**
+     * Загрузка истории выполнения из потока
+     * @param format формат COPY
+     * @param in поток для чтения
+     * @return результат загрузки
+     * @throws SQLException, IOException
+     */
+    HabitCompletionCopyResultDto importFrom(CopyFormat format, InputStream in) throws SQLException, IOException;
+
+    /**
+     * Загрузка истории выполнения из файла
+     * @param format формат COPY
+     * @param file файл
+     * @return результат загрузки
+     * @throws SQLException, IOException
+     */
+    HabitCompletionCopyResultDto importFromFile(CopyFormat format, Path file) throws SQLException, IOException;
+}
@@ -1,5 +1,6 @@
 package org.habitApp.services;
 
+import org.habitApp.domain.dto.KeysetPageDto;
 import org.habitApp.domain.dto.habitDto.HabitReportDto;
 import org.habitApp.domain.entities.HabitEntity;
 import org.habitApp.domain.entities.UserEntity;
@@ -8,6 +9,7 @@ import org.habitApp.exceptions.UnauthorizedAccessException;
 import org.habitApp.models.Period;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface HabitService {
@@ -59,11 +61,13 @@ public interface HabitService {
     List<HabitEntity> getAllHabits(UserEntity currentUser) throws SQLException, UnauthorizedAccessException;
 
     /**
-     * Получение списка всех привычек для всех пользователей (только для админа)
-     * @return список всех привычек
+     * Получение страницы привычек всех пользователей, упорядоченных по id (только для админа)
+     * @param after id последней привычки предыдущей страницы, null для первой страницы
+     * @param limit размер страницы
+     * @return страница привычек и курсор следующей страницы
      * @throws SQLException, UnauthorizedAccessException
      */
-    List<HabitEntity> getAllHabitsAdmin() throws SQLException, UnauthorizedAccessException;
+    KeysetPageDto<HabitEntity> getAllHabitsAdmin(Long after, int limit) throws SQLException, UnauthorizedAccessException;
 
     /**
      * Отметить привычку как выполненную
@@ -72,6 +76,17 @@ public interface HabitService {
      */
     void markHabitAsCompleted(long habitId) throws SQLException, UnauthorizedAccessException;
 
+    /**
+     * Отметить привычку как выполненную за несколько дней одной транзакцией
+     * @param habitId id привычки
+     * @param completionDates даты выполнения
+     * @param currentUser текущий пользователь
+     * @return количество добавленных отметок (уже отмеченные дни пропускаются)
+     * @throws SQLException, HabitNotFoundException, UnauthorizedAccessException
+     */
+    int markHabitAsCompletedOnDates(long habitId, List<LocalDate> completionDates, UserEntity currentUser)
+            throws SQLException, HabitNotFoundException, UnauthorizedAccessException;
+
     /**
      * Генерация статистики выполнения привычки за указанный период
      * @param habit привычка
@@ -106,4 +121,13 @@ public interface HabitService {
      * @throws SQLException
      */
     HabitReportDto generateProgressReport(HabitEntity habit, Period period) throws SQLException;
+
+    /**
+     * Формирование отчетов по прогрессу всех привычек пользователя
+     * @param currentUser текущий пользователь
+     * @param period период ("day", "week", "month")
+     * @return отчеты о прогрессе по каждой привычке пользователя
+     * @throws SQLException
+     */
+    List<HabitReportDto> generateProgressReports(UserEntity currentUser, Period period) throws SQLException;
 }
@@ -0,0 +1,18 @@
+package org.habitApp.services;
+
+import org.habitApp.domain.dto.habitDto.HabitStreakRepairResultDto;
+
+import java.sql.SQLException;
+
+/**
+ * Интерфейс сверки серий выполнения, хранящихся в habits, с историей выполнения.
+ */
+public interface HabitStreakRepairService {
+
+    /**
+     * Пересчет серий всех привычек по истории и исправление расхождений
+     * @return количество проверенных и исправленных привычек
+     * @throws SQLException ошибка работы с БД
+     */
+    HabitStreakRepairResultDto repairStreaks() throws SQLException;
+}
@@ -0,0 +1,25 @@
+package org.habitApp.services;
+
+import org.habitApp.domain.dto.habitDto.HabitStreakSweepResultDto;
+
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Интерфейс сброса прерванных серий выполнения при смене дня.
+ */
+public interface HabitStreakSweepService {
+
+    /**
+     * Сброс текущих серий привычек, не отмеченных вчера и сегодня
+     * @return количество сброшенных серий и время выполнения
+     * @throws SQLException ошибка работы с БД
+     */
+    HabitStreakSweepResultDto resetBrokenStreaks() throws SQLException;
+
+    /**
+     * Результат последнего сброса
+     * @return Optional с результатом, если сброс уже выполнялся
+     */
+    Optional<HabitStreakSweepResultDto> getLastResult();
+}
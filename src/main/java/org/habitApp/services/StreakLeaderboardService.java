@@ -0,0 +1,25 @@
+package org.habitApp.services;
+
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardDto;
+
+import java.sql.SQLException;
+
+/**
+ * Интерфейс таблицы лидеров по сериям выполнения привычек.
+ */
+public interface StreakLeaderboardService {
+
+    /**
+     * Таблица лидеров из последнего расчета. Если расчета еще не было, он выполняется сразу.
+     * @return таблица лидеров
+     * @throws SQLException ошибка работы с БД
+     */
+    StreakLeaderboardDto getLeaderboard() throws SQLException;
+
+    /**
+     * Расчет таблицы лидеров заново и замена сохраненного результата
+     * @return новая таблица лидеров
+     * @throws SQLException ошибка работы с БД
+     */
+    StreakLeaderboardDto refreshLeaderboard() throws SQLException;
+}
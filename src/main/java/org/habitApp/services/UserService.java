@@ -1,5 +1,6 @@
 package org.habitApp.services;
 
+import org.habitApp.domain.dto.KeysetPageDto;
 import org.habitApp.domain.dto.userDto.UserDto;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
@@ -46,12 +47,14 @@ public interface UserService {
     UserDto getUser(String email) throws SQLException;
 
     /**
-     * Получение списка всех пользователей (доступно только администраторам).
+     * Получение страницы пользователей, упорядоченных по ID (доступно только администраторам).
      *
-     * @return Список пользователей
+     * @param after ID последнего пользователя предыдущей страницы, null для первой страницы
+     * @param limit Размер страницы
+     * @return Страница пользователей и курсор следующей страницы
      * @throws SQLException В случае ошибок при работе с базой данных
      */
-    List<UserDto> getAllUsers() throws SQLException;
+    KeysetPageDto<UserDto> getAllUsers(Long after, int limit) throws SQLException;
 
     /**
      * Обновление профиля пользователя по ID (доступно только администраторам).
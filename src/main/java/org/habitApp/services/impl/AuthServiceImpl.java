@@ -2,14 +2,21 @@ package org.habitApp.services.impl;
 
 import lombok.RequiredArgsConstructor;
 import org.habitApp.auth.JwtUtil;
+import org.habitApp.auth.PasswordHasher;
+import org.habitApp.auth.TokenClaims;
+import org.habitApp.auth.TokenRevocationList;
+import org.habitApp.cache.EmailExistenceFilter;
+import org.habitApp.domain.dto.userDto.TokenPairDto;
 import org.habitApp.domain.dto.userDto.UserDtoLogin;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.InvalidCredentialsException;
 import org.habitApp.exceptions.UserAlreadyExistsException;
 import org.habitApp.mappers.UserMapper;
+import org.habitApp.models.Role;
 import org.habitApp.repositories.UserRepository;
 import org.habitApp.repositories.impl.UserRepositoryImpl;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
 import org.habitApp.services.AuthService;
 import org.springframework.stereotype.Service;
 
@@ -27,9 +34,21 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
+    private final PasswordHasher passwordHasher;
+    private final TokenRevocationList tokenRevocationList;
+    private final EmailExistenceFilter emailExistenceFilter;
+
+    /**
+     * Хеш BCrypt случайного пароля со стоимостью кодировщика по умолчанию (10).
+     * Проверяется при входе с неизвестным email, чтобы время ответа не выдавало, есть ли такой пользователь.
+     */
+    private static final String DUMMY_PASSWORD_HASH = "$2a$10$REYT0l2i1Rdtqlm62UHYt.iM5ljZ3XspYvBetjKpewjewOr2y8SCG";
 
     /**
      * Регистрация нового пользователя.
+     * Пароль сохраняется в виде хеша BCrypt, новый пользователь получает роль ROLE_USER.
+     * Поиск по email пропускается, если фильтр email показывает, что такого адреса точно нет;
+     * уникальность в любом случае обеспечивает ограничение users.email.
      *
      * @param userDtoRegisterUpdate Данные для регистрации пользователя
      * @throws UserAlreadyExistsException Если пользователь с таким email уже существует
@@ -37,28 +56,102 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public void registerUser(UserDtoRegisterUpdate userDtoRegisterUpdate) throws UserAlreadyExistsException, SQLException {
-        if (userRepository.findByEmail(userDtoRegisterUpdate.getEmail()).isPresent()) {
+        String email = userDtoRegisterUpdate.getEmail();
+        if (emailExistenceFilter.mightExist(email) && userRepository.findByEmail(email).isPresent()) {
             throw new UserAlreadyExistsException("User already exists.");
         }
         UserEntity user = userMapper.userDtoRegisterUpdateToUser(userDtoRegisterUpdate);
+        user.setPassword(passwordHasher.encode(userDtoRegisterUpdate.getPassword()));
+        if (user.getRole() == null) {
+            user.setRole(Role.ROLE_USER);
+        }
 
-        userRepository.create(user);
+        try {
+            userRepository.create(user);
+        } catch (SQLException e) {
+            // Email занят в обход фильтра (другой экземпляр приложения или параллельная регистрация)
+            if (JdbcExecutor.isUniqueViolation(e)) {
+                emailExistenceFilter.add(email);
+                throw new UserAlreadyExistsException("User already exists.");
+            }
+            throw e;
+        }
+        emailExistenceFilter.add(email);
     }
 
     /**
      * Вход пользователя в систему.
+     * Пароль, сохраненный до перехода на хеширование, после успешного входа заменяется хешем.
+     * Для неизвестного email пароль сверяется с заранее вычисленным хешем, поэтому такой вход
+     * занимает столько же времени, сколько вход с неверным паролем.
      *
      * @param userDtoLogin Данные для входа (email и пароль)
-     * @return Данные пользователя после успешного входа
+     * @return Токен доступа и токен обновления
      * @throws SQLException В случае ошибок при работе с базой данных
      * @throws InvalidCredentialsException Если указаны неверные учетные данные
      */
     @Override
-    public String loginUser(UserDtoLogin userDtoLogin) throws SQLException, InvalidCredentialsException {
+    public TokenPairDto loginUser(UserDtoLogin userDtoLogin) throws SQLException, InvalidCredentialsException {
         Optional<UserEntity> user = userRepository.findByEmail(userDtoLogin.getEmail());
-        if (user.isPresent() && user.get().getPassword().equals(userDtoLogin.getPassword())) {
-            return jwtUtil.generate(user.get().getEmail());
+        if (user.isEmpty()) {
+            passwordHasher.matches(userDtoLogin.getPassword(), DUMMY_PASSWORD_HASH);
+            throw new InvalidCredentialsException("Invalid email or password.");
+        }
+        if (passwordHasher.matches(userDtoLogin.getPassword(), user.get().getPassword())) {
+            if (passwordHasher.isLegacy(user.get().getPassword())) {
+                user.get().setPassword(passwordHasher.encode(userDtoLogin.getPassword()));
+                userRepository.update(user.get());
+            }
+            return issueTokens(user.get());
         }
         throw new InvalidCredentialsException("Invalid email or password.");
     }
+
+    /**
+     * Выпуск новой пары токенов по токену обновления.
+     * Пользователь читается из БД, поэтому новый токен доступа отражает текущие имя и роль.
+     * Токен принимается один раз: из параллельных запросов с одним токеном пару получает только тот,
+     * чей вызов отозвал токен. Токен, выпущенный до изменения или удаления пользователя, не принимается.
+     *
+     * @param refreshToken Токен обновления
+     * @return Новые токен доступа и токен обновления
+     * @throws SQLException В случае ошибок при работе с базой данных
+     * @throws InvalidCredentialsException Если токен недействителен, отозван или пользователь не найден
+     */
+    @Override
+    public TokenPairDto refresh(String refreshToken) throws SQLException, InvalidCredentialsException {
+        TokenClaims claims = refreshToken == null ? null : jwtUtil.verify(refreshToken);
+        if (claims == null || !claims.isRefresh() || tokenRevocationList.isRevoked(claims.getTokenId())) {
+            throw new InvalidCredentialsException("Invalid refresh token.");
+        }
+        UserEntity user = userRepository.findByEmail(claims.getEmail())
+                .orElseThrow(() -> new InvalidCredentialsException("Invalid refresh token."));
+        // Email из токена мог перейти к другому пользователю после смены адреса
+        if ((claims.getUserId() != null && claims.getUserId() != user.getId())
+                || tokenRevocationList.isRevokedForUser(user.getId(), claims.getIssuedAt())
+                || !tokenRevocationList.revoke(claims.getTokenId(), claims.getExpiresAt())) {
+            throw new InvalidCredentialsException("Invalid refresh token.");
+        }
+        return issueTokens(user);
+    }
+
+    /**
+     * Выход: отзыв токена доступа и токена обновления до истечения их срока действия.
+     *
+     * @param accessToken Токен доступа
+     * @param refreshToken Токен обновления
+     */
+    @Override
+    public void logout(String accessToken, String refreshToken) {
+        for (String token : new String[]{accessToken, refreshToken}) {
+            TokenClaims claims = token == null ? null : jwtUtil.verify(token);
+            if (claims != null) {
+                tokenRevocationList.revoke(claims.getTokenId(), claims.getExpiresAt());
+            }
+        }
+    }
+
+    private TokenPairDto issueTokens(UserEntity user) {
+        return new TokenPairDto(jwtUtil.generate(user), jwtUtil.generateRefresh(user));
+    }
 }
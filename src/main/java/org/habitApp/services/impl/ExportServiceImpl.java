@@ -0,0 +1,134 @@
+package org.habitApp.services.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.habitApp.domain.dto.userDto.UserDto;
+import org.habitApp.mappers.HabitMapper;
+import org.habitApp.mappers.UserMapper;
+import org.habitApp.repositories.HabitRepository;
+import org.habitApp.repositories.UserRepository;
+import org.habitApp.services.ExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+
+/**
+ * Сервис полной выгрузки привычек и пользователей в NDJSON.
+ * Строки читаются из БД курсором и сразу пишутся в поток, поэтому расход памяти не зависит от размера таблиц.
+ */
+@Service
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private final HabitRepository habitRepository;
+    private final UserRepository userRepository;
+    private final HabitMapper habitMapper;
+    private final UserMapper userMapper;
+    private final ObjectWriter objectWriter;
+    private final int fetchSize;
+
+    public ExportServiceImpl(HabitRepository habitRepository, UserRepository userRepository,
+                             HabitMapper habitMapper, UserMapper userMapper, ObjectMapper objectMapper,
+                             @Value("${export.fetch-size}") int fetchSize) {
+        this.habitRepository = habitRepository;
+        this.userRepository = userRepository;
+        this.habitMapper = habitMapper;
+        this.userMapper = userMapper;
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Выгрузка всех привычек в поток
+     *
+     * @param out поток для записи
+     * @return количество выгруженных привычек
+     */
+    @Override
+    public long exportHabits(OutputStream out) throws SQLException, IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            long rows = unwrapIo(() -> habitRepository.forEachHabit(fetchSize,
+                    habit -> writeLine(generator, habitMapper.habitToHabitDtoResponse(habit))));
+            log.info("Выгружено привычек: {}.", rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Выгрузка всех пользователей в поток.
+     * Хеш пароля в выгрузку не попадает.
+     *
+     * @param out поток для записи
+     * @return количество выгруженных пользователей
+     */
+    @Override
+    public long exportUsers(OutputStream out) throws SQLException, IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            long rows = unwrapIo(() -> userRepository.forEachUser(fetchSize, user -> {
+                UserDto userDto = userMapper.userToUserDto(user);
+                userDto.setPassword(null);
+                writeLine(generator, userDto);
+            }));
+            log.info("Выгружено пользователей: {}.", rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Генератор JSON поверх потока, который не закрывает сам поток.
+     * Разделитель корневых значений (по умолчанию пробел) отключен: строки разделяются только переводом строки.
+     *
+     * @param out поток для записи
+     * @return генератор
+     */
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectWriter.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    /**
+     * Запись объекта отдельной строкой NDJSON
+     *
+     * @param generator генератор
+     * @param value     объект
+     */
+    private void writeLine(JsonGenerator generator, Object value) {
+        try {
+            objectWriter.writeValue(generator, value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Выполнение обхода с пробросом ошибки записи, возникшей внутри обработчика строк
+     *
+     * @param export обход
+     * @return количество строк
+     */
+    private long unwrapIo(Export export) throws SQLException, IOException {
+        try {
+            return export.run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Обход таблицы
+     */
+    @FunctionalInterface
+    private interface Export {
+        long run() throws SQLException;
+    }
+}
@@ -0,0 +1,115 @@
+package org.habitApp.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.habitApp.cache.HabitCompletionIndex;
+import org.habitApp.cache.HabitReportCache;
+import org.habitApp.domain.dto.habitDto.HabitCompletionCopyResultDto;
+import org.habitApp.models.CopyFormat;
+import org.habitApp.repositories.HabitCompletionHistoryCopyRepository;
+import org.habitApp.services.HabitCompletionHistoryTransferService;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Сервис массового переноса истории выполнения привычек через COPY.
+ * Файлы читаются и пишутся через буфер, строки в память приложения не загружаются.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HabitCompletionHistoryTransferServiceImpl implements HabitCompletionHistoryTransferService {
+
+    private static final int FILE_BUFFER_SIZE = 1 << 16;
+
+    private final HabitCompletionHistoryCopyRepository habitCompletionHistoryCopyRepository;
+    private final HabitCompletionIndex habitCompletionIndex;
+    private final HabitReportCache habitReportCache;
+
+    /**
+     * Выгрузка истории выполнения в поток
+     *
+     * @param format формат COPY
+     * @param out    поток для записи
+     * @return результат выгрузки
+     */
+    @Override
+    public HabitCompletionCopyResultDto exportTo(CopyFormat format, OutputStream out) throws SQLException, IOException {
+        long startTime = System.nanoTime();
+        long rowsCopied = habitCompletionHistoryCopyRepository.copyOut(format, out);
+
+        HabitCompletionCopyResultDto result = new HabitCompletionCopyResultDto();
+        result.setFormat(format);
+        result.setRowsCopied(rowsCopied);
+        withThroughput(result, System.nanoTime() - startTime);
+        log.info("Выгружено строк истории выполнения: {} ({}) за {} мс, {} строк/с.",
+                result.getRowsCopied(), format.getFormatName(), result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Выгрузка истории выполнения в файл
+     *
+     * @param format формат COPY
+     * @param file   файл
+     * @return результат выгрузки
+     */
+    @Override
+    public HabitCompletionCopyResultDto exportToFile(CopyFormat format, Path file) throws SQLException, IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), FILE_BUFFER_SIZE)) {
+            return exportTo(format, out);
+        }
+    }
+
+    /**
+     * Загрузка истории выполнения из потока
+     *
+     * @param format формат COPY
+     * @param in     поток для чтения
+     * @return результат загрузки
+     */
+    @Override
+    public HabitCompletionCopyResultDto importFrom(CopyFormat format, InputStream in) throws SQLException, IOException {
+        long startTime = System.nanoTime();
+        HabitCompletionCopyResultDto result = habitCompletionHistoryCopyRepository.copyIn(format, in);
+        if (result.getRowsInserted() > 0) {
+            // История изменена в обход сервиса привычек, карты выполнения и отчеты построятся заново
+            habitCompletionIndex.clear();
+            habitReportCache.clear();
+        }
+        withThroughput(result, System.nanoTime() - startTime);
+        log.info("Загружено строк истории выполнения: {} ({}), добавлено: {}, за {} мс, {} строк/с.",
+                result.getRowsCopied(), format.getFormatName(), result.getRowsInserted(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    /**
+     * Загрузка истории выполнения из файла
+     *
+     * @param format формат COPY
+     * @param file   файл
+     * @return результат загрузки
+     */
+    @Override
+    public HabitCompletionCopyResultDto importFromFile(CopyFormat format, Path file) throws SQLException, IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), FILE_BUFFER_SIZE)) {
+            return importFrom(format, in);
+        }
+    }
+
+    /**
+     * Заполнение времени операции и скорости в строках в секунду
+     *
+     * @param result       результат операции
+     * @param elapsedNanos время операции в наносекундах
+     */
+    private void withThroughput(HabitCompletionCopyResultDto result, long elapsedNanos) {
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setRowsPerSecond(elapsedNanos == 0 ? 0 : result.getRowsCopied() * 1_000_000_000L / elapsedNanos);
+    }
+}
@@ -2,8 +2,13 @@ package org.habitApp.services.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.habitApp.cache.HabitCompletionIndex;
+import org.habitApp.cache.HabitListCache;
+import org.habitApp.cache.HabitReportCache;
+import org.habitApp.domain.dto.KeysetPageDto;
 import org.habitApp.domain.dto.habitDto.HabitReportDto;
 import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.domain.entities.HabitStreakEntity;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.HabitNotFoundException;
 import org.habitApp.exceptions.UnauthorizedAccessException;
@@ -13,6 +18,8 @@ import org.habitApp.repositories.HabitCompletionHistoryRepository;
 import org.habitApp.repositories.HabitRepository;
 import org.habitApp.repositories.impl.HabitRepositoryImpl;
 import org.habitApp.services.HabitService;
+import org.habitApp.utils.CompletionBitmap;
+import org.habitApp.utils.KeysetPagination;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -20,9 +27,12 @@ import org.springframework.stereotype.Service;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
  * Сервис для управления привычками (CRUD)
@@ -34,6 +44,9 @@ import java.util.Optional;
 public class HabitServiceImpl implements HabitService {
     private final HabitRepository habitRepository;
     private final HabitCompletionHistoryRepository habitComletionHistoryRepository;
+    private final HabitCompletionIndex habitCompletionIndex;
+    private final HabitReportCache habitReportCache;
+    private final HabitListCache habitListCache;
 
     /**
      * Получение привычки по id
@@ -44,16 +57,12 @@ public class HabitServiceImpl implements HabitService {
     @Override
     public HabitEntity getHabitById(long habitId, UserEntity currentUser) throws SQLException, HabitNotFoundException,
             UnauthorizedAccessException {
-        Optional<HabitEntity> habit = habitRepository.findById(habitId);
-        if (habit.isPresent()) {// Проверка принадлежности привычки текущему пользователю
-            if (habit.get().getUserId() != (currentUser.getId())) {
-                throw new UnauthorizedAccessException("Привычка не принадлежит текущему пользователю.");
-            }
-            return habit.orElse(null);
-        } else {
-            throw new HabitNotFoundException("Привычка с ID " + habitId + " не найдена.");
+        // Принадлежность привычки текущему пользователю проверяется в условии запроса
+        Optional<HabitEntity> habit = habitRepository.findByIdAndUserId(habitId, currentUser.getId());
+        if (habit.isEmpty()) {
+            throw ownershipFailure(habitId);
         }
-
+        return habit.get();
     }
 
     /**
@@ -69,6 +78,7 @@ public class HabitServiceImpl implements HabitService {
             throws SQLException, UnauthorizedAccessException {
         HabitEntity habit = new HabitEntity(name, description, frequency.getPeriodName(), LocalDate.now(), currentUser.getId());
         habitRepository.create(habit);
+        habitListCache.invalidate(currentUser.getId());
         log.info("Привычка \" {} \" создана для пользователя: {}.", name, currentUser.getEmail());
     }
 
@@ -84,22 +94,18 @@ public class HabitServiceImpl implements HabitService {
     @Override
     public void updateHabit(long habitId, String newName, String newDescription, Period newFrequency, UserEntity currentUser)
             throws SQLException, UnauthorizedAccessException {
-        Optional<HabitEntity> habit = habitRepository.findById(habitId);
-        if (habit.isPresent()) {
-            if (habit.get().getUserId() != (currentUser.getId())) {
-                throw new UnauthorizedAccessException("Привычка не принадлежит текущему пользователю.");
-            }
-
-            habit.get().setId(habitId);
-            habit.get().setName(newName);
-            habit.get().setDescription(newDescription);
-            habit.get().setFrequency(newFrequency.toString());
-
-            habitRepository.update(habit.get());
-            log.info("Привычка обновлена: {}", habit.get().getName());
-        } else {
-            throw new HabitNotFoundException("Habit not found.");
+        HabitEntity habit = new HabitEntity();
+        habit.setId(habitId);
+        habit.setName(newName);
+        habit.setDescription(newDescription);
+        habit.setFrequency(newFrequency.toString());
+
+        if (!habitRepository.updateByIdAndUserId(habit, currentUser.getId())) {
+            throw ownershipFailure(habitId);
         }
+        habitReportCache.invalidate(habitId);
+        habitListCache.invalidate(currentUser.getId());
+        log.info("Привычка обновлена: {}", habit.getName());
     }
 
     /**
@@ -110,43 +116,38 @@ public class HabitServiceImpl implements HabitService {
      */
     @Override
     public void deleteHabit(long habitId, UserEntity currentUser) throws SQLException, UnauthorizedAccessException {
-        Optional<HabitEntity> habit = habitRepository.findById(habitId);
-        if (habit.isPresent()) {
-            long userId = habit.get().getUserId();
-            if (userId == currentUser.getId()) {
-                habitRepository.deleteById(habitId);
-                log.info("Привычка \"{} \" была удалена.",
-                        habit.get().getName());
-            } else {
-                throw new UnauthorizedAccessException("Habit does not belong to the current user.");
-            }
-        } else {
-            throw new HabitNotFoundException("Habit not found.");
+        if (!habitRepository.deleteByIdAndUserId(habitId, currentUser.getId())) {
+            throw ownershipFailure(habitId);
         }
-
+        habitCompletionIndex.evict(habitId);
+        habitReportCache.invalidate(habitId);
+        habitListCache.invalidate(currentUser.getId());
+        log.info("Привычка с ID {} была удалена.", habitId);
     }
 
     /**
-     * Получение всех привычек текущего пользователя
+     * Получение всех привычек текущего пользователя.
+     * Список берется из кэша по ID пользователя и удаляется из него при изменении привычек пользователя.
      *
      * @param currentUser текущий пользователь
      * @return список привычек пользователя
      */
     @Override
     public List<HabitEntity> getAllHabits(UserEntity currentUser) throws SQLException, UnauthorizedAccessException {
-
-        return habitRepository.getHabitsByUser(currentUser);
+        return habitListCache.get(currentUser.getId(), () -> habitRepository.getHabitsByUser(currentUser));
     }
 
     /**
-     * Получение списка всех привычек для всех пользователей
+     * Получение страницы привычек всех пользователей
      *
-     * @return список всех привычек
+     * @param after id последней привычки предыдущей страницы, null для первой страницы
+     * @param limit размер страницы
+     * @return страница привычек и курсор следующей страницы
      */
     @Override
-    public List<HabitEntity> getAllHabitsAdmin() throws SQLException {
+    public KeysetPageDto<HabitEntity> getAllHabitsAdmin(Long after, int limit) throws SQLException {
 
-        return habitRepository.findAll();
+        return KeysetPagination.fetchPage(habitRepository, after, limit, HabitEntity::getId, Function.identity());
     }
 
     /**
@@ -157,14 +158,49 @@ public class HabitServiceImpl implements HabitService {
     @Override
     public void markHabitAsCompleted(long habitId) throws SQLException {
 
-        List<LocalDate> completionHistory = habitComletionHistoryRepository.getCompletionHistoryForHabit(habitId);
-        Optional<HabitEntity> habit = habitRepository.findById(habitId);
+        HabitEntity habit = habitRepository.findById(habitId)
+                .orElseThrow(() -> new HabitNotFoundException("Привычка с ID " + habitId + " не найдена."));
 
-        if (completionHistory.isEmpty() || !Objects.equals(completionHistory.get(completionHistory.size() - 1), LocalDate.now())) {
-            habitComletionHistoryRepository.addCompletionDateByHabitIdUserId(habit.get().getId(), habit.get().getUserId(), LocalDate.now());
-        } else {
+        // Повторная отметка за сегодня отсекается уникальным индексом (habit_id, completion_date)
+        LocalDate today = LocalDate.now();
+        if (!habitComletionHistoryRepository.addCompletionDateByHabitIdUserId(habit.getId(), habit.getUserId(), today)) {
             throw new HabitAlreadyCompletedException("Вы сегодня уже выполняли эту привычку.");
         }
+        habitCompletionIndex.recordCompletion(habit.getId(), today);
+        habitReportCache.invalidate(habit.getId());
+    }
+
+    /**
+     * Отметить привычку как выполненную за несколько дней одной транзакцией
+     *
+     * @param habitId         привычка, которую нужно отметить
+     * @param completionDates даты выполнения, будущие даты и даты до создания привычки не допускаются
+     * @param currentUser     текущий пользователь
+     * @return количество добавленных отметок
+     */
+    @Override
+    public int markHabitAsCompletedOnDates(long habitId, List<LocalDate> completionDates, UserEntity currentUser)
+            throws SQLException, HabitNotFoundException, UnauthorizedAccessException {
+        if (completionDates == null || completionDates.isEmpty()) {
+            throw new IllegalArgumentException("Список дат выполнения пуст.");
+        }
+        LocalDate today = LocalDate.now();
+        if (completionDates.stream().anyMatch(date -> date == null || date.isAfter(today))) {
+            throw new IllegalArgumentException("Даты выполнения не могут быть пустыми или в будущем.");
+        }
+
+        HabitEntity habit = getHabitById(habitId, currentUser);
+        if (completionDates.stream().anyMatch(date -> date.isBefore(habit.getCreatedDate()))) {
+            throw new IllegalArgumentException("Даты выполнения не могут быть раньше даты создания привычки.");
+        }
+        int added = habitComletionHistoryRepository.addCompletionDatesByHabitIdUserId(
+                habit.getId(), habit.getUserId(), completionDates);
+        habitCompletionIndex.recordCompletions(habit.getId(), completionDates);
+        if (added > 0) {
+            habitReportCache.invalidate(habit.getId());
+        }
+        log.info("Для привычки \"{}\" добавлено отметок: {} из {}.", habit.getName(), added, completionDates.size());
+        return added;
     }
 
     /**
@@ -176,60 +212,23 @@ public class HabitServiceImpl implements HabitService {
      */
     @Override
     public int calculateHabitCompletedByPeriod(HabitEntity habit, Period period) throws SQLException {
-        LocalDate now = LocalDate.now();
-        LocalDate startDate = switch (period.getPeriodName().toLowerCase()) {
-            case "day" -> now.minusDays(1);
-            case "week" -> now.minusWeeks(1);
-            case "month" -> now.minusMonths(1);
-            default -> throw new IllegalArgumentException("Неверный период. Используйте 'day', 'week' или 'month'.");
-        };
-
-        // Подсчитываем количество выполнений за указанный период
-        List<LocalDate> completionsInPeriod = habitComletionHistoryRepository.getCompletionHistoryForHabit(habit.getId())
-                .stream()
-                .filter(date -> !date.isBefore(startDate) && !date.isAfter(now))
-                .toList();
-
-        return completionsInPeriod.size();
+        return generateProgressReport(habit, period).getCompletionCount();
     }
 
     /**
-     * Подсчет текущего streak выполнения привычки
+     * Подсчет текущего streak выполнения привычки.
+     * Серия читается из колонок habits, которые обновляются вместе с отметкой выполнения.
+     * Сохраненная серия считается прерванной, если последняя отметка раньше вчерашнего дня.
      *
      * @param habit привычка
      * @return текущий streak
      */
     @Override
     public int calculateCurrentStreak(HabitEntity habit) throws SQLException {
-        List<LocalDate> completions = habitComletionHistoryRepository.getCompletionHistoryForHabit(habit.getId())
-                .stream()
-                .sorted()
-                .toList();
-
-        if (completions.isEmpty()) return 0;
-
-        int streak = 1;
-        LocalDate today = LocalDate.now();
-
-        for (int i = completions.size() - 1; i > 0; i--) {
-            LocalDate currentDate = completions.get(i);
-            LocalDate previousDate = completions.get(i - 1);
-
-            long daysBetween = ChronoUnit.DAYS.between(previousDate, currentDate);
-
-            if (daysBetween == 1) {
-                streak++;
-            } else {
-                break;
-            }
-        }
-
-        // Проверяем, выполнена ли привычка сегодня или вчера для учета streak
-        if (ChronoUnit.DAYS.between(completions.get(completions.size() - 1), today) > 1) {
-            return 0; // Если больше одного дня пропущено, streak сбрасывается.
-        }
-
-        return streak;
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        return habitRepository.findStreakById(habit.getId())
+                .map(streak -> currentStreakOn(streak, yesterday))
+                .orElse(0);
     }
 
     /**
@@ -241,40 +240,117 @@ public class HabitServiceImpl implements HabitService {
      */
     @Override
     public double calculateCompletionPercentage(HabitEntity habit, Period period) throws SQLException {
+        return generateProgressReport(habit, period).getCompletionPercentage();
+    }
 
+    /**
+     * Формирование отчета по прогрессу выполнения привычек.
+     * Отчет берется из кэша по ключу (привычка, период, дата); при промахе серия, количество и процент выполнения
+     * считаются по одной битовой карте дней выполнения, история читается из БД не больше одного раза -
+     * при первой загрузке карты.
+     *
+     * @param habit  привычка
+     * @param period период ("day", "week", "month")
+     * @return отчет о прогрессе
+     */
+    @Override
+    public HabitReportDto generateProgressReport(HabitEntity habit, Period period) throws SQLException {
         LocalDate now = LocalDate.now();
-        LocalDate startDate = switch (period.getPeriodName().toLowerCase()) {
-            case "day" -> now.minusDays(1);
-            case "week" -> now.minusWeeks(1);
-            case "month" -> now.minusMonths(1);
-            default -> throw new IllegalArgumentException("Неверный период. Используйте 'day', 'week' или 'month'.");
-        };
+        LocalDate startDate = getPeriodStartDate(period, now);
 
-        long totalDays = ChronoUnit.DAYS.between(startDate, now);
+        return habitReportCache.get(habit.getId(), period, now,
+                () -> buildReport(habit.getId(), habitCompletionIndex.get(habit), period, startDate, now));
+    }
+
+    /**
+     * Формирование отчетов по прогрессу всех привычек пользователя.
+     * Отчеты строятся так же, как в {@link #generateProgressReport(HabitEntity, Period)}, и используют тот же кэш.
+     * Битовые карты, которых нет в индексе, загружаются одним запросом истории всех привычек пользователя,
+     * поэтому при холодном кэше выполняется не больше двух запросов: список привычек и их история.
+     *
+     * @param currentUser текущий пользователь
+     * @param period      период ("day", "week", "month")
+     * @return отчеты о прогрессе, упорядоченные по id привычки
+     */
+    @Override
+    public List<HabitReportDto> generateProgressReports(UserEntity currentUser, Period period) throws SQLException {
+        LocalDate now = LocalDate.now();
+        LocalDate startDate = getPeriodStartDate(period, now);
 
-        // Подсчитываем количество выполнений за указанный период
-        long completionsInPeriod = habitComletionHistoryRepository.getCompletionHistoryForHabit(habit.getId())
-                .stream()
-                .filter(date -> !date.isBefore(startDate) && !date.isAfter(now))
-                .count();
+        List<HabitEntity> habits = new ArrayList<>(getAllHabits(currentUser));
+        if (habits.isEmpty()) {
+            return List.of();
+        }
+        habits.sort(Comparator.comparingLong(HabitEntity::getId));
+        Map<Long, CompletionBitmap> completions = habitCompletionIndex.getAll(currentUser.getId(), habits);
 
-        return (double) completionsInPeriod / totalDays * 100;
+        List<HabitReportDto> reports = new ArrayList<>(habits.size());
+        for (HabitEntity habit : habits) {
+            reports.add(habitReportCache.get(habit.getId(), period, now,
+                    () -> buildReport(habit.getId(), completions.get(habit.getId()), period, startDate, now)));
+        }
+        return reports;
     }
 
     /**
-     * Формирование отчета по прогрессу выполнения привычек
+     * Ошибка для запроса к привычке, который с учетом владельца не нашел строк.
+     * Отдельный запрос выполняется только в этом случае, чтобы отличить отсутствующую привычку от чужой.
      *
-     * @param habit  привычка
-     * @param period период ("day", "week", "month")
+     * @param habitId id привычки
+     * @return HabitNotFoundException или UnauthorizedAccessException
+     */
+    private RuntimeException ownershipFailure(long habitId) throws SQLException {
+        if (habitRepository.existsById(habitId)) {
+            return new UnauthorizedAccessException("Привычка не принадлежит текущему пользователю.");
+        }
+        return new HabitNotFoundException("Привычка с ID " + habitId + " не найдена.");
+    }
+
+    /**
+     * Текущая серия по сохраненным значениям.
+     * Серия прервана, если последняя отметка раньше вчерашнего дня, даже если она еще не сброшена при смене дня.
+     *
+     * @param streak    сохраненные серии привычки
+     * @param yesterday вчерашний день
+     * @return текущая серия
+     */
+    private int currentStreakOn(HabitStreakEntity streak, LocalDate yesterday) {
+        LocalDate lastCompletedDate = streak.getLastCompletedDate();
+        return lastCompletedDate != null && !lastCompletedDate.isBefore(yesterday) ? streak.getCurrentStreak() : 0;
+    }
+
+    /**
+     * Отчет о прогрессе по битовой карте дней выполнения
+     *
+     * @param habitId     id привычки
+     * @param completions дни выполнения привычки
+     * @param period      период
+     * @param startDate   начало периода
+     * @param now         текущая дата
      * @return отчет о прогрессе
      */
-    @Override
-    public HabitReportDto generateProgressReport(HabitEntity habit, Period period) throws SQLException {
+    private HabitReportDto buildReport(long habitId, CompletionBitmap completions, Period period,
+                                       LocalDate startDate, LocalDate now) {
+        int streak = completions.currentStreak(now);
+        int completionCount = completions.count(startDate, now);
+        long totalDays = ChronoUnit.DAYS.between(startDate, now);
+        double completionPercentage = (double) completionCount / totalDays * 100;
+        return new HabitReportDto(habitId, streak, completionPercentage, completionCount, period);
+    }
 
-        int streak = calculateCurrentStreak(habit);
-        double completionPercentage = calculateCompletionPercentage(habit, period);
-        int completionCount = calculateHabitCompletedByPeriod(habit, period);
-        HabitReportDto habitReportDto = new HabitReportDto(habit.getId(), streak, completionPercentage, completionCount, period);
-        return habitReportDto;
+    /**
+     * Начальная дата отчетного периода
+     *
+     * @param period период ("day", "week", "month")
+     * @param now    текущая дата
+     * @return дата начала периода
+     */
+    private LocalDate getPeriodStartDate(Period period, LocalDate now) {
+        return switch (period.getPeriodName().toLowerCase()) {
+            case "day" -> now.minusDays(1);
+            case "week" -> now.minusWeeks(1);
+            case "month" -> now.minusMonths(1);
+            default -> throw new IllegalArgumentException("Неверный период. Используйте 'day', 'week' или 'month'.");
+        };
     }
 }
@@ -0,0 +1,76 @@
+package org.habitApp.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.habitApp.domain.dto.habitDto.HabitStreakRepairResultDto;
+import org.habitApp.domain.entities.HabitStreakEntity;
+import org.habitApp.repositories.HabitCompletionHistoryRepository;
+import org.habitApp.repositories.HabitRepository;
+import org.habitApp.services.HabitStreakRepairService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Сервис сверки серий выполнения с историей.
+ * Привычки обходятся страницами по id, для каждой серии пересчитываются по истории.
+ * Расхождение записывается, только если сохраненные значения не изменились во время пересчета,
+ * поэтому параллельная отметка выполнения не перезаписывается устаревшими данными.
+ */
+@Service
+@Slf4j
+public class HabitStreakRepairServiceImpl implements HabitStreakRepairService {
+
+    private final HabitRepository habitRepository;
+    private final HabitCompletionHistoryRepository habitCompletionHistoryRepository;
+    private final int chunkSize;
+
+    public HabitStreakRepairServiceImpl(HabitRepository habitRepository,
+                                        HabitCompletionHistoryRepository habitCompletionHistoryRepository,
+                                        @Value("${streaks.repair.chunk-size}") int chunkSize) {
+        this.habitRepository = habitRepository;
+        this.habitCompletionHistoryRepository = habitCompletionHistoryRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Пересчет серий всех привычек по истории и исправление расхождений.
+     * Запускается по расписанию и вручную администратором.
+     *
+     * @return количество проверенных и исправленных привычек
+     */
+    @Override
+    @Scheduled(cron = "${streaks.repair.cron}")
+    public HabitStreakRepairResultDto repairStreaks() throws SQLException {
+        long startTime = System.nanoTime();
+        long checked = 0;
+        long repaired = 0;
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Long after = null;
+        List<HabitStreakEntity> page;
+        do {
+            page = habitRepository.findStreakPage(after, chunkSize);
+            for (HabitStreakEntity stored : page) {
+                HabitStreakEntity actual = habitCompletionHistoryRepository.calculateStreakState(stored.getHabitId());
+                if (actual.getLastCompletedDate() != null && actual.getLastCompletedDate().isBefore(yesterday)) {
+                    // Прерванная серия хранится обнуленной, как после сброса при смене дня
+                    actual.setCurrentStreak(0);
+                }
+                if (!actual.equals(stored) && habitRepository.updateStreakIfUnchanged(stored, actual)) {
+                    log.warn("Серии привычки с ID {} исправлены: {} -> {}.", stored.getHabitId(), stored, actual);
+                    repaired++;
+                }
+                after = stored.getHabitId();
+            }
+            checked += page.size();
+        } while (page.size() == chunkSize);
+
+        long elapsedMillis = (System.nanoTime() - startTime) / 1_000_000;
+        log.info("Сверка серий завершена: проверено {}, исправлено {} за {} мс.", checked, repaired, elapsedMillis);
+        return new HabitStreakRepairResultDto(checked, repaired, elapsedMillis);
+    }
+}
@@ -0,0 +1,78 @@
+package org.habitApp.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.habitApp.domain.dto.habitDto.HabitStreakSweepResultDto;
+import org.habitApp.repositories.HabitRepository;
+import org.habitApp.services.HabitStreakSweepService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Сервис сброса прерванных серий при смене дня.
+ * Серия прервана, если последняя отметка раньше вчерашнего дня. Такие серии обнуляются
+ * несколькими UPDATE по chunkSize строк, каждый в своей короткой транзакции,
+ * поэтому чтение сохраненной серии остается одним запросом без пересчета по истории.
+ * Порции идут по возрастанию id с курсором, поэтому каждая строка читается за проход один раз,
+ * и время сброса растет линейно с числом прерванных серий.
+ */
+@Service
+@Slf4j
+public class HabitStreakSweepServiceImpl implements HabitStreakSweepService {
+
+    private final HabitRepository habitRepository;
+    private final int chunkSize;
+
+    private volatile HabitStreakSweepResultDto lastResult;
+
+    public HabitStreakSweepServiceImpl(HabitRepository habitRepository,
+                                       @Value("${streaks.sweep.chunk-size}") int chunkSize) {
+        this.habitRepository = habitRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Сброс текущих серий привычек, не отмеченных вчера и сегодня.
+     * Запускается по расписанию сразу после полуночи и вручную администратором.
+     *
+     * @return количество сброшенных серий и время выполнения
+     */
+    @Override
+    @Scheduled(cron = "${streaks.sweep.cron}")
+    public HabitStreakSweepResultDto resetBrokenStreaks() throws SQLException {
+        long startTime = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+
+        long rowsReset = 0;
+        int chunks = 0;
+        long afterId = 0;
+        Optional<Long> chunkEnd;
+        while ((chunkEnd = habitRepository.findBrokenStreaksChunkEnd(yesterday, afterId, chunkSize)).isPresent()) {
+            rowsReset += habitRepository.resetStreaksCompletedBefore(yesterday, afterId, chunkEnd.get());
+            chunks++;
+            afterId = chunkEnd.get();
+        }
+
+        HabitStreakSweepResultDto result = new HabitStreakSweepResultDto(
+                today, rowsReset, chunks, (System.nanoTime() - startTime) / 1_000_000);
+        lastResult = result;
+        log.info("Сброшено прерванных серий: {} за {} мс ({} порций).",
+                result.getRowsReset(), result.getElapsedMillis(), result.getChunks());
+        return result;
+    }
+
+    /**
+     * Результат последнего сброса
+     *
+     * @return Optional с результатом, если сброс уже выполнялся
+     */
+    @Override
+    public Optional<HabitStreakSweepResultDto> getLastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+}
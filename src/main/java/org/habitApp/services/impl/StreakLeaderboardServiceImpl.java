@@ -0,0 +1,69 @@
+package org.habitApp.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardDto;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardEntryDto;
+import org.habitApp.repositories.HabitRepository;
+import org.habitApp.services.StreakLeaderboardService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Сервис таблицы лидеров по сериям выполнения.
+ * Серии берутся из колонок habits, поэтому расчет - два запроса с GROUP BY user_id и LIMIT
+ * без чтения истории выполнения. Результат хранится до следующего запуска по расписанию.
+ */
+@Service
+@Slf4j
+public class StreakLeaderboardServiceImpl implements StreakLeaderboardService {
+
+    private final HabitRepository habitRepository;
+    private final int size;
+
+    private volatile StreakLeaderboardDto leaderboard;
+
+    public StreakLeaderboardServiceImpl(HabitRepository habitRepository,
+                                        @Value("${leaderboard.size}") int size) {
+        this.habitRepository = habitRepository;
+        this.size = size;
+    }
+
+    /**
+     * Таблица лидеров из последнего расчета
+     *
+     * @return таблица лидеров
+     */
+    @Override
+    public StreakLeaderboardDto getLeaderboard() throws SQLException {
+        StreakLeaderboardDto current = leaderboard;
+        return current != null ? current : refreshLeaderboard();
+    }
+
+    /**
+     * Расчет таблицы лидеров заново.
+     * Запускается по расписанию после сброса прерванных серий и при первом обращении.
+     *
+     * @return новая таблица лидеров
+     */
+    @Override
+    @Scheduled(cron = "${leaderboard.cron}")
+    public StreakLeaderboardDto refreshLeaderboard() throws SQLException {
+        long startTime = System.nanoTime();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+
+        List<StreakLeaderboardEntryDto> byCurrentStreak = habitRepository.findTopUsersByCurrentStreak(yesterday, size);
+        List<StreakLeaderboardEntryDto> byLongestStreak = habitRepository.findTopUsersByLongestStreak(size);
+
+        StreakLeaderboardDto result = new StreakLeaderboardDto(LocalDateTime.now(),
+                (System.nanoTime() - startTime) / 1_000_000, byCurrentStreak, byLongestStreak);
+        leaderboard = result;
+        log.info("Таблица лидеров пересчитана за {} мс.", result.getElapsedMillis());
+        return result;
+    }
+}
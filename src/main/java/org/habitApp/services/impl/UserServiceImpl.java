@@ -1,6 +1,12 @@
 package org.habitApp.services.impl;
 
 import lombok.RequiredArgsConstructor;
+import org.habitApp.auth.PasswordHasher;
+import org.habitApp.auth.TokenRevocationList;
+import org.habitApp.cache.EmailExistenceFilter;
+import org.habitApp.cache.HabitListCache;
+import org.habitApp.cache.PrincipalCache;
+import org.habitApp.domain.dto.KeysetPageDto;
 import org.habitApp.domain.dto.userDto.UserDto;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
@@ -8,7 +14,9 @@ import org.habitApp.exceptions.UserAlreadyExistsException;
 import org.habitApp.exceptions.UserNotFoundException;
 import org.habitApp.mappers.UserMapper;
 import org.habitApp.repositories.UserRepository;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
 import org.habitApp.services.UserService;
+import org.habitApp.utils.KeysetPagination;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
@@ -24,6 +32,11 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository; // Репозиторий для работы с данными пользователей
     private final UserMapper userMapper; // Маппер для преобразования между UserDto и UserEntity
+    private final HabitListCache habitListCache; // Кэш списков привычек, удаляемых вместе с пользователем
+    private final PrincipalCache principalCache; // Кэш пользователей, аутентифицированных по токену
+    private final PasswordHasher passwordHasher; // Хеширование паролей на отдельном пуле потоков
+    private final EmailExistenceFilter emailExistenceFilter; // Фильтр email существующих пользователей
+    private final TokenRevocationList tokenRevocationList; // Отзыв токенов измененных и удаленных пользователей
 
     /**
      * Обновление профиля текущего пользователя.
@@ -38,14 +51,32 @@ public class UserServiceImpl implements UserService {
     public void updateCurrentUserProfile(UserDtoRegisterUpdate userDtoRegisterUpdate, UserEntity currentUser)
             throws SQLException, UserNotFoundException, UserAlreadyExistsException {
         if (currentUser != null) {
-            if (userRepository.findByEmail(userDtoRegisterUpdate.getEmail()).isPresent()) {
+            String newEmail = userDtoRegisterUpdate.getEmail();
+            if (emailExistenceFilter.mightExist(newEmail) && userRepository.findByEmail(newEmail).isPresent()) {
                 throw new UserAlreadyExistsException("User already exists.");
             }
 
-            currentUser.setEmail(userDtoRegisterUpdate.getEmail());
-            currentUser.setUsername(userDtoRegisterUpdate.getUsername());
-            currentUser.setPassword(userDtoRegisterUpdate.getPassword());
-            userRepository.update(currentUser);
+            // Текущий пользователь не изменяется: обновление строится на новом объекте
+            UserEntity updatedUser = new UserEntity(currentUser.getId(), newEmail,
+                    passwordHasher.encode(userDtoRegisterUpdate.getPassword()),
+                    userDtoRegisterUpdate.getUsername(), currentUser.getRole());
+            boolean updated;
+            try {
+                updated = userRepository.update(updatedUser);
+            } catch (SQLException e) {
+                // Email занят в обход фильтра (другой экземпляр приложения или параллельное изменение)
+                if (JdbcExecutor.isUniqueViolation(e)) {
+                    emailExistenceFilter.add(newEmail);
+                    throw new UserAlreadyExistsException("User already exists.");
+                }
+                throw e;
+            }
+            if (!updated) {
+                throw new UserNotFoundException("User not found.");
+            }
+            emailExistenceFilter.add(newEmail);
+            principalCache.invalidate(currentUser.getEmail());
+            tokenRevocationList.revokeUserTokens(currentUser.getId());
         } else {
             throw new UserNotFoundException("User not found.");
         }
@@ -61,6 +92,9 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteCurrentUser(UserEntity currentUser) throws SQLException, UserNotFoundException {
         userRepository.deleteById(currentUser.getId());
+        habitListCache.invalidate(currentUser.getId());
+        principalCache.invalidate(currentUser.getEmail());
+        tokenRevocationList.revokeUserTokens(currentUser.getId());
     }
 
     /**
@@ -78,16 +112,17 @@ public class UserServiceImpl implements UserService {
     }
 
     /**
-     * Получение списка всех пользователей (доступно только администраторам).
+     * Получение страницы пользователей, упорядоченных по ID (доступно только администраторам).
      *
-     * @return Список пользователей
+     * @param after ID последнего пользователя предыдущей страницы, null для первой страницы
+     * @param limit Размер страницы
+     * @return Страница пользователей и курсор следующей страницы
      * @throws SQLException В случае ошибок при работе с базой данных
      */
     @Override
-    public List<UserDto> getAllUsers() throws SQLException {
+    public KeysetPageDto<UserDto> getAllUsers(Long after, int limit) throws SQLException {
 
-        List<UserEntity> users = userRepository.findAll();
-        return users.stream().map(userMapper::userToUserDto).toList();
+        return KeysetPagination.fetchPage(userRepository, after, limit, UserEntity::getId, userMapper::userToUserDto);
     }
 
     /**
@@ -106,8 +141,10 @@ public class UserServiceImpl implements UserService {
         Optional<UserEntity> user = userRepository.findById(id);
         if (user.isPresent()) {
             user.get().setUsername(userDtoRegisterUpdate.getUsername());
-            user.get().setPassword(userDtoRegisterUpdate.getPassword());
+            user.get().setPassword(passwordHasher.encode(userDtoRegisterUpdate.getPassword()));
             userRepository.update(user.get());
+            principalCache.invalidate(user.get().getEmail());
+            tokenRevocationList.revokeUserTokens(id);
             return userMapper.userToUserDto(user.orElse(null));
         } else {
             throw new UserNotFoundException("User not found.");
@@ -123,6 +160,9 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUser(long id) throws SQLException {
         userRepository.deleteById(id);
+        habitListCache.invalidate(id);
+        principalCache.invalidateUser(id);
+        tokenRevocationList.revokeUserTokens(id);
     }
 
     /**
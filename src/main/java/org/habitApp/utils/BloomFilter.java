@@ -0,0 +1,107 @@
+package org.habitApp.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Фильтр Блума для строк: быстрая проверка, что строка точно не добавлялась.
+ * Ложноотрицательных ответов нет, доля ложноположительных при expectedInsertions элементах не выше falsePositiveRate.
+ * Добавление и проверка потокобезопасны без блокировок; удаление элементов не поддерживается,
+ * вместо него фильтр строится заново.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+
+    /**
+     * Конструктор
+     * @param expectedInsertions ожидаемое число элементов
+     * @param falsePositiveRate допустимая доля ложноположительных ответов
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Некорректные параметры фильтра Блума.");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * Добавление строки
+     * @param value строка
+     */
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = fmix64(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            int wordIndex = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(wordIndex);
+            while ((word & mask) == 0 && !words.compareAndSet(wordIndex, word, word | mask)) {
+                word = words.get(wordIndex);
+            }
+        }
+    }
+
+    /**
+     * Проверка строки
+     * @param value строка
+     * @return false, если строка точно не добавлялась; true, если, вероятно, добавлялась
+     */
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = fmix64(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Размер фильтра в битах
+     * @return число битов
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * Число хеш-функций
+     * @return число битов, устанавливаемых для одного элемента
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 64-битный хеш строки: FNV-1a по символам с перемешиванием результата
+     */
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return fmix64(hash);
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3
+     */
+    private static long fmix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,165 @@
+package org.habitApp.utils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Дни выполнения одной привычки в виде битовой карты.
+ * Бит с номером i соответствует дню anchor + i, где anchor - дата создания привычки
+ * (или более ранняя дата, если история содержит отметки до создания).
+ * Подсчеты за период и текущей серии выполняются операциями над 64-битными словами.
+ * Отметки только добавляются, поэтому повторная установка бита безопасна.
+ */
+public final class CompletionBitmap {
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    private long anchorEpochDay;
+    private long[] words;
+    private volatile boolean loaded;
+
+    /**
+     * Конструктор
+     * @param anchor день, соответствующий нулевому биту
+     */
+    public CompletionBitmap(LocalDate anchor) {
+        this.anchorEpochDay = anchor.toEpochDay();
+        this.words = new long[1];
+    }
+
+    /**
+     * Отметка дня выполнения
+     * @param day день
+     */
+    public synchronized void set(LocalDate day) {
+        long offset = day.toEpochDay() - anchorEpochDay;
+        if (offset < 0) {
+            prepend(-offset);
+            offset = day.toEpochDay() - anchorEpochDay;
+        }
+        int wordIndex = (int) (offset / WORD_BITS);
+        if (wordIndex >= words.length) {
+            words = Arrays.copyOf(words, Math.max(wordIndex + 1, words.length * 2));
+        }
+        words[wordIndex] |= 1L << (offset % WORD_BITS);
+    }
+
+    /**
+     * Проверка, что привычка выполнена в указанный день
+     * @param day день
+     * @return true, если день отмечен
+     */
+    public synchronized boolean get(LocalDate day) {
+        long offset = day.toEpochDay() - anchorEpochDay;
+        if (offset < 0 || offset / WORD_BITS >= words.length) {
+            return false;
+        }
+        return (words[(int) (offset / WORD_BITS)] & (1L << (offset % WORD_BITS))) != 0;
+    }
+
+    /**
+     * Количество отмеченных дней в диапазоне
+     * @param from начальная дата (включительно)
+     * @param to конечная дата (включительно)
+     * @return количество отмеченных дней
+     */
+    public synchronized int count(LocalDate from, LocalDate to) {
+        long first = Math.max(0, from.toEpochDay() - anchorEpochDay);
+        long last = Math.min((long) words.length * WORD_BITS - 1, to.toEpochDay() - anchorEpochDay);
+        if (first > last) {
+            return 0;
+        }
+
+        int firstWord = (int) (first / WORD_BITS);
+        int lastWord = (int) (last / WORD_BITS);
+        long firstMask = -1L << (first % WORD_BITS);
+        long lastMask = -1L >>> (WORD_BITS - 1 - last % WORD_BITS);
+        if (firstWord == lastWord) {
+            return Long.bitCount(words[firstWord] & firstMask & lastMask);
+        }
+
+        int count = Long.bitCount(words[firstWord] & firstMask) + Long.bitCount(words[lastWord] & lastMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Текущая серия: длина непрерывной последовательности отмеченных дней,
+     * заканчивающейся последней отметкой не позже today. Серия прервана, если эта отметка раньше вчерашнего дня.
+     *
+     * @param today текущая дата
+     * @return длина текущей серии
+     */
+    public synchronized int currentStreak(LocalDate today) {
+        long lastSet = lastSetBitAtOrBefore(Math.min((long) words.length * WORD_BITS - 1,
+                today.toEpochDay() - anchorEpochDay));
+        if (lastSet < 0 || lastSet < today.toEpochDay() - 1 - anchorEpochDay) {
+            return 0;
+        }
+
+        // Длина серии - расстояние до ближайшего нулевого бита слева от последней отметки
+        int streak = 0;
+        int wordIndex = (int) (lastSet / WORD_BITS);
+        int bit = (int) (lastSet % WORD_BITS);
+        while (wordIndex >= 0) {
+            long gaps = ~words[wordIndex] & (-1L >>> (WORD_BITS - 1 - bit));
+            if (gaps != 0) {
+                int highestGap = WORD_BITS - 1 - Long.numberOfLeadingZeros(gaps);
+                return streak + bit - highestGap;
+            }
+            streak += bit + 1;
+            wordIndex--;
+            bit = WORD_BITS - 1;
+        }
+        return streak;
+    }
+
+    /**
+     * Признак того, что карта заполнена историей из БД
+     * @return true, если история загружена
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Отметка о загрузке истории из БД
+     */
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * Номер последнего установленного бита не правее указанного
+     * @param position номер бита
+     * @return номер бита или -1, если установленных битов нет
+     */
+    private long lastSetBitAtOrBefore(long position) {
+        if (position < 0) {
+            return -1;
+        }
+        int wordIndex = (int) (position / WORD_BITS);
+        long word = words[wordIndex] & (-1L >>> (WORD_BITS - 1 - position % WORD_BITS));
+        while (word == 0) {
+            if (--wordIndex < 0) {
+                return -1;
+            }
+            word = words[wordIndex];
+        }
+        return (long) wordIndex * WORD_BITS + WORD_BITS - 1 - Long.numberOfLeadingZeros(word);
+    }
+
+    /**
+     * Сдвиг начала карты влево на целое число слов, чтобы вместить дни раньше текущего начала
+     * @param days на сколько дней раньше текущего начала нужна отметка
+     */
+    private void prepend(long days) {
+        int extraWords = (int) ((days + WORD_BITS - 1) / WORD_BITS);
+        long[] shifted = new long[words.length + extraWords];
+        System.arraycopy(words, 0, shifted, extraWords, words.length);
+        words = shifted;
+        anchorEpochDay -= (long) extraWords * WORD_BITS;
+    }
+}
@@ -0,0 +1,47 @@
+package org.habitApp.utils;
+
+import org.habitApp.domain.dto.KeysetPageDto;
+import org.habitApp.repositories.BaseRepository;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Построение страниц keyset-пагинации поверх {@link BaseRepository#findPage(Object, int)}.
+ * Из БД запрашивается на одну запись больше лимита: по ее наличию определяется, есть ли следующая страница.
+ */
+public final class KeysetPagination {
+
+    public static final String DEFAULT_LIMIT = "100";
+    public static final int MAX_LIMIT = 1000;
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * Получение страницы сущностей с преобразованием элементов
+     *
+     * @param repository репозиторий
+     * @param after      курсор предыдущей страницы, null для первой страницы
+     * @param limit      размер страницы, от 1 до {@link #MAX_LIMIT}
+     * @param idOf       ID сущности, используется как курсор
+     * @param mapper     преобразование сущности в элемент страницы
+     * @return страница элементов и курсор следующей страницы
+     * @throws SQLException ошибка работы с БД
+     */
+    public static <E, T> KeysetPageDto<T> fetchPage(BaseRepository<Long, E> repository, Long after, int limit,
+                                                  ToLongFunction<E> idOf, Function<E, T> mapper)
+            throws SQLException {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_LIMIT + ".");
+        }
+
+        List<E> rows = repository.findPage(after, limit + 1);
+        boolean hasNext = rows.size() > limit;
+        List<E> pageRows = hasNext ? rows.subList(0, limit) : rows;
+        Long nextCursor = hasNext ? idOf.applyAsLong(pageRows.get(limit - 1)) : null;
+        return new KeysetPageDto<>(pageRows.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,45 @@
+package org.habitApp.utils;
+
+import org.habitApp.domain.dto.habitDto.HabitStreakDto;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Подсчет серий выполнения привычки по списку дат в памяти.
+ * Используется, когда БД не поддерживает запрос серий оконными функциями.
+ */
+public final class StreakCalculator {
+
+    private StreakCalculator() {
+    }
+
+    /**
+     * Подсчет текущей и максимальной серий.
+     * Серия - это непрерывная последовательность дней с выполнением.
+     * Текущая серия считается прерванной, если последнее выполнение было раньше вчерашнего дня.
+     *
+     * @param completionDates даты выполнения (в любом порядке, возможны повторы)
+     * @param today текущая дата
+     * @return текущая и максимальная серии
+     */
+    public static HabitStreakDto calculate(Collection<LocalDate> completionDates, LocalDate today) {
+        TreeSet<LocalDate> days = new TreeSet<>(completionDates);
+        if (days.isEmpty()) {
+            return new HabitStreakDto(0, 0);
+        }
+
+        int longestStreak = 0;
+        int runLength = 0;
+        LocalDate previousDay = null;
+        for (LocalDate day : days) {
+            runLength = previousDay != null && previousDay.plusDays(1).equals(day) ? runLength + 1 : 1;
+            longestStreak = Math.max(longestStreak, runLength);
+            previousDay = day;
+        }
+
+        int currentStreak = days.last().isBefore(today.minusDays(1)) ? 0 : runLength;
+        return new HabitStreakDto(currentStreak, longestStreak);
+    }
+}
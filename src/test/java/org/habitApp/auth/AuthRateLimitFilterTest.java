@@ -0,0 +1,157 @@
+package org.habitApp.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthRateLimitFilterTest {
+
+    private final AuthRateLimitFilter filter = new AuthRateLimitFilter(new ObjectMapper(),
+            new TokenBucketRateLimiter(3, Duration.ofMinutes(1), 100, 4),
+            new TokenBucketRateLimiter(2, Duration.ofMinutes(1), 100, 4));
+
+    private final List<String> forwardedBodies = new ArrayList<>();
+    private final FilterChain chain = (request, response) -> forwardedBodies.add(readBody(request));
+
+    private MockHttpServletResponse post(String path, String ip, String body) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static String readBody(ServletRequest request) throws IOException {
+        return new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("[doFilter] Тело запроса передается контроллеру после чтения email")
+    void doFilter_ShouldReplayBody() throws ServletException, IOException {
+        String body = "{\"email\":\"a@example.com\",\"password\":\"p\"}";
+
+        MockHttpServletResponse response = post("/auth/login", "10.0.0.1", body);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(List.of(body), forwardedBodies);
+    }
+
+    @Test
+    @DisplayName("[doFilter] Тело запроса можно прочитать неблокирующим способом через ReadListener")
+    void doFilter_ShouldReplayBodyToReadListener() throws ServletException, IOException {
+        String body = "{\"email\":\"a@example.com\"}";
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+
+        filter.doFilter(request, new MockHttpServletResponse(), (forwarded, response) -> {
+            ServletInputStream input = forwarded.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("data");
+                    while (input.isReady() && !input.isFinished()) {
+                        received.write(input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("done");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("error");
+                }
+            });
+        });
+
+        assertEquals(List.of("data", "done"), events);
+        assertEquals(body, received.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("[doFilter] Попытки для одного email ограничены независимо от IP")
+    void doFilter_ShouldLimitByEmail() throws ServletException, IOException {
+        post("/auth/login", "10.0.0.1", "{\"email\":\"a@example.com\"}");
+        post("/auth/login", "10.0.0.2", "{\"email\":\"A@example.com\"}");
+
+        MockHttpServletResponse response = post("/auth/login", "10.0.0.3", "{\"email\":\"a@example.com\"}");
+
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertEquals(2, forwardedBodies.size());
+        assertEquals(1, filter.getMetrics().getRejectedByEmail());
+    }
+
+    @Test
+    @DisplayName("[doFilter] Заполненный ограничитель email не блокирует новый email, исчерпанный email ограничен")
+    void doFilter_ShouldFallBackToIpWhenEmailLimiterIsFull() throws ServletException, IOException {
+        AuthRateLimitFilter filter = new AuthRateLimitFilter(new ObjectMapper(),
+                new TokenBucketRateLimiter(100, Duration.ofMinutes(1), 100, 1),
+                new TokenBucketRateLimiter(1, Duration.ofMinutes(1), 4, 1));
+        for (int i = 0; i < 4; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+            request.setRemoteAddr("10.0.0." + i);
+            request.setContent(("{\"email\":\"flood" + i + "@example.com\"}").getBytes(StandardCharsets.UTF_8));
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+        }
+
+        MockHttpServletRequest legitimate = new MockHttpServletRequest("POST", "/auth/login");
+        legitimate.setRemoteAddr("10.0.1.1");
+        legitimate.setContent("{\"email\":\"user@example.com\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(legitimate, response, chain);
+
+        MockHttpServletRequest drained = new MockHttpServletRequest("POST", "/auth/login");
+        drained.setRemoteAddr("10.0.1.2");
+        drained.setContent("{\"email\":\"flood0@example.com\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse drainedResponse = new MockHttpServletResponse();
+        filter.doFilter(drained, drainedResponse, chain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(429, drainedResponse.getStatus());
+        assertEquals(1, filter.getMetrics().getEmailChecksSkipped());
+        assertEquals(1, filter.getMetrics().getRejectedByEmail());
+    }
+
+    @Test
+    @DisplayName("[doFilter] Попытки с одного IP ограничены для разных email")
+    void doFilter_ShouldLimitByIp() throws ServletException, IOException {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, post("/auth/register", "10.0.0.1", "{\"email\":\"u" + i + "@example.com\"}").getStatus());
+        }
+
+        assertEquals(429, post("/auth/register", "10.0.0.1", "{\"email\":\"u9@example.com\"}").getStatus());
+        assertEquals(1, filter.getMetrics().getRejectedByIp());
+        assertEquals(3, filter.getMetrics().getAllowed());
+    }
+
+    @Test
+    @DisplayName("[doFilter] Остальные запросы не ограничиваются")
+    void doFilter_ShouldSkipOtherPaths() throws ServletException, IOException {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, post("/habits", "10.0.0.1", "{}").getStatus());
+        }
+        assertEquals(0, filter.getMetrics().getAllowed());
+    }
+}
@@ -2,13 +2,16 @@ package org.habitApp.auth;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
+import org.habitApp.cache.PrincipalCache;
+import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.models.Role;
 import org.habitApp.services.impl.UserDetailsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -17,8 +20,10 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,7 +35,14 @@ public class JwtAuthenticationFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
-    @InjectMocks
+    @Spy
+    private PrincipalCache principalCache = new PrincipalCache(100, Duration.ofSeconds(30));
+
+    @Spy
+    private VerifiedTokenCache verifiedTokenCache = new VerifiedTokenCache(100, Duration.ofMinutes(5));
+
+    private final TokenRevocationList tokenRevocationList = new TokenRevocationList(100, 0.01, 3_600_000);
+
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     private MockHttpServletRequest request;
@@ -42,6 +54,12 @@ public class JwtAuthenticationFilterTest {
         request = new MockHttpServletRequest();
         response = new MockHttpServletResponse();
         filterChain = mock(FilterChain.class);
+        SecurityContextHolder.clearContext();
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, verifiedTokenCache, tokenRevocationList, true);
+    }
+
+    private static TokenClaims emailOnlyClaims(String email) {
+        return new TokenClaims(email, null, null, null, Instant.now().plusSeconds(60), "jti", false, Instant.now());
     }
 
     @Test
@@ -69,12 +87,12 @@ public class JwtAuthenticationFilterTest {
         UserDetails userDetails = mock(UserDetails.class);
 
         request.addHeader("Authorization", "Bearer " + validToken);
-        when(jwtUtil.verifyAndGetUserId(validToken)).thenReturn(email);
+        when(jwtUtil.verify(validToken)).thenReturn(emailOnlyClaims(email));
         when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtUtil, times(1)).verifyAndGetUserId(validToken);
+        verify(jwtUtil, times(1)).verify(validToken);
         verify(userDetailsService, times(1)).loadUserByUsername(email);
         verify(filterChain, times(1)).doFilter(request, response);
 
@@ -90,11 +108,11 @@ public class JwtAuthenticationFilterTest {
         String invalidToken = "invalidToken";
 
         request.addHeader("Authorization", "Bearer " + invalidToken);
-        when(jwtUtil.verifyAndGetUserId(invalidToken)).thenReturn(null);
+        when(jwtUtil.verify(invalidToken)).thenReturn(null);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtUtil, times(1)).verifyAndGetUserId(invalidToken);
+        verify(jwtUtil, times(1)).verify(invalidToken);
         verifyNoInteractions(userDetailsService);
         verify(filterChain, times(1)).doFilter(request, response);
 
@@ -108,16 +126,117 @@ public class JwtAuthenticationFilterTest {
         String email = "test@example.com";
 
         request.addHeader("Authorization", "Bearer " + validToken);
-        when(jwtUtil.verifyAndGetUserId(validToken)).thenReturn(email);
+        when(jwtUtil.verify(validToken)).thenReturn(emailOnlyClaims(email));
         when(userDetailsService.loadUserByUsername(email)).thenThrow(new RuntimeException("User loading error"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtUtil, times(1)).verifyAndGetUserId(validToken);
+        verify(jwtUtil, times(1)).verify(validToken);
         verify(userDetailsService, times(1)).loadUserByUsername(email);
         verify(filterChain, times(1)).doFilter(request, response);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication(), "Контекст безопасности должен быть пустым");
     }
 
+    @Test
+    @DisplayName("[doFilterInternal] Повторный запрос с токеном берет пользователя из кэша без обращения к БД")
+    void shouldLoadUserOnceForRepeatedRequests() throws ServletException, IOException {
+        String validToken = "validToken";
+        String email = "test@example.com";
+        UserDetails userDetails = mock(UserDetails.class);
+
+        request.addHeader("Authorization", "Bearer " + validToken);
+        when(jwtUtil.verify(validToken)).thenReturn(emailOnlyClaims(email));
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        SecurityContextHolder.clearContext();
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userDetailsService, times(1)).loadUserByUsername(email);
+        assert SecurityContextHolder.getContext().getAuthentication().getPrincipal() == userDetails;
+
+        principalCache.invalidate(email);
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userDetailsService, times(2)).loadUserByUsername(email);
+    }
+
+    @Test
+    @DisplayName("[doFilterInternal] Пользователь восстанавливается из утверждений токена без обращения к БД")
+    void shouldBuildPrincipalFromClaimsWithoutDatabase() throws ServletException, IOException {
+        String validToken = "validToken";
+        request.addHeader("Authorization", "Bearer " + validToken);
+        when(jwtUtil.verify(validToken)).thenReturn(new TokenClaims("test@example.com", 7L, "Test User",
+                Role.ROLE_ADMIN, Instant.now().plusSeconds(60), "jti", false, Instant.now()));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verifyNoInteractions(userDetailsService, principalCache);
+        UserEntity principal = (UserEntity) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        assertEquals(7L, principal.getId());
+        assertEquals("test@example.com", principal.getEmail());
+        assertEquals(Role.ROLE_ADMIN, principal.getRole());
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    @DisplayName("[doFilterInternal] При выключенном режиме без БД пользователь загружается по email")
+    void shouldLoadUserFromDatabaseWhenStatelessPrincipalDisabled() throws ServletException, IOException {
+        String validToken = "validToken";
+        String email = "test@example.com";
+        UserDetails userDetails = mock(UserDetails.class);
+        jwtAuthenticationFilter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, principalCache, verifiedTokenCache, tokenRevocationList, false);
+
+        request.addHeader("Authorization", "Bearer " + validToken);
+        when(jwtUtil.verify(validToken)).thenReturn(new TokenClaims(email, 7L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "jti", false, Instant.now()));
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        verify(userDetailsService, times(1)).loadUserByUsername(email);
+        assert SecurityContextHolder.getContext().getAuthentication().getPrincipal() == userDetails;
+    }
+
+    @Test
+    @DisplayName("[doFilterInternal] Отозванный токен и токен обновления не аутентифицируют запрос")
+    void shouldRejectRevokedAndRefreshTokens() throws ServletException, IOException {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        request.addHeader("Authorization", "Bearer revoked");
+        when(jwtUtil.verify("revoked")).thenReturn(new TokenClaims("test@example.com", 7L, "Test User",
+                Role.ROLE_USER, expiresAt, "revoked-jti", false, Instant.now()));
+        tokenRevocationList.revoke("revoked-jti", expiresAt);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        MockHttpServletRequest refreshRequest = new MockHttpServletRequest();
+        refreshRequest.addHeader("Authorization", "Bearer refresh");
+        when(jwtUtil.verify("refresh")).thenReturn(new TokenClaims("test@example.com", 7L, "Test User",
+                Role.ROLE_USER, expiresAt, "refresh-jti", true, Instant.now()));
+
+        jwtAuthenticationFilter.doFilterInternal(refreshRequest, response, filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("[doFilterInternal] Токен доступа, выпущенный до удаления пользователя, не аутентифицирует запрос")
+    void shouldRejectAccessTokenIssuedBeforeUserRevocation() throws ServletException, IOException {
+        request.addHeader("Authorization", "Bearer old");
+        when(jwtUtil.verify("old")).thenReturn(new TokenClaims("test@example.com", 7L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "old-jti", false, Instant.now().minusSeconds(1)));
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        // deleteUser и изменение профиля отзывают все выпущенные токены пользователя
+        tokenRevocationList.revokeUserTokens(7L);
+
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain, times(2)).doFilter(request, response);
+    }
 }
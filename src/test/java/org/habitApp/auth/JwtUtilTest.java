@@ -1,5 +1,7 @@
 package org.habitApp.auth;
 
+import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.models.Role;
 import org.habitApp.utils.YamlPropertySourceFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -8,6 +10,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNull;
 
@@ -17,12 +22,17 @@ public class JwtUtilTest {
 
     private static final String SECRET = "testSecretKey";
     private static final int EXPIRATION_TIME = 60000; // 1 минута для тестирования
+    private static final long REFRESH_EXPIRATION_TIME = 3_600_000;
 
     private JwtUtil jwtUtil;
 
     @BeforeEach
     public void setUp() {
-        jwtUtil = new JwtUtil(SECRET, EXPIRATION_TIME);
+        jwtUtil = new JwtUtil(SECRET, EXPIRATION_TIME, REFRESH_EXPIRATION_TIME);
+    }
+
+    private static UserEntity user(String email) {
+        return new UserEntity(7L, email, "password", "Test User", Role.ROLE_ADMIN);
     }
 
     @Test
@@ -30,17 +40,27 @@ public class JwtUtilTest {
     public void shouldGenerateTokenSuccessfully() {
         String email = "test@example.com";
 
-        String token = jwtUtil.generate(email);
+        String token = jwtUtil.generate(user(email));
 
         assertThat(token).isNotNull();
         assertThat(jwtUtil.verifyAndGetUserId(token)).isEqualTo(email);
     }
 
+    @Test
+    @DisplayName("[verify] Время выпуска токена восстанавливается с точностью до миллисекунд")
+    public void shouldKeepIssuedAtMillis() {
+        Instant before = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        TokenClaims claims = jwtUtil.verify(jwtUtil.generateRefresh(user("test@example.com")));
+
+        assertThat(claims.getIssuedAt()).isBetween(before, Instant.now());
+    }
+
     @Test
     @DisplayName("[verifyAndGetUserId] Верификация должна вернуть email для корректного токена")
     public void shouldVerifyAndReturnEmail() {
         String email = "test@example.com";
-        String token = jwtUtil.generate(email);
+        String token = jwtUtil.generate(user(email));
 
         String resultEmail = jwtUtil.verifyAndGetUserId(token);
 
@@ -62,8 +82,8 @@ public class JwtUtilTest {
     public void shouldReturnNullForExpiredToken() throws InterruptedException {
         String email = "test@example.com";
 
-        JwtUtil jwtUtilShortExpiry = new JwtUtil(SECRET, 1); // Очень короткий срок действия
-        String token = jwtUtilShortExpiry.generate(email);
+        JwtUtil jwtUtilShortExpiry = new JwtUtil(SECRET, 1, 1); // Очень короткий срок действия
+        String token = jwtUtilShortExpiry.generate(user(email));
 
         Thread.sleep(10);  // Ждем 10 мс для истечения срока действия токена
 
@@ -75,13 +95,51 @@ public class JwtUtilTest {
     @Test
     @DisplayName("[verifyAndGetUserId] Верификация должна обрабатывать исключение JWTVerificationException")
     public void shouldHandleJWTVerificationException() {
-        JwtUtil jwtUtilWithInvalidSecret = new JwtUtil("differentSecret", EXPIRATION_TIME);
+        JwtUtil jwtUtilWithInvalidSecret = new JwtUtil("differentSecret", EXPIRATION_TIME, REFRESH_EXPIRATION_TIME);
         String email = "test@example.com";
-        String token = jwtUtil.generate(email);
+        String token = jwtUtil.generate(user(email));
 
         // Пытаемся проверить токен с неверным секретным ключом
         String resultEmail = jwtUtilWithInvalidSecret.verifyAndGetUserId(token);
 
         assertNull(resultEmail, "Верификация токена с неверным секретом должна возвращать null");
     }
+
+    @Test
+    @DisplayName("[verify] Токен содержит ID, имя и роль пользователя")
+    public void shouldVerifyAndReturnUserClaims() {
+        String token = jwtUtil.generate(user("test@example.com"));
+
+        TokenClaims claims = jwtUtil.verify(token);
+
+        assertThat(claims.hasPrincipal()).isTrue();
+        assertThat(claims.getUserId()).isEqualTo(7L);
+        assertThat(claims.getUsername()).isEqualTo("Test User");
+        assertThat(claims.getRole()).isEqualTo(Role.ROLE_ADMIN);
+        assertThat(claims.getExpiresAt()).isNotNull();
+        assertThat(claims.toPrincipal().getAuthorities()).extracting("authority").containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("[verify] Без роли пользователь по токену не восстанавливается")
+    public void shouldNotProvidePrincipalWithoutRole() {
+        String token = jwtUtil.generate(new UserEntity(7L, "test@example.com", "password", "Test User", null));
+
+        TokenClaims claims = jwtUtil.verify(token);
+
+        assertThat(claims.getEmail()).isEqualTo("test@example.com");
+        assertThat(claims.hasPrincipal()).isFalse();
+    }
+
+    @Test
+    @DisplayName("[generateRefresh] Токен обновления отличается от токена доступа типом и сроком действия")
+    public void shouldMarkRefreshToken() {
+        TokenClaims access = jwtUtil.verify(jwtUtil.generate(user("test@example.com")));
+        TokenClaims refresh = jwtUtil.verify(jwtUtil.generateRefresh(user("test@example.com")));
+
+        assertThat(access.isRefresh()).isFalse();
+        assertThat(refresh.isRefresh()).isTrue();
+        assertThat(refresh.getTokenId()).isNotEqualTo(access.getTokenId());
+        assertThat(refresh.getExpiresAt()).isAfter(access.getExpiresAt());
+    }
 }
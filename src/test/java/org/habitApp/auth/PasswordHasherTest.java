@@ -0,0 +1,82 @@
+package org.habitApp.auth;
+
+import org.habitApp.exceptions.PasswordHashingRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    private PasswordHasher passwordHasher;
+
+    @AfterEach
+    void tearDown() {
+        passwordHasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("[encode/matches] Пароль хешируется BCrypt и проверяется по хешу")
+    void encode_ShouldProduceVerifiableBcryptHash() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4);
+
+        String hash = passwordHasher.encode("password");
+
+        assertFalse(passwordHasher.isLegacy(hash));
+        assertTrue(passwordHasher.matches("password", hash));
+        assertFalse(passwordHasher.matches("wrong", hash));
+        assertEquals(3, passwordHasher.getMetrics().getCompleted());
+    }
+
+    @Test
+    @DisplayName("[matches] Пароль, сохраненный до хеширования, сравнивается без пула")
+    void matches_ShouldCompareLegacyPlaintext() {
+        passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4);
+
+        assertTrue(passwordHasher.isLegacy("root"));
+        assertTrue(passwordHasher.matches("root", "root"));
+        assertFalse(passwordHasher.matches("user", "root"));
+        assertEquals(0, passwordHasher.getMetrics().getCompleted());
+    }
+
+    @Test
+    @DisplayName("[encode] При заполненных пуле и очереди задача сразу отклоняется")
+    void encode_ShouldRejectWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.encode(rawPassword);
+            }
+        };
+        passwordHasher = new PasswordHasher(blockingEncoder, 1, 1);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordHasher.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordHasher.encode("b"));
+        while (passwordHasher.getMetrics().getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> passwordHasher.encode("c"));
+        assertEquals(1, passwordHasher.getMetrics().getRejected());
+
+        release.countDown();
+        assertNotNull(running.get(5, TimeUnit.SECONDS));
+        assertNotNull(queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,98 @@
+package org.habitApp.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    @DisplayName("[tryAcquire] После исчерпания корзины запрос отклоняется до пополнения")
+    void tryAcquire_ShouldRejectUntilRefilled() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, PERIOD, 100, 4, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire("a"));
+        }
+        long wait = limiter.tryAcquire("a");
+        assertEquals(PERIOD.toNanos() / 3, wait, 1);
+        assertEquals(0, limiter.tryAcquire("b"));
+
+        clock.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a") > 0);
+    }
+
+    @Test
+    @DisplayName("[tryAcquire] Корзины без обращений дольше периода пополнения удаляются")
+    void tryAcquire_ShouldDropIdleBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, PERIOD, 100, 1, clock::get);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        clock.addAndGet(PERIOD.toNanos() / 2);
+        limiter.tryAcquire("b");
+        assertEquals(2, limiter.size());
+
+        clock.addAndGet(PERIOD.toNanos() / 2);
+        limiter.tryAcquire("c");
+        assertEquals(2, limiter.size());
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    @DisplayName("[tryAcquire] Память ограничена при любом числе различных ключей")
+    void tryAcquire_ShouldBoundMemory() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, PERIOD, 64, 4, clock::get);
+
+        for (int i = 0; i < 100_000; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+
+        assertTrue(limiter.size() <= 64);
+    }
+
+    @Test
+    @DisplayName("[tryAcquire] Поток новых ключей не сбрасывает исчерпанную корзину")
+    void tryAcquire_ShouldKeepDrainedBucketUnderKeyFlood() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, PERIOD, 4, 1, clock::get);
+        assertEquals(0, limiter.tryAcquire("victim"));
+        assertTrue(limiter.tryAcquire("victim") > 0);
+
+        for (int i = 0; i < 1_000; i++) {
+            limiter.tryAcquire("flood-" + i);
+        }
+        clock.addAndGet(PERIOD.toNanos() / 2);
+        for (int i = 1_000; i < 2_000; i++) {
+            assertTrue(limiter.tryAcquire("flood-" + i) > 0);
+        }
+
+        assertTrue(limiter.tryAcquire("victim") > 0);
+        assertTrue(limiter.size() <= 4);
+
+        clock.addAndGet(PERIOD.toNanos());
+        assertEquals(0, limiter.tryAcquire("victim"));
+        assertEquals(0, limiter.tryAcquire("flood-0"));
+    }
+
+    @Test
+    @DisplayName("[tryAcquireIfRoom] Новый ключ в заполненной полосе получает NO_ROOM, отслеживаемые ключи ограничены")
+    void tryAcquireIfRoom_ShouldReportNoRoomForNewKey() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, PERIOD, 2, 1, clock::get);
+        assertEquals(0, limiter.tryAcquireIfRoom("a"));
+        assertEquals(0, limiter.tryAcquireIfRoom("b"));
+
+        assertEquals(TokenBucketRateLimiter.NO_ROOM, limiter.tryAcquireIfRoom("c"));
+        assertTrue(limiter.tryAcquireIfRoom("a") > 0);
+        assertTrue(limiter.tryAcquire("c") > 0);
+        assertEquals(2, limiter.size());
+    }
+}
@@ -0,0 +1,99 @@
+package org.habitApp.auth;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Test
+    @DisplayName("[isRevoked] Отозванный токен отклоняется до истечения срока действия")
+    void isRevoked_ShouldReportRevokedUntilExpiry() {
+        MutableClock clock = new MutableClock(NOW);
+        TokenRevocationList revocationList = new TokenRevocationList(100, 0.01, Duration.ofHours(1), clock);
+
+        revocationList.revoke("a", NOW.plusSeconds(60));
+
+        assertTrue(revocationList.isRevoked("a"));
+        assertFalse(revocationList.isRevoked("b"));
+        clock.instant = NOW.plusSeconds(60);
+        assertFalse(revocationList.isRevoked("a"));
+    }
+
+    @Test
+    @DisplayName("[purgeExpired] Истекшие записи удаляются, остальные остаются отозванными")
+    void purgeExpired_ShouldKeepActiveRevocations() {
+        MutableClock clock = new MutableClock(NOW);
+        TokenRevocationList revocationList = new TokenRevocationList(100, 0.01, Duration.ofHours(1), clock);
+        revocationList.revoke("short", NOW.plusSeconds(10));
+        revocationList.revoke("long", NOW.plusSeconds(100));
+        revocationList.revoke("expired", NOW);
+
+        clock.instant = NOW.plusSeconds(20);
+        revocationList.purgeExpired();
+
+        assertEquals(1, revocationList.size());
+        assertTrue(revocationList.isRevoked("long"));
+        assertFalse(revocationList.isRevoked("short"));
+    }
+
+    @Test
+    @DisplayName("[revoke] Токен отзывается только первым из повторных вызовов")
+    void revoke_ShouldReportFirstRevocationOnly() {
+        TokenRevocationList revocationList = new TokenRevocationList(100, 0.01, Duration.ofHours(1), new MutableClock(NOW));
+
+        assertTrue(revocationList.revoke("a", NOW.plusSeconds(60)));
+        assertFalse(revocationList.revoke("a", NOW.plusSeconds(60)));
+        assertFalse(revocationList.revoke("expired", NOW));
+    }
+
+    @Test
+    @DisplayName("[revokeUserTokens] Отзываются токены пользователя, выпущенные до отзыва, пока они не истекли")
+    void revokeUserTokens_ShouldRejectTokensIssuedBefore() {
+        MutableClock clock = new MutableClock(NOW);
+        TokenRevocationList revocationList = new TokenRevocationList(100, 0.01, Duration.ofHours(1), clock);
+
+        revocationList.revokeUserTokens(1L);
+
+        assertTrue(revocationList.isRevokedForUser(1L, NOW.minusMillis(1)));
+        assertTrue(revocationList.isRevokedForUser(1L, null));
+        assertFalse(revocationList.isRevokedForUser(1L, NOW.plusMillis(1)));
+        assertFalse(revocationList.isRevokedForUser(2L, NOW.minusMillis(1)));
+
+        clock.instant = NOW.plus(Duration.ofHours(1));
+        revocationList.purgeExpired();
+        assertFalse(revocationList.isRevokedForUser(1L, NOW.minusMillis(1)));
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
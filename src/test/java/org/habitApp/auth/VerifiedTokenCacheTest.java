@@ -0,0 +1,70 @@
+package org.habitApp.auth;
+
+import org.habitApp.models.Role;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    private final VerifiedTokenCache cache =
+            new VerifiedTokenCache(100, Duration.ofMinutes(5), Clock.fixed(NOW, ZoneOffset.UTC));
+
+    private static TokenClaims claims(Instant expiresAt) {
+        return new TokenClaims("test@example.com", 1L, "Test User", Role.ROLE_USER, expiresAt, "jti", false, Instant.now());
+    }
+
+    @Test
+    @DisplayName("[get] Повторная проверка того же токена берется из кэша")
+    void get_ShouldVerifyTokenOnce() {
+        AtomicInteger verifications = new AtomicInteger();
+        TokenClaims claims = claims(NOW.plusSeconds(60));
+
+        cache.get("token", token -> {
+            verifications.incrementAndGet();
+            return claims;
+        });
+        TokenClaims cached = cache.get("token", token -> {
+            verifications.incrementAndGet();
+            return null;
+        });
+
+        assertSame(claims, cached);
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("[get] Истекший токен не возвращается из кэша")
+    void get_ShouldRejectExpiredToken() {
+        assertNull(cache.get("token", token -> claims(NOW)));
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("[get] Недействительный токен не кэшируется")
+    void get_ShouldNotCacheInvalidToken() {
+        AtomicInteger verifications = new AtomicInteger();
+
+        cache.get("bad", token -> {
+            verifications.incrementAndGet();
+            return null;
+        });
+        cache.get("bad", token -> {
+            verifications.incrementAndGet();
+            return null;
+        });
+
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.getStats().getSize());
+    }
+}
@@ -0,0 +1,172 @@
+package org.habitApp.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringLruCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private ExpiringLruCache<String, Integer> cache(int maxSize) {
+        return new ExpiringLruCache<>(maxSize, Duration.ofSeconds(10), new CacheListener<>() {
+        }, clock::get);
+    }
+
+    @Test
+    @DisplayName("[get] Повторное обращение возвращает значение из кэша без загрузки")
+    void get_ShouldLoadOnceAndCountHitsAndMisses() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(1, cache.get("a", loads::incrementAndGet));
+        assertEquals(1, cache.get("a", loads::incrementAndGet));
+
+        assertEquals(1, loads.get());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0.5, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("[get] При превышении размера вытесняется давно не использованная запись")
+    void get_ShouldEvictLeastRecentlyUsed() {
+        ExpiringLruCache<String, Integer> cache = cache(2);
+        cache.get("a", () -> 1);
+        cache.get("b", () -> 2);
+        cache.get("a", () -> -1);
+        cache.get("c", () -> 3);
+
+        assertEquals(1, cache.get("a", () -> -1));
+        assertEquals(20, cache.get("b", () -> 20));
+        assertEquals(2, cache.getStats().getEvictions());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("[get] Запись с истекшим сроком жизни загружается заново")
+    void get_ShouldReloadExpiredEntry() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+        cache.get("a", () -> 1);
+
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals(1, cache.get("a", () -> 2));
+        clock.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertEquals(2, cache.get("a", () -> 2));
+
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    @DisplayName("[getIfPresent] Возвращает только действующую запись и не загружает значение")
+    void getIfPresent_ShouldReturnOnlyLiveEntry() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+        assertNull(cache.getIfPresent("a"));
+
+        cache.get("a", () -> 1);
+        assertEquals(1, cache.getIfPresent("a"));
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertNull(cache.getIfPresent("a"));
+
+        assertEquals(0, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    @DisplayName("[invalidateIf] Значение, загруженное во время инвалидации его ключа, не сохраняется")
+    void invalidateIf_ShouldDropValueLoadedBeforeInvalidation() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+        cache.get("a", () -> 1);
+
+        assertEquals(2, cache.get("b", () -> {
+            cache.invalidateIf(key -> key.equals("a") || key.equals("b"));
+            return 2;
+        }));
+
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getInvalidations());
+        assertEquals(3, cache.get("b", () -> 3));
+    }
+
+    @Test
+    @DisplayName("[invalidate] Инвалидация другого ключа не отменяет загрузку")
+    void invalidate_ShouldKeepConcurrentLoadOfOtherKey() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+        cache.get("a", () -> 1);
+
+        assertEquals(2, cache.get("b", () -> {
+            cache.invalidate("a");
+            return 2;
+        }));
+        assertEquals(2, cache.get("b", () -> 3));
+
+        assertEquals(3, cache.get("c", () -> {
+            cache.invalidate("c");
+            return 3;
+        }));
+        assertEquals(4, cache.get("c", () -> 4));
+    }
+
+    @Test
+    @DisplayName("[get] Null не кэшируется, ошибка загрузки пробрасывается")
+    void get_ShouldNotCacheNullAndPropagateLoaderFailure() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+
+        assertNull(cache.get("a", () -> null));
+        assertThrows(IllegalStateException.class, () -> cache.get("a", () -> {
+            throw new IllegalStateException("load failed");
+        }));
+        assertEquals(0, cache.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("[invalidateEntriesIf] Удаляются только записи, подходящие по значению")
+    void invalidateEntriesIf_ShouldRemoveMatchingValues() {
+        ExpiringLruCache<String, Integer> cache = cache(10);
+        cache.get("a", () -> 1);
+        cache.get("b", () -> 2);
+        cache.get("c", () -> 1);
+
+        cache.invalidateEntriesIf((key, value) -> value == 1);
+
+        assertEquals(10, cache.get("a", () -> 10));
+        assertEquals(2, cache.get("b", () -> 20));
+        assertEquals(2, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("[CacheListener] Слушатель получает сохранение и каждый уход записи из кэша")
+    void listener_ShouldSeeStoresAndRemovals() {
+        List<String> events = new ArrayList<>();
+        ExpiringLruCache<String, Integer> cache = new ExpiringLruCache<>(2, Duration.ofSeconds(10),
+                new CacheListener<>() {
+                    @Override
+                    public void onStore(String key, Integer value) {
+                        events.add("+" + key + value);
+                    }
+
+                    @Override
+                    public void onRemoval(String key, Integer value) {
+                        events.add("-" + key + value);
+                    }
+                }, clock::get);
+
+        cache.get("a", () -> 1);
+        cache.get("b", () -> 2);
+        cache.get("c", () -> 3);
+        cache.invalidate("b");
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        cache.get("c", () -> 4);
+        cache.clear();
+
+        assertEquals(List.of("+a1", "+b2", "-a1", "+c3", "-b2", "-c3", "+c4", "-c4"), events);
+    }
+}
@@ -0,0 +1,68 @@
+package org.habitApp.cache;
+
+import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.models.Role;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private final PrincipalCache principalCache = new PrincipalCache(100, Duration.ofSeconds(30));
+
+    @Test
+    @DisplayName("[get] Каждый запрос получает свою копию, изменения копии не попадают в кэш")
+    void get_ShouldReturnIndependentCopies() {
+        UserEntity loaded = new UserEntity(1L, "user@example.com", "hash", "User", Role.ROLE_USER);
+
+        UserEntity first = (UserEntity) principalCache.get("user@example.com", () -> loaded);
+        first.setEmail("changed@example.com");
+        loaded.setUsername("Changed");
+        UserEntity second = (UserEntity) principalCache.get("user@example.com", () -> null);
+
+        assertNotSame(first, second);
+        assertNotSame(loaded, second);
+        assertEquals("user@example.com", second.getEmail());
+        assertEquals("User", second.getUsername());
+        assertEquals(1, principalCache.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("[invalidateUser] Удаляется только запись пользователя с указанным ID")
+    void invalidateUser_ShouldRemoveOnlyThatUser() {
+        AtomicInteger loads = new AtomicInteger();
+        principalCache.get("a@example.com", () -> user(1L, "a@example.com", loads));
+        principalCache.get("b@example.com", () -> user(2L, "b@example.com", loads));
+
+        principalCache.invalidateUser(1L);
+        principalCache.get("a@example.com", () -> user(1L, "a@example.com", loads));
+        principalCache.get("b@example.com", () -> user(2L, "b@example.com", loads));
+
+        assertEquals(3, loads.get());
+        assertEquals(1, principalCache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("[invalidateUser] После удаления по email индекс не указывает на новую запись с тем же ID")
+    void invalidateUser_ShouldFollowEmailChange() {
+        AtomicInteger loads = new AtomicInteger();
+        principalCache.get("old@example.com", () -> user(1L, "old@example.com", loads));
+        principalCache.invalidate("old@example.com");
+        principalCache.get("new@example.com", () -> user(1L, "new@example.com", loads));
+
+        principalCache.invalidateUser(1L);
+        principalCache.get("new@example.com", () -> user(1L, "new@example.com", loads));
+
+        assertEquals(3, loads.get());
+    }
+
+    private static UserDetails user(long id, String email, AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new UserEntity(id, email, "hash", "User", Role.ROLE_USER);
+    }
+}
@@ -1,9 +1,11 @@
 package org.habitApp.controllers;
 
+import org.habitApp.domain.dto.userDto.TokenPairDto;
 import org.habitApp.domain.dto.userDto.UserDtoLogin;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.InvalidCredentialsException;
+import org.habitApp.exceptions.PasswordHashingRejectedException;
 import org.habitApp.exceptions.UserAlreadyExistsException;
 import org.habitApp.services.AuthService;
 import org.habitApp.services.UserService;
@@ -67,12 +69,12 @@ class AuthControllerTest {
     void testLogin_Success() throws SQLException, InvalidCredentialsException {
         UserDtoLogin userDtoLogin = new UserDtoLogin();
 
-        when(authService.loginUser(userDtoLogin)).thenReturn("token");
+        when(authService.loginUser(userDtoLogin)).thenReturn(new TokenPairDto("token", "refresh"));
 
         ResponseEntity<?> response = authController.login(userDtoLogin, null);
 
         assertEquals(200, response.getStatusCodeValue());
-        assertEquals("token", response.getBody());
+        assertEquals(new TokenPairDto("token", "refresh"), response.getBody());
         verify(authService, times(1)).loginUser(userDtoLogin);
     }
 
@@ -89,6 +91,18 @@ class AuthControllerTest {
         verify(authService, times(1)).loginUser(userDtoLogin);
     }
 
+    @Test
+    @DisplayName("[Login - Password hashing pool saturated]")
+    void testLogin_PasswordHashingRejected() throws SQLException, InvalidCredentialsException {
+        UserDtoLogin userDtoLogin = new UserDtoLogin();
+        when(authService.loginUser(userDtoLogin)).thenThrow(new PasswordHashingRejectedException("Busy"));
+
+        ResponseEntity<?> response = authController.login(userDtoLogin, null);
+
+        assertEquals(503, response.getStatusCodeValue());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    }
+
     @Test
     @WithMockUser
     @DisplayName("[Test Auth - Successful authentication]")
@@ -4,9 +4,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.habitApp.domain.dto.habitDto.HabitDtoCreateUpdate;
 import org.habitApp.domain.dto.habitDto.HabitDtoResponse;
 import org.habitApp.domain.dto.habitDto.HabitReportDto;
+import org.habitApp.domain.dto.habitDto.HabitStreakRepairResultDto;
+import org.habitApp.domain.dto.habitDto.HabitStreakSweepResultDto;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardDto;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardEntryDto;
 import org.habitApp.domain.entities.HabitEntity;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.services.HabitService;
+import org.habitApp.services.HabitStreakRepairService;
+import org.habitApp.services.HabitStreakSweepService;
+import org.habitApp.services.StreakLeaderboardService;
 import org.habitApp.mappers.HabitMapper;
 import org.habitApp.models.Period;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,6 +33,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +46,15 @@ class HabitControllerTest {
     @Mock
     private HabitService habitService;
 
+    @Mock
+    private HabitStreakRepairService habitStreakRepairService;
+
+    @Mock
+    private HabitStreakSweepService habitStreakSweepService;
+
+    @Mock
+    private StreakLeaderboardService streakLeaderboardService;
+
     @Mock
     private HabitMapper habitMapper;
 
@@ -56,7 +73,7 @@ class HabitControllerTest {
 
     @BeforeEach
     void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(new HabitController(habitService, habitMapper))
+        mockMvc = MockMvcBuilders.standaloneSetup(new HabitController(habitService, habitStreakRepairService, habitStreakSweepService, streakLeaderboardService, habitMapper))
                 .build();
         testHabit = new HabitEntity(1L, "Test Habit", "Description", Period.DAY.toString(), LocalDate.now(), 1L);
         habitDtoCreateUpdate = new HabitDtoCreateUpdate("Test Habit", "Description", Period.DAY.toString());
@@ -135,17 +152,32 @@ class HabitControllerTest {
                 .andExpect(content().string("Habit marked as completed."));
     }
 
+    @Test
+    @DisplayName("POST /habits/{id}/complete/batch - Пакетная отметка выполнения")
+    void shouldMarkHabitCompletedOnDates() throws Exception {
+        when(habitService.markHabitAsCompletedOnDates(anyLong(), any(), any())).thenReturn(2);
+
+        mockMvc.perform(post("/habits/1/complete/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dates\":[\"2024-10-01\",\"2024-10-02\",\"2024-10-03\"]}")
+                        .principal(() -> "testUser"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.added").value(2))
+                .andExpect(jsonPath("$.skipped").value(1));
+    }
+
     @Test
     @DisplayName("GET /habits/{id}/report/{period} - Получение отчета о привычке")
     void shouldGetHabitReport() throws Exception {
-        when(habitService.calculateHabitCompletedByPeriod(any(), any())).thenReturn(5);
-        when(habitService.calculateCurrentStreak(any())).thenReturn(3);
+        when(habitService.generateProgressReport(any(), any())).thenReturn(reportDto);
 
         mockMvc.perform(get("/habits/1/report/WEEK")
                         .principal(() -> "testUser")) // Simulate the current user
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.completionCount").value(5))
                 .andExpect(jsonPath("$.streak").value(3));
+        verify(habitService, times(1)).getHabitById(anyLong(), any());
     }
 
     @Test
@@ -170,4 +202,54 @@ class HabitControllerTest {
                 .andExpect(jsonPath("$.completionCount").value(5))
                 .andExpect(jsonPath("$.streak").value(3));
     }
+
+    @Test
+    @DisplayName("POST /habits/admin/streaks/repair - Сверить серии выполнения")
+    void shouldRepairStreaks() throws Exception {
+        when(habitStreakRepairService.repairStreaks()).thenReturn(new HabitStreakRepairResultDto(10, 2, 5));
+
+        mockMvc.perform(post("/habits/admin/streaks/repair"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.checked").value(10))
+                .andExpect(jsonPath("$.repaired").value(2));
+    }
+
+    @Test
+    @DisplayName("POST /habits/admin/streaks/sweep - Сбросить прерванные серии")
+    void shouldResetBrokenStreaks() throws Exception {
+        when(habitStreakSweepService.resetBrokenStreaks())
+                .thenReturn(new HabitStreakSweepResultDto(LocalDate.now(), 42, 1, 3));
+
+        mockMvc.perform(post("/habits/admin/streaks/sweep"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsReset").value(42))
+                .andExpect(jsonPath("$.chunks").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /habits/reports/{period} - Получить отчеты по всем привычкам")
+    void shouldGetReportsForAllHabits() throws Exception {
+        when(habitService.generateProgressReports(any(), eq(Period.WEEK)))
+                .thenReturn(List.of(reportDto, new HabitReportDto(2L, 0, 0, 0, Period.WEEK)));
+
+        mockMvc.perform(get("/habits/reports/week"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].streak").value(3))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /habits/admin/leaderboard - Получить таблицу лидеров")
+    void shouldGetLeaderboard() throws Exception {
+        when(streakLeaderboardService.getLeaderboard()).thenReturn(new StreakLeaderboardDto(null, 1,
+                List.of(new StreakLeaderboardEntryDto(2L, "alice", 12)),
+                List.of(new StreakLeaderboardEntryDto(3L, "bob", 40))));
+
+        mockMvc.perform(get("/habits/admin/leaderboard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.byCurrentStreak[0].username").value("alice"))
+                .andExpect(jsonPath("$.byLongestStreak[0].streak").value(40));
+        verify(streakLeaderboardService, never()).refreshLeaderboard();
+    }
 }
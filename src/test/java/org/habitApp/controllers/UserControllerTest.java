@@ -1,5 +1,6 @@
 package org.habitApp.controllers;
 
+import org.habitApp.domain.dto.KeysetPageDto;
 import org.habitApp.domain.dto.userDto.UserDto;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.exceptions.UnauthorizedAccessException;
@@ -111,17 +112,29 @@ class UserControllerTest {
     @DisplayName("GET /users/admin - Получение всех пользователей")
     void getAllUsers_Success() throws Exception {
         List<UserDto> users = new ArrayList<>();
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getAllUsers(null, 100)).thenReturn(new KeysetPageDto<>(users, null));
 
         mockMvc.perform(get("/users/admin"))
                 .andExpect(status().isOk())
-                .andExpect(content().json("[]"));
+                .andExpect(content().json("{\"items\":[],\"nextCursor\":null}"));
+    }
+
+    @Test
+    @DisplayName("GET /users/admin?after=&limit= - Получение следующей страницы пользователей")
+    void getAllUsers_NextPage() throws Exception {
+        List<UserDto> users = List.of(new UserDto(11L, "a@example.com", null, "a", null));
+        when(userService.getAllUsers(10L, 1)).thenReturn(new KeysetPageDto<>(users, 11L));
+
+        mockMvc.perform(get("/users/admin").param("after", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(11))
+                .andExpect(jsonPath("$.nextCursor").value(11));
     }
 
     @Test
     @DisplayName("GET /users/admin - Получение всех пользователей, не авторизован")
     void getAllUsers_Unauthorized() throws Exception {
-        doThrow(new UnauthorizedAccessException("Unauthorized")).when(userService).getAllUsers();
+        doThrow(new UnauthorizedAccessException("Unauthorized")).when(userService).getAllUsers(null, 100);
 
         mockMvc.perform(get("/users/admin"))
                 .andExpect(status().isBadRequest())
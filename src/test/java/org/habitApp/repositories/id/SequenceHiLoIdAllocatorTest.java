@@ -0,0 +1,93 @@
+package org.habitApp.repositories.id;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceHiLoIdAllocatorTest {
+
+    private static final int BLOCK_SIZE = 50;
+
+    private JdbcExecutor jdbcExecutor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:hilo;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP SEQUENCE IF EXISTS test_hilo_seq");
+            statement.execute("CREATE SEQUENCE test_hilo_seq START WITH 1000 INCREMENT BY " + BLOCK_SIZE);
+        }
+        jdbcExecutor = new JdbcExecutor(dataSource);
+    }
+
+    @Test
+    @DisplayName("[nextId] Id выдаются подряд, к БД обращение раз в блок")
+    void nextId_ShouldReturnSequentialIdsAndHitDatabaseOncePerBlock() throws SQLException {
+        IdAllocator allocator = new SequenceHiLoIdAllocator(jdbcExecutor, "test_hilo_seq", BLOCK_SIZE);
+
+        for (long expected = 1000; expected < 1000 + 2 * BLOCK_SIZE + 1; expected++) {
+            assertEquals(expected, allocator.nextId());
+        }
+        assertEquals(3, jdbcExecutor.getMetrics().getBorrowCount());
+    }
+
+    @Test
+    @DisplayName("[nextId] Два экземпляра приложения получают непересекающиеся блоки")
+    void nextId_ShouldNotOverlapBetweenAllocators() throws SQLException {
+        IdAllocator first = new SequenceHiLoIdAllocator(jdbcExecutor, "test_hilo_seq", BLOCK_SIZE);
+        IdAllocator second = new SequenceHiLoIdAllocator(jdbcExecutor, "test_hilo_seq", BLOCK_SIZE);
+
+        assertEquals(1000, first.nextId());
+        assertEquals(1000 + BLOCK_SIZE, second.nextId());
+        assertEquals(1001, first.nextId());
+    }
+
+    @Test
+    @DisplayName("[nextId] Id уникальны при конкурентной выдаче")
+    void nextId_ShouldBeUniqueUnderConcurrency() throws Exception {
+        IdAllocator allocator = new SequenceHiLoIdAllocator(jdbcExecutor, "test_hilo_seq", BLOCK_SIZE);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        ids.add(allocator.nextId());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(8 * 500, ids.size());
+    }
+
+    @Test
+    @DisplayName("[constructor] Имя последовательности проверяется, так как подставляется в SQL")
+    void constructor_ShouldRejectInvalidSequenceName() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SequenceHiLoIdAllocator(jdbcExecutor, "seq'); DROP TABLE users; --", BLOCK_SIZE));
+    }
+}
@@ -0,0 +1,141 @@
+package org.habitApp.repositories.impl;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.habitApp.domain.entities.HabitStreakEntity;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Пакетное добавление дат выполнения на H2 в режиме совместимости с PostgreSQL.
+ */
+class HabitCompletionHistoryBatchInsertTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 10, 1);
+
+    private JdbcDataSource dataSource;
+    private HabitCompletionHistoryRepositoryImpl repository;
+    private HabitRepositoryImpl habitRepository;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:batch;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS habit_completion_history");
+            statement.execute("CREATE TABLE habit_completion_history (id BIGINT PRIMARY KEY, habit_id BIGINT NOT NULL, " +
+                    "user_id BIGINT NOT NULL, completion_date DATE NOT NULL, UNIQUE (habit_id, completion_date))");
+            statement.execute("DROP TABLE IF EXISTS habits");
+            statement.execute("CREATE TABLE habits (id BIGINT PRIMARY KEY, current_streak INT DEFAULT 0 NOT NULL, " +
+                    "longest_streak INT DEFAULT 0 NOT NULL, last_completed_date DATE)");
+            statement.execute("INSERT INTO habits (id) VALUES (1), (2)");
+        }
+        repository = new HabitCompletionHistoryRepositoryImpl(new JdbcExecutor(dataSource), ids::incrementAndGet);
+        habitRepository = new HabitRepositoryImpl(new JdbcExecutor(dataSource), ids::incrementAndGet);
+    }
+
+    @Test
+    @DisplayName("[addCompletionDatesByHabitIdUserId] Добавляет все новые даты")
+    void shouldInsertAllNewDates() throws SQLException {
+        int added = repository.addCompletionDatesByHabitIdUserId(1L, 1L,
+                List.of(START, START.plusDays(1), START.plusDays(2)));
+
+        assertEquals(3, added);
+        assertEquals(3, repository.countCompletionsBetween(1L, START, START.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("[addCompletionDatesByHabitIdUserId] Пропускает уже отмеченные дни и повторы в наборе")
+    void shouldSkipExistingAndRepeatedDates() throws SQLException {
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(1));
+        repository.addCompletionDateByHabitIdUserId(2L, 1L, START);
+
+        int added = repository.addCompletionDatesByHabitIdUserId(1L, 1L,
+                List.of(START, START.plusDays(1), START.plusDays(1), START.plusDays(2)));
+
+        assertEquals(2, added);
+        assertEquals(3, repository.countCompletionsBetween(1L, START, START.plusDays(2)));
+        assertEquals(1, repository.countCompletionsBetween(2L, START, START.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("[addCompletionDatesByHabitIdUserId] Откатывает весь пакет при ошибке")
+    void shouldRollBackWholeBatchOnFailure() throws SQLException {
+        HabitCompletionHistoryRepositoryImpl failingRepository =
+                new HabitCompletionHistoryRepositoryImpl(new JdbcExecutor(dataSource), () -> 1L);
+
+        assertThrows(SQLException.class, () -> failingRepository.addCompletionDatesByHabitIdUserId(1L, 1L,
+                List.of(START, START.plusDays(1))));
+        assertEquals(0, repository.countCompletionsBetween(1L, START, START.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("[addCompletionDatesByHabitIdUserId] Пустой набор не обращается к БД")
+    void shouldReturnZeroForEmptyBatch() throws SQLException {
+        assertEquals(0, repository.addCompletionDatesByHabitIdUserId(1L, 1L, List.of()));
+    }
+
+    @Test
+    @DisplayName("[addCompletionDateByHabitIdUserId] Отметка за следующий день продлевает серию, пропуск начинает новую")
+    void shouldAdvanceStreakOnSingleCompletion() throws SQLException {
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START);
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(1));
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(2));
+        assertEquals(new HabitStreakEntity(1L, 3, 3, START.plusDays(2)), habitRepository.findStreakById(1L).orElseThrow());
+
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(2));
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(5));
+        assertEquals(new HabitStreakEntity(1L, 1, 3, START.plusDays(5)), habitRepository.findStreakById(1L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("[addCompletionDatesByHabitIdUserId] Отметки задним числом пересчитывают серии по истории")
+    void shouldRecalculateStreakOnBackfill() throws SQLException {
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(3));
+        repository.addCompletionDateByHabitIdUserId(1L, 1L, START.plusDays(1));
+        assertEquals(new HabitStreakEntity(1L, 1, 1, START.plusDays(3)), habitRepository.findStreakById(1L).orElseThrow());
+
+        repository.addCompletionDatesByHabitIdUserId(1L, 1L, List.of(START, START.plusDays(2)));
+
+        assertEquals(new HabitStreakEntity(1L, 4, 4, START.plusDays(3)), habitRepository.findStreakById(1L).orElseThrow());
+        assertEquals(new HabitStreakEntity(2L, 0, 0, null), habitRepository.findStreakById(2L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("[addCompletionDatesByHabitIdUserId] Пересчет ждет параллельную отметку и учитывает ее")
+    void shouldNotOverwriteConcurrentAdvance() throws Exception {
+        try (Connection concurrent = dataSource.getConnection(); Statement statement = concurrent.createStatement()) {
+            concurrent.setAutoCommit(false);
+            statement.execute("INSERT INTO habit_completion_history VALUES (100, 1, 1, DATE '2024-10-02')");
+            statement.execute("UPDATE habits SET current_streak = 1, longest_streak = 1, " +
+                    "last_completed_date = DATE '2024-10-02' WHERE id = 1");
+
+            CompletableFuture<Integer> backfill = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return repository.addCompletionDatesByHabitIdUserId(1L, 1L, List.of(START));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Thread.sleep(300);
+            concurrent.commit();
+
+            assertEquals(1, backfill.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(new HabitStreakEntity(1L, 2, 2, START.plusDays(1)), habitRepository.findStreakById(1L).orElseThrow());
+    }
+}
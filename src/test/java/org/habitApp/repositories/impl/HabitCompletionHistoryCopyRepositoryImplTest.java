@@ -0,0 +1,49 @@
+package org.habitApp.repositories.impl;
+
+import org.habitApp.models.CopyFormat;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitCompletionHistoryCopyRepositoryImplTest {
+
+    @Mock
+    private JdbcExecutor jdbcExecutor;
+
+    @InjectMocks
+    private HabitCompletionHistoryCopyRepositoryImpl copyRepository;
+
+    @Test
+    @DisplayName("[copyOut] Отклоняет выгрузку, если СУБД не PostgreSQL")
+    void copyOutShouldRejectNonPostgreSql() throws SQLException {
+        when(jdbcExecutor.isPostgreSql()).thenReturn(false);
+
+        assertThrows(SQLFeatureNotSupportedException.class,
+                () -> copyRepository.copyOut(CopyFormat.CSV, new ByteArrayOutputStream()));
+        verify(jdbcExecutor, never()).execute(any());
+    }
+
+    @Test
+    @DisplayName("[copyIn] Отклоняет загрузку, если СУБД не PostgreSQL")
+    void copyInShouldRejectNonPostgreSql() throws SQLException {
+        when(jdbcExecutor.isPostgreSql()).thenReturn(false);
+
+        assertThrows(SQLFeatureNotSupportedException.class,
+                () -> copyRepository.copyIn(CopyFormat.BINARY, new ByteArrayInputStream(new byte[0])));
+        verify(jdbcExecutor, never()).inTransaction(any());
+    }
+}
@@ -1,11 +1,13 @@
 package org.habitApp.repositories.impl;
 
 import org.habitApp.domain.entities.HabitCompletionHistoryEntity;
+import org.habitApp.models.Period;
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -13,8 +15,10 @@ import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import static org.habitApp.repositories.constants.HabitCompletionHistorySqlQueries.*;
+import static org.habitApp.repositories.constants.HabitSqlQueries.ADVANCE_HABIT_STREAK;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,10 +35,18 @@ class HabitCompletionHistoryRepositoryImplTest {
     @Mock
     private PreparedStatement preparedStatement;
 
+    @Mock
+    private PreparedStatement advanceStatement;
+
     @Mock
     private ResultSet resultSet;
 
-    @InjectMocks
+    @Mock
+    private IdAllocator idAllocator;
+
+    @Mock
+    private DatabaseMetaData databaseMetaData;
+
     private HabitCompletionHistoryRepositoryImpl repository;
 
     private HabitCompletionHistoryEntity habitCompletionHistoryEntity;
@@ -42,6 +54,7 @@ class HabitCompletionHistoryRepositoryImplTest {
     @BeforeEach
     void setUp() throws SQLException {
         lenient().when(dataSource.getConnection()).thenReturn(connection);
+        repository = new HabitCompletionHistoryRepositoryImpl(new JdbcExecutor(dataSource), idAllocator);
         habitCompletionHistoryEntity = new HabitCompletionHistoryEntity(1L, 1L, 1L, LocalDate.now());
     }
 
@@ -60,6 +73,62 @@ class HabitCompletionHistoryRepositoryImplTest {
         verify(preparedStatement).setLong(1, habitId);
     }
 
+    @Test
+    @DisplayName("[countCompletionsBetween] Должен посчитать выполнения в диапазоне дат на стороне БД")
+    void testCountCompletionsBetween() throws SQLException {
+        LocalDate from = LocalDate.of(2024, 10, 1);
+        LocalDate to = LocalDate.of(2024, 10, 7);
+        when(connection.prepareStatement(COUNT_COMPLETIONS_BETWEEN)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(5);
+
+        int count = repository.countCompletionsBetween(1L, from, to);
+
+        assertEquals(5, count);
+        verify(preparedStatement).setLong(1, 1L);
+        verify(preparedStatement).setDate(2, Date.valueOf(from));
+        verify(preparedStatement).setDate(3, Date.valueOf(to.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("[countCompletionsGroupedBy] Должен вернуть количество выполнений по неделям")
+    void testCountCompletionsGroupedBy() throws SQLException {
+        LocalDate from = LocalDate.of(2024, 10, 1);
+        LocalDate to = LocalDate.of(2024, 10, 31);
+        when(connection.prepareStatement(COUNT_COMPLETIONS_GROUPED_BY_PERIOD)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getDate("period_start")).thenReturn(
+                Date.valueOf(LocalDate.of(2024, 9, 30)), Date.valueOf(LocalDate.of(2024, 10, 7)));
+        when(resultSet.getInt("completion_count")).thenReturn(3, 6);
+
+        Map<LocalDate, Integer> counts = repository.countCompletionsGroupedBy(1L, Period.WEEK, from, to);
+
+        assertEquals(List.of(LocalDate.of(2024, 9, 30), LocalDate.of(2024, 10, 7)), List.copyOf(counts.keySet()));
+        assertEquals(List.of(3, 6), List.copyOf(counts.values()));
+        verify(preparedStatement).setString(1, "week");
+        verify(preparedStatement).setLong(2, 1L);
+    }
+
+    @Test
+    @DisplayName("[getCompletionHistoryForUserHabits] Должен вернуть даты выполнения по каждой привычке пользователя")
+    void testGetCompletionHistoryForUserHabits() throws SQLException {
+        LocalDate first = LocalDate.of(2024, 10, 1);
+        LocalDate second = LocalDate.of(2024, 10, 2);
+        when(connection.prepareStatement(GET_COMPLETION_HISTORY_FOR_USER_HABITS)).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getLong("habit_id")).thenReturn(3L, 5L, 3L);
+        when(resultSet.getDate("completion_date"))
+                .thenReturn(Date.valueOf(first), Date.valueOf(first), Date.valueOf(second));
+
+        Map<Long, List<LocalDate>> history = repository.getCompletionHistoryForUserHabits(1L);
+
+        assertEquals(Map.of(3L, List.of(first, second), 5L, List.of(first)), history);
+        verify(preparedStatement).setLong(1, 1L);
+    }
+
     @Test
     @DisplayName("[addCompletionDateByHabitIdUserId] Должен добавить дату выполнения по ID привычки и ID пользователя")
     void testAddCompletionDateByHabitIdUserId() throws SQLException {
@@ -67,29 +136,71 @@ class HabitCompletionHistoryRepositoryImplTest {
         long userId = 1L;
         LocalDate completionDate = LocalDate.now();
 
-        when(connection.prepareStatement(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID)).thenReturn(preparedStatement);
+        when(idAllocator.nextId()).thenReturn(10L);
+        when(connection.getMetaData()).thenReturn(databaseMetaData);
+        when(databaseMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.prepareStatement(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID_ON_CONFLICT_DO_NOTHING)).thenReturn(preparedStatement);
+        when(connection.prepareStatement(ADVANCE_HABIT_STREAK)).thenReturn(advanceStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+        when(advanceStatement.executeUpdate()).thenReturn(1);
 
-        repository.addCompletionDateByHabitIdUserId(habitId, userId, completionDate);
+        boolean added = repository.addCompletionDateByHabitIdUserId(habitId, userId, completionDate);
 
-        verify(preparedStatement).setLong(eq(1), anyLong());
+        assertTrue(added);
+        verify(preparedStatement).setLong(1, 10L);
         verify(preparedStatement).setLong(2, habitId);
         verify(preparedStatement).setLong(3, userId);
         verify(preparedStatement).setDate(4, Date.valueOf(completionDate));
         verify(preparedStatement).executeUpdate();
+        verify(advanceStatement).setLong(4, habitId);
+        verify(advanceStatement).setDate(5, Date.valueOf(completionDate));
+        verify(connection).commit();
+    }
+
+    @Test
+    @DisplayName("[addCompletionDateByHabitIdUserId] Повторная отметка за день не добавляется (ON CONFLICT DO NOTHING)")
+    void testAddCompletionDateByHabitIdUserIdConflict() throws SQLException {
+        when(connection.getMetaData()).thenReturn(databaseMetaData);
+        when(databaseMetaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+        when(connection.prepareStatement(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID_ON_CONFLICT_DO_NOTHING)).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(0);
+
+        assertFalse(repository.addCompletionDateByHabitIdUserId(1L, 1L, LocalDate.now()));
+    }
+
+    @Test
+    @DisplayName("[addCompletionDateByHabitIdUserId] Для других СУБД повтор определяется по нарушению уникального индекса")
+    void testAddCompletionDateByHabitIdUserIdUniqueViolation() throws SQLException {
+        when(connection.getMetaData()).thenReturn(databaseMetaData);
+        when(databaseMetaData.getDatabaseProductName()).thenReturn("H2");
+        when(connection.prepareStatement(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID)).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("duplicate", "23505"));
+
+        assertFalse(repository.addCompletionDateByHabitIdUserId(1L, 1L, LocalDate.now()));
+    }
+
+    @Test
+    @DisplayName("[addCompletionDateByHabitIdUserId] Нарушение внешнего ключа не считается повторной отметкой")
+    void testAddCompletionDateByHabitIdUserIdForeignKeyViolation() throws SQLException {
+        when(connection.getMetaData()).thenReturn(databaseMetaData);
+        when(databaseMetaData.getDatabaseProductName()).thenReturn("H2");
+        when(connection.prepareStatement(ADD_COMPLETION_DATE_BY_HABIT_ID_USER_ID)).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("habit deleted", "23503"));
+
+        assertThrows(SQLException.class, () -> repository.addCompletionDateByHabitIdUserId(1L, 1L, LocalDate.now()));
     }
 
     @Test
     @DisplayName("[create] Должен создать новую запись в истории выполнения привычки")
     void testCreate() throws SQLException {
-        when(connection.prepareStatement(CREATE_COMPLETION_HISTORY, Statement.RETURN_GENERATED_KEYS)).thenReturn(preparedStatement);
-        when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getLong(1)).thenReturn(10L);
+        when(idAllocator.nextId()).thenReturn(10L);
+        when(connection.prepareStatement(CREATE_COMPLETION_HISTORY)).thenReturn(preparedStatement);
 
         HabitCompletionHistoryEntity result = repository.create(habitCompletionHistoryEntity);
 
         assertNotNull(result.getId());
         assertEquals(10L, result.getId());
+        verify(preparedStatement).setLong(1, 10L);
         verify(preparedStatement).executeUpdate();
     }
 
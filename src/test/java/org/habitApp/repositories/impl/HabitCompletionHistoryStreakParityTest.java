@@ -0,0 +1,123 @@
+package org.habitApp.repositories.impl;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.habitApp.domain.dto.habitDto.HabitStreakDto;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.habitApp.utils.StreakCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сверка SQL-подсчета серий (оконные функции) с подсчетом в памяти.
+ * Запрос выполняется на H2 в режиме совместимости с PostgreSQL.
+ */
+class HabitCompletionHistoryStreakParityTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 10, 20);
+    private static final int HABITS = 200;
+
+    private JdbcDataSource dataSource;
+    private HabitCompletionHistoryRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:streaks;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS habit_completion_history");
+            statement.execute("CREATE TABLE habit_completion_history (id BIGINT PRIMARY KEY, habit_id BIGINT NOT NULL, " +
+                    "user_id BIGINT NOT NULL, completion_date DATE NOT NULL, UNIQUE (habit_id, completion_date))");
+        }
+        repository = new HabitCompletionHistoryRepositoryImpl(new JdbcExecutor(dataSource), () -> 0L);
+    }
+
+    @Test
+    @DisplayName("[getStreaks] SQL и подсчет в памяти дают одинаковые серии")
+    void sqlAndInMemoryStreaksShouldMatch() throws SQLException {
+        Random random = new Random(42);
+        List<List<LocalDate>> histories = new ArrayList<>();
+        long id = 1;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO habit_completion_history VALUES (?, ?, ?, ?)")) {
+            for (int habitId = 0; habitId < HABITS; habitId++) {
+                List<LocalDate> history = randomHistory(random);
+                histories.add(history);
+                for (LocalDate date : new TreeSet<>(history)) {
+                    insert.setLong(1, id++);
+                    insert.setLong(2, habitId);
+                    insert.setLong(3, 1L);
+                    insert.setDate(4, Date.valueOf(date));
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        for (int habitId = 0; habitId < HABITS; habitId++) {
+            HabitStreakDto expected = StreakCalculator.calculate(histories.get(habitId), TODAY);
+            HabitStreakDto actual = repository.getStreaksFromDatabase(habitId, TODAY);
+            assertEquals(expected, actual, "habit " + habitId + " history " + histories.get(habitId));
+        }
+    }
+
+    @Test
+    @DisplayName("[calculateStreakState] SQL и подсчет в памяти дают одинаковые значения для колонок серий")
+    void sqlAndInMemoryStreakStateShouldMatch() throws SQLException {
+        Random random = new Random(7);
+        List<List<LocalDate>> histories = new ArrayList<>();
+        long id = 1;
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO habit_completion_history VALUES (?, ?, ?, ?)")) {
+            for (int habitId = 0; habitId < HABITS; habitId++) {
+                List<LocalDate> history = randomHistory(random);
+                histories.add(history);
+                for (LocalDate date : new TreeSet<>(history)) {
+                    insert.setLong(1, id++);
+                    insert.setLong(2, habitId);
+                    insert.setLong(3, 1L);
+                    insert.setDate(4, Date.valueOf(date));
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        for (int habitId = 0; habitId < HABITS; habitId++) {
+            // На H2 calculateStreakState считает серии в памяти
+            assertEquals(repository.calculateStreakState(habitId), repository.calculateStreakStateFromDatabase(habitId),
+                    "habit " + habitId + " history " + histories.get(habitId));
+        }
+    }
+
+    /**
+     * История со случайными сериями и пропусками.
+     * Повторные отметки за день попадают в подсчет в памяти, в таблицу их не пускает уникальный индекс.
+     */
+    private List<LocalDate> randomHistory(Random random) {
+        List<LocalDate> history = new ArrayList<>();
+        LocalDate day = TODAY.minusDays(random.nextInt(60));
+        int length = random.nextInt(40);
+        for (int i = 0; i < length; i++) {
+            history.add(day);
+            if (random.nextInt(10) == 0) {
+                history.add(day);
+            }
+            day = day.minusDays(random.nextInt(4) == 0 ? 1 + random.nextInt(3) : 1);
+        }
+        return history;
+    }
+}
@@ -3,11 +3,12 @@ package org.habitApp.repositories.impl;
 import org.habitApp.domain.entities.HabitEntity;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.models.Role;
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -35,7 +36,9 @@ public class HabitRepositoryImplTest {
     @Mock
     private ResultSet resultSet;
 
-    @InjectMocks
+    @Mock
+    private IdAllocator idAllocator;
+
     private HabitRepositoryImpl habitRepository;
 
     private HabitEntity habitEntity;
@@ -44,6 +47,7 @@ public class HabitRepositoryImplTest {
     @BeforeEach
     void setUp() throws SQLException {
         lenient().when(dataSource.getConnection()).thenReturn(connection);
+        habitRepository = new HabitRepositoryImpl(new JdbcExecutor(dataSource), idAllocator);
         habitEntity = new HabitEntity(1L, "Test Habit", "Description", "Daily", LocalDate.now(), 1L);
         userEntity = new UserEntity(1L, "test@example.com", "password123", "Test User", Role.ROLE_USER);
     }
@@ -122,15 +126,17 @@ public class HabitRepositoryImplTest {
     @Test
     @DisplayName("[create] Создание привычки - Успешно")
     void testCreate() throws SQLException {
-        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(preparedStatement);
-        when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getLong(1)).thenReturn(1L);
+        when(idAllocator.nextId()).thenReturn(1000L);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
 
         HabitEntity createdHabit = habitRepository.create(habitEntity);
 
         assertNotNull(createdHabit);
-        assertEquals(1L, createdHabit.getId());
+        assertEquals(1000L, createdHabit.getId());
+        verify(preparedStatement).setLong(1, 1000L);
+        verify(preparedStatement).setString(2, habitEntity.getName());
+        verify(preparedStatement).setLong(6, habitEntity.getUserId());
+        verify(preparedStatement).executeUpdate();
     }
 
     @Test
@@ -155,6 +161,55 @@ public class HabitRepositoryImplTest {
         assertTrue(result);
     }
 
+    @Test
+    @DisplayName("[findByIdAndUserId] Привычка другого пользователя не найдена")
+    void testFindByIdAndUserIdNotOwned() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(false);
+
+        Optional<HabitEntity> result = habitRepository.findByIdAndUserId(habitEntity.getId(), 2L);
+
+        assertTrue(result.isEmpty());
+        verify(preparedStatement).setLong(1, habitEntity.getId());
+        verify(preparedStatement).setLong(2, 2L);
+    }
+
+    @Test
+    @DisplayName("[updateByIdAndUserId] Обновление привычки с условием на владельца - Успешно")
+    void testUpdateByIdAndUserId() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        boolean result = habitRepository.updateByIdAndUserId(habitEntity, userEntity.getId());
+
+        assertTrue(result);
+        verify(preparedStatement).setLong(4, habitEntity.getId());
+        verify(preparedStatement).setLong(5, userEntity.getId());
+    }
+
+    @Test
+    @DisplayName("[deleteByIdAndUserId] Удаление чужой привычки не затрагивает строк")
+    void testDeleteByIdAndUserIdNotOwned() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeUpdate()).thenReturn(0);
+
+        boolean result = habitRepository.deleteByIdAndUserId(habitEntity.getId(), 2L);
+
+        assertFalse(result);
+    }
+
+    @Test
+    @DisplayName("[existsById] Проверка существования привычки")
+    void testExistsById() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(true);
+
+        assertTrue(habitRepository.existsById(habitEntity.getId()));
+    }
+
     @Test
     @DisplayName("[mapRowToEntity] Преобразование строки результата в объект HabitEntity - Успешно")
     void testMapRowToEntity() throws SQLException {
@@ -0,0 +1,136 @@
+package org.habitApp.repositories.impl;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardEntryDto;
+import org.habitApp.domain.entities.HabitStreakEntity;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Запросы к колонкам серий в habits на H2 в режиме совместимости с PostgreSQL.
+ */
+class HabitRepositoryStreakColumnsTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 10, 20);
+
+    private JdbcDataSource dataSource;
+    private HabitRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:streak_columns;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS habits");
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, username VARCHAR(255))");
+            statement.execute("INSERT INTO users VALUES (1, 'alice'), (2, 'bob'), (3, 'carol')");
+            statement.execute("CREATE TABLE habits (id BIGINT PRIMARY KEY, user_id BIGINT NOT NULL, " +
+                    "current_streak INT DEFAULT 0 NOT NULL, longest_streak INT DEFAULT 0 NOT NULL, last_completed_date DATE)");
+            statement.execute("INSERT INTO habits (id, user_id, current_streak, longest_streak, last_completed_date) VALUES " +
+                    "(1, 1, 3, 3, DATE '2024-10-20'), " +
+                    "(2, 1, 2, 5, DATE '2024-10-19'), " +
+                    "(3, 2, 4, 4, DATE '2024-10-18'), " +
+                    "(4, 2, 1, 6, DATE '2024-09-01'), " +
+                    "(5, 3, 0, 2, DATE '2024-08-01'), " +
+                    "(6, 3, 0, 0, NULL), " +
+                    "(7, 2, 7, 7, DATE '2024-10-01')");
+        }
+        repository = new HabitRepositoryImpl(new JdbcExecutor(dataSource), () -> 0L);
+    }
+
+    @Test
+    @DisplayName("[resetStreaksCompletedBefore] Сбрасывает только прерванные серии порциями по курсору")
+    void resetStreaksCompletedBefore_ShouldResetBrokenStreaksInChunks() throws SQLException {
+        LocalDate yesterday = TODAY.minusDays(1);
+
+        assertEquals(Optional.of(4L), repository.findBrokenStreaksChunkEnd(yesterday, 0, 2));
+        assertEquals(2, repository.resetStreaksCompletedBefore(yesterday, 0, 4));
+        assertEquals(Optional.of(7L), repository.findBrokenStreaksChunkEnd(yesterday, 4, 2));
+        assertEquals(1, repository.resetStreaksCompletedBefore(yesterday, 4, 7));
+        assertEquals(Optional.empty(), repository.findBrokenStreaksChunkEnd(yesterday, 7, 2));
+
+        assertEquals(3, repository.findStreakById(1L).orElseThrow().getCurrentStreak());
+        assertEquals(2, repository.findStreakById(2L).orElseThrow().getCurrentStreak());
+        assertEquals(new HabitStreakEntity(3L, 0, 4, TODAY.minusDays(2)), repository.findStreakById(3L).orElseThrow());
+        assertEquals(new HabitStreakEntity(4L, 0, 6, LocalDate.of(2024, 9, 1)), repository.findStreakById(4L).orElseThrow());
+        assertEquals(0, repository.findStreakById(7L).orElseThrow().getCurrentStreak());
+    }
+
+    @Test
+    @DisplayName("[resetStreaksCompletedBefore] Проход курсором сбрасывает больше двух порций, каждую строку один раз")
+    void resetStreaksCompletedBefore_ShouldWalkManyChunksByKey() throws SQLException {
+        LocalDate yesterday = TODAY.minusDays(1);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (long id = 100; id < 125; id++) {
+                statement.execute("INSERT INTO habits (id, user_id, current_streak, longest_streak, last_completed_date) " +
+                        "VALUES (" + id + ", 1, 1, 1, DATE '2024-10-01')");
+            }
+        }
+
+        long afterId = 0;
+        long rowsReset = 0;
+        List<Integer> chunkSizes = new ArrayList<>();
+        Optional<Long> chunkEnd;
+        while ((chunkEnd = repository.findBrokenStreaksChunkEnd(yesterday, afterId, 10)).isPresent()) {
+            int updated = repository.resetStreaksCompletedBefore(yesterday, afterId, chunkEnd.get());
+            chunkSizes.add(updated);
+            rowsReset += updated;
+            afterId = chunkEnd.get();
+        }
+
+        assertEquals(List.of(10, 10, 8), chunkSizes);
+        assertEquals(28, rowsReset);
+        assertEquals(124L, afterId);
+        assertEquals(3, repository.findStreakById(1L).orElseThrow().getCurrentStreak());
+        assertEquals(0, repository.findStreakById(124L).orElseThrow().getCurrentStreak());
+    }
+
+    @Test
+    @DisplayName("[updateStreakIfUnchanged] Не перезаписывает серию, измененную после чтения")
+    void updateStreakIfUnchanged_ShouldCompareStoredValues() throws SQLException {
+        HabitStreakEntity stored = repository.findStreakById(6L).orElseThrow();
+        HabitStreakEntity actual = new HabitStreakEntity(6L, 1, 1, TODAY);
+
+        assertTrue(repository.updateStreakIfUnchanged(stored, actual));
+        assertFalse(repository.updateStreakIfUnchanged(stored, new HabitStreakEntity(6L, 2, 2, TODAY)));
+        assertEquals(actual, repository.findStreakById(6L).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("[findStreakPage] Возвращает серии по возрастанию id после курсора")
+    void findStreakPage_ShouldPageById() throws SQLException {
+        assertEquals(3, repository.findStreakPage(null, 3).size());
+        assertEquals(7L, repository.findStreakPage(6L, 3).get(0).getHabitId());
+    }
+
+    @Test
+    @DisplayName("[findTopUsersByCurrentStreak] Учитывает только непрерванные серии, лучшую серию пользователя")
+    void findTopUsersByCurrentStreak_ShouldRankActiveStreaks() throws SQLException {
+        List<StreakLeaderboardEntryDto> top = repository.findTopUsersByCurrentStreak(TODAY.minusDays(1), 10);
+
+        assertEquals(List.of(new StreakLeaderboardEntryDto(1L, "alice", 3)), top);
+    }
+
+    @Test
+    @DisplayName("[findTopUsersByLongestStreak] Упорядочивает пользователей по лучшей максимальной серии")
+    void findTopUsersByLongestStreak_ShouldRankAndLimit() throws SQLException {
+        List<StreakLeaderboardEntryDto> top = repository.findTopUsersByLongestStreak(2);
+
+        assertEquals(List.of(
+                new StreakLeaderboardEntryDto(2L, "bob", 7),
+                new StreakLeaderboardEntryDto(1L, "alice", 5)), top);
+    }
+}
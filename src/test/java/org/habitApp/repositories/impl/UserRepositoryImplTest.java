@@ -2,16 +2,18 @@ package org.habitApp.repositories.impl;
 
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.models.Role;
+import org.habitApp.repositories.id.IdAllocator;
+import org.habitApp.repositories.jdbc.JdbcExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import javax.sql.DataSource;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,7 +35,9 @@ public class UserRepositoryImplTest {
     @Mock
     private ResultSet resultSet;
 
-    @InjectMocks
+    @Mock
+    private IdAllocator idAllocator;
+
     private UserRepositoryImpl userRepository;
 
     private UserEntity userEntity;
@@ -41,6 +45,7 @@ public class UserRepositoryImplTest {
     @BeforeEach
     void setUp() throws SQLException {
         lenient().when(dataSource.getConnection()).thenReturn(connection);
+        userRepository = new UserRepositoryImpl(new JdbcExecutor(dataSource), idAllocator);
         userEntity = new UserEntity(1L, "test@example.com", "password", "Test User", Role.ROLE_USER);
     }
 
@@ -107,8 +112,8 @@ public class UserRepositoryImplTest {
     @Test
     @DisplayName("[findAll] Получение всех пользователей - Успешно")
     void testFindAll() throws SQLException {
-        when(connection.createStatement()).thenReturn(preparedStatement);
-        when(preparedStatement.executeQuery(anyString())).thenReturn(resultSet);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
         when(resultSet.next()).thenReturn(true, false);
         when(resultSet.getLong("id")).thenReturn(userEntity.getId());
         when(resultSet.getString("email")).thenReturn(userEntity.getEmail());
@@ -123,18 +128,36 @@ public class UserRepositoryImplTest {
         assertEquals(userEntity, users.get(0));
     }
 
+    @Test
+    @DisplayName("[findPage] Получение страницы пользователей после курсора - Успешно")
+    void testFindPage() throws SQLException {
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, false);
+        when(resultSet.getLong("id")).thenReturn(userEntity.getId());
+        when(resultSet.getString("email")).thenReturn(userEntity.getEmail());
+        when(resultSet.getString("password")).thenReturn(userEntity.getPassword());
+        when(resultSet.getString("username")).thenReturn(userEntity.getUsername());
+        when(resultSet.getString("role")).thenReturn(userEntity.getRole().toString());
+
+        List<UserEntity> users = userRepository.findPage(null, 50);
+
+        assertEquals(List.of(userEntity), users);
+        verify(preparedStatement).setLong(1, Long.MIN_VALUE);
+        verify(preparedStatement).setInt(2, 50);
+    }
+
     @Test
     @DisplayName("[create] Создание пользователя - Успешно")
     void testCreate() throws SQLException {
-        when(connection.prepareStatement(anyString(), eq(Statement.RETURN_GENERATED_KEYS))).thenReturn(preparedStatement);
-        when(preparedStatement.getGeneratedKeys()).thenReturn(resultSet);
-        when(resultSet.next()).thenReturn(true);
-        when(resultSet.getLong(1)).thenReturn(1L);
+        when(idAllocator.nextId()).thenReturn(1000L);
+        when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
 
         UserEntity createdUser = userRepository.create(userEntity);
 
         assertNotNull(createdUser);
-        assertEquals(1L, createdUser.getId());
+        assertEquals(1000L, createdUser.getId());
+        verify(preparedStatement).setLong(1, 1000L);
     }
 
     @Test
@@ -157,6 +180,7 @@ public class UserRepositoryImplTest {
         boolean result = userRepository.deleteById(userEntity.getId());
 
         assertTrue(result);
+        verify(connection).close();
     }
 
     @Test
@@ -173,4 +197,22 @@ public class UserRepositoryImplTest {
         assertNotNull(result);
         assertEquals(userEntity, result);
     }
+
+    @Test
+    @DisplayName("[forEachEmail] Потоковое чтение email всех пользователей")
+    void testForEachEmail() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(anyString(), eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY)))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getString("email")).thenReturn("a@example.com", "b@example.com");
+
+        List<String> emails = new ArrayList<>();
+        long rows = userRepository.forEachEmail(500, emails::add);
+
+        assertEquals(2, rows);
+        assertEquals(List.of("a@example.com", "b@example.com"), emails);
+        verify(preparedStatement).setFetchSize(500);
+    }
 }
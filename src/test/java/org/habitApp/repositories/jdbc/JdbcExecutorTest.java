@@ -0,0 +1,145 @@
+package org.habitApp.repositories.jdbc;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JdbcExecutorTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private JdbcExecutor jdbcExecutor;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(dataSource.getConnection()).thenReturn(connection);
+        lenient().when(connection.prepareStatement(anyString())).thenReturn(preparedStatement);
+        jdbcExecutor = new JdbcExecutor(dataSource);
+    }
+
+    @Test
+    @DisplayName("[queryForList] Соединение возвращается в пул после выполнения запроса")
+    void queryForList_ShouldReleaseConnection() throws SQLException {
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L);
+
+        List<Long> result = jdbcExecutor.queryForList("SELECT id FROM habits", StatementSetter.NONE,
+                rs -> rs.getLong(1));
+
+        assertEquals(List.of(1L, 2L), result);
+        verify(resultSet).close();
+        verify(preparedStatement).close();
+        verify(connection).close();
+        assertEquals(0, jdbcExecutor.getMetrics().getInFlight());
+        assertEquals(1, jdbcExecutor.getMetrics().getBorrowCount());
+    }
+
+    @Test
+    @DisplayName("[update] Соединение возвращается в пул даже при ошибке запроса")
+    void update_ShouldReleaseConnectionOnError() throws SQLException {
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("boom"));
+
+        assertThrows(SQLException.class, () -> jdbcExecutor.update("DELETE FROM habits", StatementSetter.NONE));
+
+        verify(connection).close();
+        assertEquals(0, jdbcExecutor.getMetrics().getInFlight());
+    }
+
+    @Test
+    @DisplayName("[inTransaction] Вложенные вызовы используют одно соединение и фиксируются одним commit")
+    void inTransaction_ShouldReuseConnectionAndCommit() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeUpdate()).thenReturn(1);
+
+        int updated = jdbcExecutor.inTransaction(connection ->
+                jdbcExecutor.update("UPDATE habits SET name = ?", statement -> statement.setString(1, "a"))
+                        + jdbcExecutor.update("UPDATE habits SET name = ?", statement -> statement.setString(1, "b")));
+
+        assertEquals(2, updated);
+        verify(dataSource, times(1)).getConnection();
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+        assertEquals(1, jdbcExecutor.getMetrics().getPeakInFlight());
+    }
+
+    @Test
+    @DisplayName("[inTransaction] Ошибка внутри транзакции приводит к rollback")
+    void inTransaction_ShouldRollbackOnError() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("boom"));
+
+        assertThrows(SQLException.class, () -> jdbcExecutor.inTransaction(connection ->
+                jdbcExecutor.update("UPDATE habits SET name = ?", statement -> statement.setString(1, "a"))));
+
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("[inTransaction] Ошибка rollback не подменяет исходную ошибку")
+    void inTransaction_ShouldKeepOriginalErrorWhenRollbackFails() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(preparedStatement.executeUpdate()).thenThrow(new SQLException("boom"));
+        SQLException rollbackError = new SQLException("connection lost");
+        doThrow(rollbackError).when(connection).rollback();
+
+        SQLException thrown = assertThrows(SQLException.class, () -> jdbcExecutor.inTransaction(connection ->
+                jdbcExecutor.update("UPDATE habits SET name = ?", statement -> statement.setString(1, "a"))));
+
+        assertEquals("boom", thrown.getMessage());
+        assertArrayEquals(new Throwable[]{rollbackError}, thrown.getSuppressed());
+        verify(connection).close();
+    }
+
+    @Test
+    @DisplayName("[queryForEach] Строки читаются курсором с fetchSize при выключенном autocommit")
+    void queryForEach_ShouldStreamRowsWithCursor() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement("SELECT id FROM habits", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+                .thenReturn(preparedStatement);
+        when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L, 3L);
+        List<Long> seen = new ArrayList<>();
+
+        long rows = jdbcExecutor.queryForEach("SELECT id FROM habits", StatementSetter.NONE, 500,
+                rs -> seen.add(rs.getLong(1)));
+
+        assertEquals(3, rows);
+        assertEquals(List.of(1L, 2L, 3L), seen);
+        verify(preparedStatement).setFetchSize(500);
+        verify(connection).setAutoCommit(false);
+        verify(connection).commit();
+        verify(resultSet).close();
+        verify(connection).close();
+    }
+}
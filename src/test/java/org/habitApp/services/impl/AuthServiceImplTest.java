@@ -1,12 +1,18 @@
 package org.habitApp.services.impl;
 
 import org.habitApp.auth.JwtUtil;
+import org.habitApp.auth.PasswordHasher;
+import org.habitApp.auth.TokenClaims;
+import org.habitApp.auth.TokenRevocationList;
+import org.habitApp.cache.EmailExistenceFilter;
+import org.habitApp.domain.dto.userDto.TokenPairDto;
 import org.habitApp.domain.dto.userDto.UserDtoLogin;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.InvalidCredentialsException;
 import org.habitApp.exceptions.UserAlreadyExistsException;
 import org.habitApp.mappers.UserMapper;
+import org.habitApp.models.Role;
 import org.habitApp.repositories.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,10 +20,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -34,6 +45,15 @@ class AuthServiceImplTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4);
+
+    @Spy
+    private TokenRevocationList tokenRevocationList = new TokenRevocationList(100, 0.01, 3_600_000);
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -50,22 +70,54 @@ class AuthServiceImplTest {
     @DisplayName("[registerUser_success] Регистрирует пользователя успешно")
     void registerUser_success() throws SQLException, UserAlreadyExistsException {
         UserEntity userEntity = new UserEntity();
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(true);
         when(userRepository.findByEmail(userDtoRegisterUpdate.getEmail())).thenReturn(Optional.empty());
         when(userMapper.userDtoRegisterUpdateToUser(userDtoRegisterUpdate)).thenReturn(userEntity);
 
         authService.registerUser(userDtoRegisterUpdate);
 
         verify(userRepository, times(1)).create(userEntity);
+        verify(emailExistenceFilter).add(userDtoRegisterUpdate.getEmail());
+        assertFalse(passwordHasher.isLegacy(userEntity.getPassword()));
+        assertTrue(passwordHasher.matches(userDtoRegisterUpdate.getPassword(), userEntity.getPassword()));
+        assertEquals(Role.ROLE_USER, userEntity.getRole());
     }
 
     @Test
     @DisplayName("[registerUser_userAlreadyExists] Ошибка регистрации: пользователь с таким email уже существует")
     void registerUser_userAlreadyExists() throws SQLException {
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(true);
         when(userRepository.findByEmail(userDtoRegisterUpdate.getEmail())).thenReturn(Optional.of(new UserEntity()));
 
         assertThrows(UserAlreadyExistsException.class, () -> authService.registerUser(userDtoRegisterUpdate));
     }
 
+    @Test
+    @DisplayName("[registerUser_newEmail] Поиск по email пропускается, если фильтр не содержит адрес")
+    void registerUser_newEmail() throws SQLException, UserAlreadyExistsException {
+        UserEntity userEntity = new UserEntity();
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(false);
+        when(userMapper.userDtoRegisterUpdateToUser(userDtoRegisterUpdate)).thenReturn(userEntity);
+
+        authService.registerUser(userDtoRegisterUpdate);
+
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userRepository).create(userEntity);
+        verify(emailExistenceFilter).add(userDtoRegisterUpdate.getEmail());
+    }
+
+    @Test
+    @DisplayName("[registerUser_uniqueViolation] Нарушение уникальности email при вставке - пользователь уже существует")
+    void registerUser_uniqueViolation() throws SQLException {
+        UserEntity userEntity = new UserEntity();
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(false);
+        when(userMapper.userDtoRegisterUpdateToUser(userDtoRegisterUpdate)).thenReturn(userEntity);
+        doThrow(new SQLException("duplicate key", "23505")).when(userRepository).create(userEntity);
+
+        assertThrows(UserAlreadyExistsException.class, () -> authService.registerUser(userDtoRegisterUpdate));
+        verify(emailExistenceFilter).add(userDtoRegisterUpdate.getEmail());
+    }
+
     @Test
     @DisplayName("[loginUser_success] Успешный вход пользователя")
     void loginUser_success() throws SQLException, InvalidCredentialsException {
@@ -73,11 +125,26 @@ class AuthServiceImplTest {
         userEntity.setPassword("password");
         userEntity.setId(1L);
         when(userRepository.findByEmail(userDtoLogin.getEmail())).thenReturn(Optional.of(userEntity));
-        when(jwtUtil.generate(userEntity.getEmail())).thenReturn("mocked_jwt_token");
+        when(jwtUtil.generate(userEntity)).thenReturn("mocked_jwt_token");
+        when(jwtUtil.generateRefresh(userEntity)).thenReturn("mocked_refresh_token");
 
-        String token = authService.loginUser(userDtoLogin);
+        TokenPairDto tokens = authService.loginUser(userDtoLogin);
 
-        assertEquals("mocked_jwt_token", token);
+        assertEquals(new TokenPairDto("mocked_jwt_token", "mocked_refresh_token"), tokens);
+        assertFalse(passwordHasher.isLegacy(userEntity.getPassword()));
+        verify(userRepository, times(1)).update(userEntity);
+    }
+
+    @Test
+    @DisplayName("[loginUser_hashedPassword] Вход по хешу пароля без повторного сохранения")
+    void loginUser_hashedPassword() throws SQLException, InvalidCredentialsException {
+        UserEntity userEntity = new UserEntity(1L, "test@example.com",
+                passwordHasher.encode("password"), "Test User", Role.ROLE_USER);
+        when(userRepository.findByEmail(userDtoLogin.getEmail())).thenReturn(Optional.of(userEntity));
+        when(jwtUtil.generate(userEntity)).thenReturn("mocked_jwt_token");
+
+        assertEquals("mocked_jwt_token", authService.loginUser(userDtoLogin).getAccessToken());
+        verify(userRepository, never()).update(any());
     }
 
     @Test
@@ -96,5 +163,110 @@ class AuthServiceImplTest {
         when(userRepository.findByEmail(userDtoLogin.getEmail())).thenReturn(Optional.empty());
 
         assertThrows(InvalidCredentialsException.class, () -> authService.loginUser(userDtoLogin));
+        // Неизвестный email проверяется по хешу BCrypt так же, как существующий
+        verify(passwordHasher).matches(eq(userDtoLogin.getPassword()), startsWith("$2a$10$"));
+    }
+
+    @Test
+    @DisplayName("[refresh_rotatesToken] Токен обновления выдает новую пару и отзывается")
+    void refresh_rotatesToken() throws SQLException, InvalidCredentialsException {
+        UserEntity userEntity = new UserEntity(1L, "test@example.com", "hash", "Test User", Role.ROLE_USER);
+        when(jwtUtil.verify("refresh")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "refresh-jti", true, Instant.now()));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(userEntity));
+        when(jwtUtil.generate(userEntity)).thenReturn("new_access");
+        when(jwtUtil.generateRefresh(userEntity)).thenReturn("new_refresh");
+
+        assertEquals(new TokenPairDto("new_access", "new_refresh"), authService.refresh("refresh"));
+        assertTrue(tokenRevocationList.isRevoked("refresh-jti"));
+        assertThrows(InvalidCredentialsException.class, () -> authService.refresh("refresh"));
+    }
+
+    @Test
+    @DisplayName("[refresh_concurrentReuse] Из параллельных запросов с одним токеном обновления пару получает один")
+    void refresh_concurrentReuse() throws Exception {
+        UserEntity userEntity = new UserEntity(1L, "test@example.com", "hash", "Test User", Role.ROLE_USER);
+        when(jwtUtil.verify("refresh")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "refresh-jti", true, Instant.now()));
+        // Оба запроса проходят предварительную проверку отзыва до того, как любой из них отзовет токен
+        CountDownLatch bothLoaded = new CountDownLatch(2);
+        when(userRepository.findByEmail("test@example.com")).thenAnswer(invocation -> {
+            bothLoaded.countDown();
+            bothLoaded.await(5, TimeUnit.SECONDS);
+            return Optional.of(userEntity);
+        });
+        when(jwtUtil.generate(userEntity)).thenReturn("new_access");
+        when(jwtUtil.generateRefresh(userEntity)).thenReturn("new_refresh");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Boolean> refresh = () -> {
+                try {
+                    authService.refresh("refresh");
+                    return true;
+                } catch (InvalidCredentialsException e) {
+                    return false;
+                }
+            };
+            List<Future<Boolean>> results = executor.invokeAll(List.of(refresh, refresh));
+            int issued = 0;
+            for (Future<Boolean> result : results) {
+                issued += result.get() ? 1 : 0;
+            }
+            assertEquals(1, issued);
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(jwtUtil, times(1)).generateRefresh(userEntity);
+    }
+
+    @Test
+    @DisplayName("[refresh_userChanged] Токен обновления, выпущенный до изменения пользователя, не принимается")
+    void refresh_userChanged() throws SQLException {
+        UserEntity userEntity = new UserEntity(1L, "test@example.com", "hash", "Test User", Role.ROLE_USER);
+        when(jwtUtil.verify("refresh")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "refresh-jti", true, Instant.now().minusSeconds(1)));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(userEntity));
+
+        tokenRevocationList.revokeUserTokens(1L);
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.refresh("refresh"));
+        verify(jwtUtil, never()).generateRefresh(any());
+    }
+
+    @Test
+    @DisplayName("[refresh_emailReassigned] Токен обновления не выдает пару другому пользователю с тем же email")
+    void refresh_emailReassigned() throws SQLException {
+        UserEntity otherUser = new UserEntity(2L, "test@example.com", "hash", "Other User", Role.ROLE_USER);
+        when(jwtUtil.verify("refresh")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "refresh-jti", true, Instant.now()));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(otherUser));
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.refresh("refresh"));
+        verify(jwtUtil, never()).generateRefresh(any());
+    }
+
+    @Test
+    @DisplayName("[refresh_accessTokenRejected] Токен доступа не принимается как токен обновления")
+    void refresh_accessTokenRejected() {
+        when(jwtUtil.verify("access")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, Instant.now().plusSeconds(60), "access-jti", false, Instant.now()));
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.refresh("access"));
+    }
+
+    @Test
+    @DisplayName("[logout_revokesTokens] Выход отзывает токен доступа и токен обновления")
+    void logout_revokesTokens() {
+        Instant expiresAt = Instant.now().plusSeconds(60);
+        when(jwtUtil.verify("access")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, expiresAt, "access-jti", false, Instant.now()));
+        when(jwtUtil.verify("refresh")).thenReturn(new TokenClaims("test@example.com", 1L, "Test User",
+                Role.ROLE_USER, expiresAt, "refresh-jti", true, Instant.now()));
+
+        authService.logout("access", "refresh");
+
+        assertTrue(tokenRevocationList.isRevoked("access-jti"));
+        assertTrue(tokenRevocationList.isRevoked("refresh-jti"));
     }
 }
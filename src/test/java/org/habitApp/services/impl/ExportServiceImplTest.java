@@ -0,0 +1,115 @@
+package org.habitApp.services.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.domain.entities.UserEntity;
+import org.habitApp.mappers.HabitMapperImpl;
+import org.habitApp.mappers.UserMapperImpl;
+import org.habitApp.models.Role;
+import org.habitApp.repositories.HabitRepository;
+import org.habitApp.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceImplTest {
+
+    private static final int FETCH_SIZE = 250;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private ExportServiceImpl exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportServiceImpl(habitRepository, userRepository,
+                new HabitMapperImpl(), new UserMapperImpl(), new ObjectMapper(), FETCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("[exportHabits] Каждая привычка пишется отдельной строкой JSON")
+    void exportHabitsShouldWriteOneLinePerHabit() throws SQLException, IOException {
+        when(habitRepository.forEachHabit(eq(FETCH_SIZE), any())).thenAnswer(invocation -> {
+            Consumer<HabitEntity> action = invocation.getArgument(1);
+            action.accept(new HabitEntity(1L, "Run", "Morning", "day", LocalDate.of(2024, 10, 1), 7L));
+            action.accept(new HabitEntity(2L, "Read", "Evening", "week", LocalDate.of(2024, 10, 2), 7L));
+            return 2L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportHabits(out);
+
+        assertEquals(2, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (String line : lines) {
+            assertTrue(line.startsWith("{"), line);
+            assertTrue(objectMapper.readTree(line).isObject());
+        }
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("Run", first.get("name").asText());
+        assertEquals(2, second.get("id").asLong());
+        assertEquals(7, second.get("userId").asLong());
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("\n"));
+    }
+
+    @Test
+    @DisplayName("[exportUsers] Хеш пароля не попадает в выгрузку")
+    void exportUsersShouldOmitPasswords() throws SQLException, IOException {
+        when(userRepository.forEachUser(eq(FETCH_SIZE), any())).thenAnswer(invocation -> {
+            Consumer<UserEntity> action = invocation.getArgument(1);
+            action.accept(new UserEntity(1L, "user@example.com", "$2a$10$hash", "user", Role.ROLE_USER));
+            return 1L;
+        });
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.exportUsers(out);
+
+        String line = out.toString(StandardCharsets.UTF_8);
+        assertTrue(line.contains("\"email\":\"user@example.com\""));
+        assertFalse(line.contains("hash"));
+    }
+
+    @Test
+    @DisplayName("[exportHabits] Ошибка записи в поток прерывает выгрузку и пробрасывается как IOException")
+    void exportHabitsShouldPropagateWriteFailure() throws SQLException {
+        when(habitRepository.forEachHabit(eq(FETCH_SIZE), any())).thenAnswer(invocation -> {
+            Consumer<HabitEntity> action = invocation.getArgument(1);
+            action.accept(new HabitEntity(1L, "Run".repeat(10_000), "", "day", LocalDate.of(2024, 10, 1), 7L));
+            return 1L;
+        });
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> exportService.exportHabits(brokenPipe));
+    }
+}
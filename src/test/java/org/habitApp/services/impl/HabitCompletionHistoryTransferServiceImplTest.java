@@ -0,0 +1,91 @@
+package org.habitApp.services.impl;
+
+import org.habitApp.cache.HabitCompletionIndex;
+import org.habitApp.cache.HabitReportCache;
+import org.habitApp.domain.dto.habitDto.HabitCompletionCopyResultDto;
+import org.habitApp.models.CopyFormat;
+import org.habitApp.repositories.HabitCompletionHistoryCopyRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitCompletionHistoryTransferServiceImplTest {
+
+    @Mock
+    private HabitCompletionHistoryCopyRepository habitCompletionHistoryCopyRepository;
+
+    @Mock
+    private HabitCompletionIndex habitCompletionIndex;
+
+    @Mock
+    private HabitReportCache habitReportCache;
+
+    @InjectMocks
+    private HabitCompletionHistoryTransferServiceImpl transferService;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("[exportTo] Возвращает число строк и скорость выгрузки")
+    void exportToShouldReportRowsAndThroughput() throws SQLException, IOException {
+        OutputStream out = new ByteArrayOutputStream();
+        when(habitCompletionHistoryCopyRepository.copyOut(CopyFormat.CSV, out)).thenReturn(1_000L);
+
+        HabitCompletionCopyResultDto result = transferService.exportTo(CopyFormat.CSV, out);
+
+        assertEquals(CopyFormat.CSV, result.getFormat());
+        assertEquals(1_000L, result.getRowsCopied());
+        assertTrue(result.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("[importFromFile] Передает содержимое файла в COPY и дополняет результат скоростью")
+    void importFromFileShouldStreamFileToRepository() throws SQLException, IOException {
+        Path file = tempDir.resolve("history.csv");
+        String csv = "id,habit_id,user_id,completion_date\n1,1,1,2024-10-01\n2,1,1,2024-10-02\n";
+        Files.writeString(file, csv);
+        when(habitCompletionHistoryCopyRepository.copyIn(eq(CopyFormat.CSV), any())).thenAnswer(invocation -> {
+            InputStream in = invocation.getArgument(1);
+            assertEquals(csv, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            return new HabitCompletionCopyResultDto(CopyFormat.CSV, 2, 1, 0, 0);
+        });
+
+        HabitCompletionCopyResultDto result = transferService.importFromFile(CopyFormat.CSV, file);
+
+        assertEquals(2, result.getRowsCopied());
+        assertEquals(1, result.getRowsInserted());
+        assertTrue(result.getRowsPerSecond() > 0);
+        verify(habitCompletionIndex).clear();
+        verify(habitReportCache).clear();
+    }
+
+    @Test
+    @DisplayName("[exportToFile] Пробрасывает ошибку БД")
+    void exportToFileShouldPropagateSqlException() throws SQLException, IOException {
+        when(habitCompletionHistoryCopyRepository.copyOut(eq(CopyFormat.BINARY), any()))
+                .thenThrow(new SQLException("COPY failed"));
+
+        assertThrows(SQLException.class,
+                () -> transferService.exportToFile(CopyFormat.BINARY, tempDir.resolve("history.bin")));
+    }
+}
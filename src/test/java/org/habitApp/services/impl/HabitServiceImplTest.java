@@ -1,7 +1,12 @@
 package org.habitApp.services.impl;
 
+import org.habitApp.cache.HabitCompletionIndex;
+import org.habitApp.cache.HabitListCache;
+import org.habitApp.cache.HabitReportCache;
 import org.habitApp.domain.dto.habitDto.HabitReportDto;
+import org.habitApp.domain.dto.habitDto.HabitStreakDto;
 import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.domain.entities.HabitStreakEntity;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.HabitAlreadyCompletedException;
 import org.habitApp.exceptions.HabitNotFoundException;
@@ -10,17 +15,21 @@ import org.habitApp.models.Period;
 import org.habitApp.models.Role;
 import org.habitApp.repositories.HabitCompletionHistoryRepository;
 import org.habitApp.repositories.HabitRepository;
+import org.habitApp.utils.CompletionBitmap;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +44,15 @@ public class HabitServiceImplTest {
     @Mock
     private HabitRepository habitRepository;
 
+    @Mock
+    private HabitCompletionIndex habitCompletionIndex;
+
+    @Spy
+    private HabitReportCache habitReportCache = new HabitReportCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private HabitListCache habitListCache = new HabitListCache(100, Duration.ofMinutes(1));
+
     @InjectMocks
     private HabitServiceImpl habitService;
 
@@ -50,18 +68,19 @@ public class HabitServiceImplTest {
     @Test
     @DisplayName("getHabitById_ShouldReturnHabit_WhenUserHasAccess")
     public void getHabitById_ShouldReturnHabit_WhenUserHasAccess() throws SQLException, HabitNotFoundException, UnauthorizedAccessException {
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(testHabit));
+        when(habitRepository.findByIdAndUserId(1L, testUser.getId())).thenReturn(Optional.of(testHabit));
 
         HabitEntity habit = habitService.getHabitById(1L, testUser);
 
         assertEquals(testHabit, habit);
-        verify(habitRepository, times(1)).findById(1L);
+        verify(habitRepository, times(1)).findByIdAndUserId(1L, testUser.getId());
     }
 
     @Test
     @DisplayName("getHabitById_ShouldThrowUnauthorizedAccessException_WhenUserDoesNotOwnHabit")
     public void getHabitById_ShouldThrowUnauthorizedAccessException_WhenUserDoesNotOwnHabit() throws SQLException {
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(testHabit));
+        when(habitRepository.findByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(habitRepository.existsById(1L)).thenReturn(true);
 
         UserEntity anotherUser = new UserEntity(2, "otherUser@example.com", "password123", "Other User", Role.ROLE_USER);
 
@@ -81,13 +100,62 @@ public class HabitServiceImplTest {
     @Test
     @DisplayName("deleteHabit_ShouldThrowUnauthorizedAccessException_WhenUserDoesNotOwnHabit")
     public void deleteHabit_ShouldThrowUnauthorizedAccessException_WhenUserDoesNotOwnHabit() throws SQLException {
-        when(habitRepository.findById(1L)).thenReturn(Optional.of(testHabit));
+        when(habitRepository.deleteByIdAndUserId(1L, 2L)).thenReturn(false);
+        when(habitRepository.existsById(1L)).thenReturn(true);
 
         UserEntity anotherUser = new UserEntity(2, "otherUser@example.com", "password123", "Other User", Role.ROLE_USER);
 
         assertThrows(UnauthorizedAccessException.class, () -> habitService.deleteHabit(1L, anotherUser));
     }
 
+    @Test
+    @DisplayName("getHabitById_ShouldThrowHabitNotFoundException_WhenHabitMissing")
+    public void getHabitById_ShouldThrowHabitNotFoundException_WhenHabitMissing() throws SQLException {
+        when(habitRepository.findByIdAndUserId(1L, testUser.getId())).thenReturn(Optional.empty());
+        when(habitRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(HabitNotFoundException.class, () -> habitService.getHabitById(1L, testUser));
+    }
+
+    @Test
+    @DisplayName("updateHabit_ShouldUpdateInSingleStatement_WhenUserOwnsHabit")
+    public void updateHabit_ShouldUpdateInSingleStatement_WhenUserOwnsHabit() throws SQLException {
+        when(habitRepository.updateByIdAndUserId(any(HabitEntity.class), eq(testUser.getId()))).thenReturn(true);
+
+        habitService.updateHabit(1L, "Renamed", "Updated", Period.WEEK, testUser);
+
+        verify(habitRepository).updateByIdAndUserId(argThat(habit -> habit.getId() == 1L
+                && habit.getName().equals("Renamed")), eq(testUser.getId()));
+        verify(habitRepository, never()).findById(anyLong());
+        verify(habitRepository, never()).existsById(anyLong());
+        verify(habitReportCache).invalidate(1L);
+        verify(habitListCache).invalidate(testUser.getId());
+    }
+
+    @Test
+    @DisplayName("updateHabit_ShouldThrowHabitNotFoundException_WhenHabitMissing")
+    public void updateHabit_ShouldThrowHabitNotFoundException_WhenHabitMissing() throws SQLException {
+        when(habitRepository.updateByIdAndUserId(any(HabitEntity.class), eq(testUser.getId()))).thenReturn(false);
+        when(habitRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(HabitNotFoundException.class,
+                () -> habitService.updateHabit(1L, "Renamed", "Updated", Period.WEEK, testUser));
+    }
+
+    @Test
+    @DisplayName("deleteHabit_ShouldDeleteInSingleStatement_WhenUserOwnsHabit")
+    public void deleteHabit_ShouldDeleteInSingleStatement_WhenUserOwnsHabit() throws SQLException {
+        when(habitRepository.deleteByIdAndUserId(1L, testUser.getId())).thenReturn(true);
+
+        habitService.deleteHabit(1L, testUser);
+
+        verify(habitCompletionIndex).evict(1L);
+        verify(habitReportCache).invalidate(1L);
+        verify(habitListCache).invalidate(testUser.getId());
+        verify(habitRepository, never()).findById(anyLong());
+        verify(habitRepository, never()).existsById(anyLong());
+    }
+
     @Test
     @DisplayName("getAllHabits_ShouldReturnUserHabits")
     public void getAllHabits_ShouldReturnUserHabits() throws SQLException {
@@ -100,52 +168,254 @@ public class HabitServiceImplTest {
         verify(habitRepository, times(1)).getHabitsByUser(testUser);
     }
 
+    @Test
+    @DisplayName("getAllHabits_ShouldReadRepositoryOnce_UntilHabitCreated")
+    public void getAllHabits_ShouldReadRepositoryOnce_UntilHabitCreated() throws SQLException {
+        when(habitRepository.getHabitsByUser(testUser)).thenReturn(List.of(testHabit));
+
+        habitService.getAllHabits(testUser);
+        habitService.getAllHabits(testUser);
+        verify(habitRepository, times(1)).getHabitsByUser(testUser);
+
+        habitService.createHabit("Read", "Read a book", Period.DAY, testUser);
+        habitService.getAllHabits(testUser);
+
+        verify(habitListCache).invalidate(testUser.getId());
+        verify(habitRepository, times(2)).getHabitsByUser(testUser);
+    }
+
     @Test
     @DisplayName("markHabitAsCompleted_ShouldThrowHabitAlreadyCompletedException_WhenCompletedToday")
     public void markHabitAsCompleted_ShouldThrowHabitAlreadyCompletedException_WhenCompletedToday() throws SQLException {
-        when(habitCompletionHistoryRepository.getCompletionHistoryForHabit(1L)).thenReturn(List.of(LocalDate.now()));
         when(habitRepository.findById(1L)).thenReturn(Optional.of(testHabit));
+        when(habitCompletionHistoryRepository.addCompletionDateByHabitIdUserId(1L, testUser.getId(), LocalDate.now()))
+                .thenReturn(false);
 
         assertThrows(HabitAlreadyCompletedException.class, () -> habitService.markHabitAsCompleted(1L));
+        verify(habitCompletionHistoryRepository, never()).getCompletionHistoryForHabit(anyLong());
+    }
+
+    @Test
+    @DisplayName("markHabitAsCompleted_ShouldInsertCompletion_WhenNotCompletedToday")
+    public void markHabitAsCompleted_ShouldInsertCompletion_WhenNotCompletedToday() throws SQLException {
+        when(habitRepository.findById(1L)).thenReturn(Optional.of(testHabit));
+        when(habitCompletionHistoryRepository.addCompletionDateByHabitIdUserId(1L, testUser.getId(), LocalDate.now()))
+                .thenReturn(true);
+
+        assertDoesNotThrow(() -> habitService.markHabitAsCompleted(1L));
+        verify(habitCompletionIndex).recordCompletion(1L, LocalDate.now());
+        verify(habitReportCache).invalidate(1L);
+    }
+
+    @Test
+    @DisplayName("markHabitAsCompleted_ShouldThrowHabitNotFoundException_WhenHabitMissing")
+    public void markHabitAsCompleted_ShouldThrowHabitNotFoundException_WhenHabitMissing() throws SQLException {
+        when(habitRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(HabitNotFoundException.class, () -> habitService.markHabitAsCompleted(1L));
+        verifyNoInteractions(habitCompletionHistoryRepository);
+    }
+
+    @Test
+    @DisplayName("markHabitAsCompletedOnDates_ShouldReturnAddedCount_WhenUserHasAccess")
+    public void markHabitAsCompletedOnDates_ShouldReturnAddedCount_WhenUserHasAccess() throws SQLException {
+        List<LocalDate> dates = List.of(LocalDate.now().minusDays(2), LocalDate.now().minusDays(1));
+        testHabit.setCreatedDate(LocalDate.now().minusDays(7));
+        when(habitRepository.findByIdAndUserId(1L, testUser.getId())).thenReturn(Optional.of(testHabit));
+        when(habitCompletionHistoryRepository.addCompletionDatesByHabitIdUserId(1L, testUser.getId(), dates))
+                .thenReturn(1);
+
+        assertEquals(1, habitService.markHabitAsCompletedOnDates(1L, dates, testUser));
+    }
+
+    @Test
+    @DisplayName("markHabitAsCompletedOnDates_ShouldThrowIllegalArgumentException_WhenDateInFuture")
+    public void markHabitAsCompletedOnDates_ShouldThrowIllegalArgumentException_WhenDateInFuture() {
+        List<LocalDate> dates = List.of(LocalDate.now(), LocalDate.now().plusDays(1));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> habitService.markHabitAsCompletedOnDates(1L, dates, testUser));
+        verifyNoInteractions(habitRepository, habitCompletionHistoryRepository);
+    }
+
+    @Test
+    @DisplayName("markHabitAsCompletedOnDates_ShouldThrowIllegalArgumentException_WhenDateBeforeCreation")
+    public void markHabitAsCompletedOnDates_ShouldThrowIllegalArgumentException_WhenDateBeforeCreation() throws SQLException {
+        List<LocalDate> dates = List.of(LocalDate.now().minusYears(30));
+        when(habitRepository.findByIdAndUserId(1L, testUser.getId())).thenReturn(Optional.of(testHabit));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> habitService.markHabitAsCompletedOnDates(1L, dates, testUser));
+        verifyNoInteractions(habitCompletionHistoryRepository, habitCompletionIndex);
+    }
+
+    @Test
+    @DisplayName("markHabitAsCompletedOnDates_ShouldThrowUnauthorizedAccessException_WhenHabitBelongsToOtherUser")
+    public void markHabitAsCompletedOnDates_ShouldThrowUnauthorizedAccessException_WhenHabitBelongsToOtherUser() throws SQLException {
+        UserEntity otherUser = new UserEntity(2, "other@example.com", "password123", "Other User", Role.ROLE_USER);
+        when(habitRepository.findByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+        when(habitRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(UnauthorizedAccessException.class,
+                () -> habitService.markHabitAsCompletedOnDates(1L, List.of(LocalDate.now()), otherUser));
+        verifyNoInteractions(habitCompletionHistoryRepository);
     }
 
     @Test
     @DisplayName("calculateCurrentStreak_ShouldReturnStreakCount")
     public void calculateCurrentStreak_ShouldReturnStreakCount() throws SQLException {
-        List<LocalDate> completionHistory = List.of(
-                LocalDate.now().minusDays(2),
-                LocalDate.now().minusDays(1),
-                LocalDate.now()
-        );
-
-        when(habitCompletionHistoryRepository.getCompletionHistoryForHabit(1L)).thenReturn(completionHistory);
+        when(habitRepository.findStreakById(testHabit.getId()))
+                .thenReturn(Optional.of(new HabitStreakEntity(testHabit.getId(), 3, 5, LocalDate.now().minusDays(1))));
 
         int streak = habitService.calculateCurrentStreak(testHabit);
 
         assertEquals(3, streak);
+        verifyNoInteractions(habitCompletionHistoryRepository, habitCompletionIndex);
+    }
+
+    @Test
+    @DisplayName("calculateCurrentStreak_ShouldReturnZero_WhenLastCompletionOlderThanYesterday")
+    public void calculateCurrentStreak_ShouldReturnZero_WhenLastCompletionOlderThanYesterday() throws SQLException {
+        when(habitRepository.findStreakById(testHabit.getId()))
+                .thenReturn(Optional.of(new HabitStreakEntity(testHabit.getId(), 3, 5, LocalDate.now().minusDays(2))));
+
+        assertEquals(0, habitService.calculateCurrentStreak(testHabit));
     }
 
     @Test
     @DisplayName("calculateCompletionPercentage_ShouldReturnPercentage")
     public void calculateCompletionPercentage_ShouldReturnPercentage() throws SQLException {
-        List<LocalDate> completionHistory = List.of(
-                LocalDate.now().minusDays(2),
-                LocalDate.now().minusDays(1)
-        );
-        when(habitCompletionHistoryRepository.getCompletionHistoryForHabit(1L)).thenReturn(completionHistory);
+        LocalDate today = LocalDate.now();
+        stubCompletions(today.minusDays(1), today.minusDays(3), today.minusDays(8));
 
         double percentage = habitService.calculateCompletionPercentage(testHabit, Period.WEEK);
 
-        assertTrue(percentage > 0);
+        assertEquals(2.0 / 7 * 100, percentage, 1e-9);
+        verifyNoInteractions(habitCompletionHistoryRepository);
     }
 
     @Test
     @DisplayName("generateProgressReport_ShouldReturnHabitReportDto")
     public void generateProgressReport_ShouldReturnHabitReportDto() throws SQLException {
-        when(habitCompletionHistoryRepository.getCompletionHistoryForHabit(1L)).thenReturn(List.of(LocalDate.now().minusDays(1)));
+        LocalDate today = LocalDate.now();
+        stubCompletions(today, today.minusDays(1), today.minusDays(2), today.minusDays(5));
 
         HabitReportDto report = habitService.generateProgressReport(testHabit, Period.DAY);
 
         assertNotNull(report);
+        assertEquals(3, report.getStreak());
+        assertEquals(2, report.getCompletionCount());
+        assertEquals(200.0, report.getCompletionPercentage(), 1e-9);
+        verify(habitCompletionIndex, times(1)).get(testHabit);
+        verifyNoInteractions(habitCompletionHistoryRepository);
+    }
+
+    @Test
+    @DisplayName("generateProgressReport_ShouldReturnZeroStreak_WhenLastCompletionOlderThanYesterday")
+    public void generateProgressReport_ShouldReturnZeroStreak_WhenLastCompletionOlderThanYesterday() throws SQLException {
+        LocalDate today = LocalDate.now();
+        stubCompletions(today.minusDays(2), today.minusDays(3));
+
+        HabitReportDto report = habitService.generateProgressReport(testHabit, Period.WEEK);
+
+        assertEquals(0, report.getStreak());
+        assertEquals(2, report.getCompletionCount());
+    }
+
+    @Test
+    @DisplayName("calculateHabitCompletedByPeriod_ShouldCountByBitmap")
+    public void calculateHabitCompletedByPeriod_ShouldCountByBitmap() throws SQLException {
+        LocalDate today = LocalDate.now();
+        stubCompletions(today, today.minusDays(10), today.minusMonths(1), today.minusMonths(1).minusDays(1));
+
+        int count = habitService.calculateHabitCompletedByPeriod(testHabit, Period.MONTH);
+
+        assertEquals(3, count);
+        verifyNoInteractions(habitCompletionHistoryRepository);
+    }
+
+    @Test
+    @DisplayName("generateProgressReports_ShouldBuildReportsFromSameBitmapsAsSingleReport")
+    public void generateProgressReports_ShouldBuildReportsFromSameBitmapsAsSingleReport() throws SQLException {
+        LocalDate today = LocalDate.now();
+        HabitEntity secondHabit = new HabitEntity(2, "Read", "Evening", "day", today.minusDays(10), testUser.getId());
+        HabitEntity thirdHabit = new HabitEntity(3, "Swim", "Weekend", "week", today.minusDays(10), testUser.getId());
+        when(habitRepository.getHabitsByUser(testUser)).thenReturn(List.of(thirdHabit, testHabit, secondHabit));
+        when(habitCompletionIndex.getAll(eq(testUser.getId()), anyCollection())).thenReturn(Map.of(
+                1L, bitmap(testHabit, today, today.minusDays(1), today.minusDays(2), today.minusDays(3)),
+                2L, bitmap(secondHabit, today.minusDays(4)),
+                3L, bitmap(thirdHabit)));
+
+        List<HabitReportDto> reports = habitService.generateProgressReports(testUser, Period.WEEK);
+
+        assertEquals(List.of(1L, 2L, 3L), reports.stream().map(HabitReportDto::getId).toList());
+        assertEquals(4, reports.get(0).getStreak());
+        assertEquals(4, reports.get(0).getCompletionCount());
+        assertEquals(4.0 / 7 * 100, reports.get(0).getCompletionPercentage(), 1e-9);
+        assertEquals(0, reports.get(1).getStreak());
+        assertEquals(1, reports.get(1).getCompletionCount());
+        assertEquals(0, reports.get(2).getCompletionCount());
+        assertEquals(reports.get(0), habitService.generateProgressReport(testHabit, Period.WEEK));
+        verify(habitCompletionIndex, never()).get(any());
+        verifyNoInteractions(habitCompletionHistoryRepository);
+    }
+
+    @Test
+    @DisplayName("generateProgressReports_ShouldSkipHistoryQuery_WhenUserHasNoHabits")
+    public void generateProgressReports_ShouldSkipHistoryQuery_WhenUserHasNoHabits() throws SQLException {
+        when(habitRepository.getHabitsByUser(testUser)).thenReturn(List.of());
+
+        assertTrue(habitService.generateProgressReports(testUser, Period.DAY).isEmpty());
+        verifyNoInteractions(habitCompletionHistoryRepository, habitCompletionIndex);
+    }
+
+    @Test
+    @DisplayName("generateProgressReport_ShouldReturnCachedReport_UntilHabitCompleted")
+    public void generateProgressReport_ShouldReturnCachedReport_UntilHabitCompleted() throws SQLException {
+        LocalDate today = LocalDate.now();
+        stubCompletions(today.minusDays(1));
+
+        HabitReportDto first = habitService.generateProgressReport(testHabit, Period.WEEK);
+        double percentage = habitService.calculateCompletionPercentage(testHabit, Period.WEEK);
+        int count = habitService.calculateHabitCompletedByPeriod(testHabit, Period.WEEK);
+
+        assertEquals(first.getCompletionPercentage(), percentage, 1e-9);
+        assertEquals(1, count);
+        verify(habitCompletionIndex, times(1)).get(testHabit);
+
+        when(habitRepository.findById(1L)).thenReturn(Optional.of(testHabit));
+        when(habitCompletionHistoryRepository.addCompletionDateByHabitIdUserId(1L, testUser.getId(), today))
+                .thenReturn(true);
+        habitService.markHabitAsCompleted(1L);
+        habitService.generateProgressReport(testHabit, Period.WEEK);
+
+        verify(habitCompletionIndex, times(2)).get(testHabit);
+        assertEquals(1, habitReportCache.getStats().getInvalidations());
+    }
+
+    /**
+     * Битовая карта дней выполнения тестовой привычки
+     *
+     * @param days дни выполнения
+     */
+    private void stubCompletions(LocalDate... days) throws SQLException {
+        CompletionBitmap bitmap = bitmap(testHabit, days);
+        when(habitCompletionIndex.get(testHabit)).thenReturn(bitmap);
+    }
+
+    /**
+     * Загруженная битовая карта дней выполнения привычки
+     *
+     * @param habit привычка
+     * @param days  дни выполнения
+     * @return битовая карта
+     */
+    private CompletionBitmap bitmap(HabitEntity habit, LocalDate... days) {
+        CompletionBitmap bitmap = new CompletionBitmap(habit.getCreatedDate());
+        for (LocalDate day : days) {
+            bitmap.set(day);
+        }
+        bitmap.markLoaded();
+        return bitmap;
     }
 }
@@ -0,0 +1,90 @@
+package org.habitApp.services.impl;
+
+import org.habitApp.domain.dto.habitDto.HabitStreakRepairResultDto;
+import org.habitApp.domain.entities.HabitStreakEntity;
+import org.habitApp.repositories.HabitCompletionHistoryRepository;
+import org.habitApp.repositories.HabitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitStreakRepairServiceImplTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final LocalDate DAY = LocalDate.now();
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Mock
+    private HabitCompletionHistoryRepository habitCompletionHistoryRepository;
+
+    private HabitStreakRepairServiceImpl repairService;
+
+    @BeforeEach
+    void setUp() {
+        repairService = new HabitStreakRepairServiceImpl(habitRepository, habitCompletionHistoryRepository, CHUNK_SIZE);
+    }
+
+    @Test
+    @DisplayName("[repairStreaks] Обходит привычки страницами и исправляет только расхождения")
+    void repairStreaks_ShouldFixOnlyMismatchedStreaks() throws SQLException {
+        HabitStreakEntity consistent = new HabitStreakEntity(1L, 2, 4, DAY);
+        HabitStreakEntity stale = new HabitStreakEntity(2L, 0, 0, null);
+        HabitStreakEntity staleActual = new HabitStreakEntity(2L, 1, 3, DAY);
+        HabitStreakEntity lastHabit = new HabitStreakEntity(5L, 0, 0, null);
+        when(habitRepository.findStreakPage(null, CHUNK_SIZE)).thenReturn(List.of(consistent, stale));
+        when(habitRepository.findStreakPage(2L, CHUNK_SIZE)).thenReturn(List.of(lastHabit));
+        when(habitCompletionHistoryRepository.calculateStreakState(1L)).thenReturn(consistent);
+        when(habitCompletionHistoryRepository.calculateStreakState(2L)).thenReturn(staleActual);
+        when(habitCompletionHistoryRepository.calculateStreakState(5L)).thenReturn(lastHabit);
+        when(habitRepository.updateStreakIfUnchanged(stale, staleActual)).thenReturn(true);
+
+        HabitStreakRepairResultDto result = repairService.repairStreaks();
+
+        assertEquals(3, result.getChecked());
+        assertEquals(1, result.getRepaired());
+        verify(habitRepository, times(1)).updateStreakIfUnchanged(any(), any());
+    }
+
+    @Test
+    @DisplayName("[repairStreaks] Серия, измененная во время пересчета, не считается исправленной")
+    void repairStreaks_ShouldSkipConcurrentlyUpdatedStreak() throws SQLException {
+        HabitStreakEntity stored = new HabitStreakEntity(1L, 0, 0, null);
+        HabitStreakEntity actual = new HabitStreakEntity(1L, 1, 1, DAY);
+        when(habitRepository.findStreakPage(null, CHUNK_SIZE)).thenReturn(List.of(stored));
+        when(habitCompletionHistoryRepository.calculateStreakState(1L)).thenReturn(actual);
+        when(habitRepository.updateStreakIfUnchanged(stored, actual)).thenReturn(false);
+
+        HabitStreakRepairResultDto result = repairService.repairStreaks();
+
+        assertEquals(1, result.getChecked());
+        assertEquals(0, result.getRepaired());
+    }
+
+    @Test
+    @DisplayName("[repairStreaks] Прерванная серия сверяется как обнуленная")
+    void repairStreaks_ShouldTreatBrokenStreakAsReset() throws SQLException {
+        HabitStreakEntity swept = new HabitStreakEntity(1L, 0, 4, DAY.minusDays(3));
+        when(habitRepository.findStreakPage(null, CHUNK_SIZE)).thenReturn(List.of(swept));
+        when(habitCompletionHistoryRepository.calculateStreakState(1L))
+                .thenReturn(new HabitStreakEntity(1L, 2, 4, DAY.minusDays(3)));
+
+        HabitStreakRepairResultDto result = repairService.repairStreaks();
+
+        assertEquals(0, result.getRepaired());
+        verify(habitRepository, never()).updateStreakIfUnchanged(any(), any());
+    }
+}
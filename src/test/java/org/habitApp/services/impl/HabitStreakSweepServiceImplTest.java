@@ -0,0 +1,60 @@
+package org.habitApp.services.impl;
+
+import org.habitApp.domain.dto.habitDto.HabitStreakSweepResultDto;
+import org.habitApp.repositories.HabitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitStreakSweepServiceImplTest {
+
+    private static final int CHUNK_SIZE = 100;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    private HabitStreakSweepServiceImpl sweepService;
+
+    @BeforeEach
+    void setUp() {
+        sweepService = new HabitStreakSweepServiceImpl(habitRepository, CHUNK_SIZE);
+    }
+
+    @Test
+    @DisplayName("[resetBrokenStreaks] Сбрасывает серии порциями, продолжая с конца предыдущей порции")
+    void resetBrokenStreaks_ShouldResetInChunks() throws SQLException {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(habitRepository.findBrokenStreaksChunkEnd(yesterday, 0L, CHUNK_SIZE)).thenReturn(Optional.of(150L));
+        when(habitRepository.findBrokenStreaksChunkEnd(yesterday, 150L, CHUNK_SIZE)).thenReturn(Optional.of(320L));
+        when(habitRepository.findBrokenStreaksChunkEnd(yesterday, 320L, CHUNK_SIZE)).thenReturn(Optional.of(330L));
+        when(habitRepository.findBrokenStreaksChunkEnd(yesterday, 330L, CHUNK_SIZE)).thenReturn(Optional.empty());
+        when(habitRepository.resetStreaksCompletedBefore(yesterday, 0L, 150L)).thenReturn(100);
+        when(habitRepository.resetStreaksCompletedBefore(yesterday, 150L, 320L)).thenReturn(100);
+        when(habitRepository.resetStreaksCompletedBefore(yesterday, 320L, 330L)).thenReturn(7);
+
+        HabitStreakSweepResultDto result = sweepService.resetBrokenStreaks();
+
+        assertEquals(207, result.getRowsReset());
+        assertEquals(3, result.getChunks());
+        assertEquals(LocalDate.now(), result.getDay());
+        verify(habitRepository, times(4)).findBrokenStreaksChunkEnd(eq(yesterday), anyLong(), eq(CHUNK_SIZE));
+        assertEquals(result, sweepService.getLastResult().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("[getLastResult] До первого сброса результата нет")
+    void getLastResult_ShouldBeEmptyBeforeFirstSweep() {
+        assertTrue(sweepService.getLastResult().isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package org.habitApp.services.impl;
+
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardDto;
+import org.habitApp.domain.dto.habitDto.StreakLeaderboardEntryDto;
+import org.habitApp.repositories.HabitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StreakLeaderboardServiceImplTest {
+
+    private static final int SIZE = 5;
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    private StreakLeaderboardServiceImpl leaderboardService;
+
+    @BeforeEach
+    void setUp() {
+        leaderboardService = new StreakLeaderboardServiceImpl(habitRepository, SIZE);
+    }
+
+    @Test
+    @DisplayName("[getLeaderboard] Первый запрос рассчитывает таблицу, следующие возвращают сохраненную")
+    void getLeaderboard_ShouldCacheUntilNextRefresh() throws SQLException {
+        List<StreakLeaderboardEntryDto> current = List.of(new StreakLeaderboardEntryDto(1L, "alice", 3));
+        List<StreakLeaderboardEntryDto> longest = List.of(new StreakLeaderboardEntryDto(2L, "bob", 9));
+        when(habitRepository.findTopUsersByCurrentStreak(LocalDate.now().minusDays(1), SIZE)).thenReturn(current);
+        when(habitRepository.findTopUsersByLongestStreak(SIZE)).thenReturn(longest);
+
+        StreakLeaderboardDto first = leaderboardService.getLeaderboard();
+        StreakLeaderboardDto second = leaderboardService.getLeaderboard();
+
+        assertSame(first, second);
+        assertEquals(current, first.getByCurrentStreak());
+        assertEquals(longest, first.getByLongestStreak());
+        verify(habitRepository, times(1)).findTopUsersByLongestStreak(SIZE);
+    }
+
+    @Test
+    @DisplayName("[refreshLeaderboard] Пересчет заменяет сохраненную таблицу")
+    void refreshLeaderboard_ShouldReplaceCachedResult() throws SQLException {
+        when(habitRepository.findTopUsersByCurrentStreak(any(), anyInt())).thenReturn(List.of());
+        when(habitRepository.findTopUsersByLongestStreak(SIZE)).thenReturn(List.of());
+
+        StreakLeaderboardDto first = leaderboardService.getLeaderboard();
+        StreakLeaderboardDto refreshed = leaderboardService.refreshLeaderboard();
+
+        assertNotSame(first, refreshed);
+        assertSame(refreshed, leaderboardService.getLeaderboard());
+    }
+}
@@ -1,5 +1,10 @@
 package org.habitApp.services.impl;
 
+import org.habitApp.auth.PasswordHasher;
+import org.habitApp.auth.TokenRevocationList;
+import org.habitApp.cache.EmailExistenceFilter;
+import org.habitApp.cache.HabitListCache;
+import org.habitApp.cache.PrincipalCache;
 import org.habitApp.domain.dto.userDto.UserDtoRegisterUpdate;
 import org.habitApp.domain.entities.UserEntity;
 import org.habitApp.exceptions.UnauthorizedAccessException;
@@ -12,9 +17,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.sql.SQLException;
 import java.util.Optional;
@@ -31,6 +39,21 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private HabitListCache habitListCache;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private EmailExistenceFilter emailExistenceFilter;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Spy
+    private PasswordHasher passwordHasher = new PasswordHasher(new BCryptPasswordEncoder(4), 1, 4);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -56,25 +79,65 @@ class UserServiceImplTest {
     @Test
     @DisplayName("[updateCurrentUserProfile_UserAlreadyExists] Обновление профиля текущего пользователя - Email уже используется")
     void updateCurrentUserProfile_UserAlreadyExists() throws SQLException {
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(true);
         when(userRepository.findByEmail(userDtoRegisterUpdate.getEmail())).thenReturn(Optional.of(existingUser));
 
         assertThrows(UserAlreadyExistsException.class, () ->
                 userService.updateCurrentUserProfile(userDtoRegisterUpdate, currentUser)
         );
         verify(userRepository, never()).update(any());
+        verifyNoInteractions(tokenRevocationList);
     }
 
     @Test
     @DisplayName("[updateCurrentUserProfile_SuccessfulUpdate] Обновление профиля текущего пользователя - Успешное обновление")
     void updateCurrentUserProfile_SuccessfulUpdate() throws SQLException, UserNotFoundException, UserAlreadyExistsException {
-        when(userRepository.findByEmail(userDtoRegisterUpdate.getEmail())).thenReturn(Optional.empty());
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(false);
+        when(userRepository.update(any())).thenReturn(true);
 
         assertDoesNotThrow(() ->
                 userService.updateCurrentUserProfile(userDtoRegisterUpdate, currentUser)
         );
-        verify(userRepository, times(1)).update(currentUser);
-        assertEquals("new@example.com", currentUser.getEmail());
-        assertEquals("Test User", currentUser.getUsername());
+        verify(userRepository, never()).findByEmail(anyString());
+        ArgumentCaptor<UserEntity> updated = ArgumentCaptor.forClass(UserEntity.class);
+        verify(userRepository, times(1)).update(updated.capture());
+        verify(emailExistenceFilter).add("new@example.com");
+        verify(principalCache).invalidate("current@example.com");
+        verify(tokenRevocationList).revokeUserTokens(1L);
+        assertEquals(1L, updated.getValue().getId());
+        assertEquals("new@example.com", updated.getValue().getEmail());
+        assertTrue(passwordHasher.matches(userDtoRegisterUpdate.getPassword(), updated.getValue().getPassword()));
+        assertEquals("Test User", updated.getValue().getUsername());
+        assertEquals(Role.ROLE_USER, updated.getValue().getRole());
+        // Текущий пользователь может быть общим объектом, поэтому не изменяется
+        assertEquals("current@example.com", currentUser.getEmail());
+        assertEquals("currentpassword", currentUser.getPassword());
+    }
+
+    @Test
+    @DisplayName("[updateCurrentUserProfile_EmailTakenConcurrently] Обновление профиля текущего пользователя - Email занят в обход фильтра")
+    void updateCurrentUserProfile_EmailTakenConcurrently() throws SQLException {
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(false);
+        when(userRepository.update(any())).thenThrow(new SQLException("duplicate key", "23505"));
+
+        assertThrows(UserAlreadyExistsException.class, () ->
+                userService.updateCurrentUserProfile(userDtoRegisterUpdate, currentUser)
+        );
+        verify(emailExistenceFilter).add("new@example.com");
+        verifyNoInteractions(principalCache, tokenRevocationList);
+    }
+
+    @Test
+    @DisplayName("[updateCurrentUserProfile_UserDeletedConcurrently] Обновление профиля текущего пользователя - Строка не обновлена")
+    void updateCurrentUserProfile_UserDeletedConcurrently() throws SQLException {
+        when(emailExistenceFilter.mightExist(userDtoRegisterUpdate.getEmail())).thenReturn(false);
+        when(userRepository.update(any())).thenReturn(false);
+
+        assertThrows(UserNotFoundException.class, () ->
+                userService.updateCurrentUserProfile(userDtoRegisterUpdate, currentUser)
+        );
+        verify(emailExistenceFilter, never()).add(anyString());
+        verifyNoInteractions(principalCache, tokenRevocationList);
     }
 
     @Test
@@ -84,5 +147,8 @@ class UserServiceImplTest {
                 userService.deleteCurrentUser(currentUser)
         );
         verify(userRepository, times(1)).deleteById(currentUser.getId());
+        verify(habitListCache).invalidate(currentUser.getId());
+        verify(principalCache).invalidate(currentUser.getEmail());
+        verify(tokenRevocationList).revokeUserTokens(currentUser.getId());
     }
 }
@@ -0,0 +1,98 @@
+package org.habitApp.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompletionBitmapTest {
+
+    private static final LocalDate ANCHOR = LocalDate.of(2024, 1, 1);
+
+    @Test
+    @DisplayName("[count] Подсчет по диапазону, пересекающему границы слов")
+    void count_ShouldCountAcrossWordBoundaries() {
+        CompletionBitmap bitmap = new CompletionBitmap(ANCHOR);
+        bitmap.set(ANCHOR);
+        bitmap.set(ANCHOR.plusDays(63));
+        bitmap.set(ANCHOR.plusDays(64));
+        bitmap.set(ANCHOR.plusDays(130));
+        bitmap.set(ANCHOR.plusDays(200));
+
+        assertEquals(5, bitmap.count(ANCHOR.minusDays(10), ANCHOR.plusDays(1000)));
+        assertEquals(2, bitmap.count(ANCHOR.plusDays(63), ANCHOR.plusDays(64)));
+        assertEquals(3, bitmap.count(ANCHOR.plusDays(1), ANCHOR.plusDays(130)));
+        assertEquals(0, bitmap.count(ANCHOR.plusDays(65), ANCHOR.plusDays(129)));
+        assertEquals(0, bitmap.count(ANCHOR.plusDays(5), ANCHOR.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("[currentStreak] Серия, пересекающая несколько слов")
+    void currentStreak_ShouldSpanWords() {
+        CompletionBitmap bitmap = new CompletionBitmap(ANCHOR);
+        LocalDate today = ANCHOR.plusDays(150);
+        for (int i = 10; i <= 150; i++) {
+            bitmap.set(ANCHOR.plusDays(i));
+        }
+
+        assertEquals(141, bitmap.currentStreak(today));
+        assertEquals(141, bitmap.currentStreak(today.plusDays(1)));
+        assertEquals(0, bitmap.currentStreak(today.plusDays(2)));
+    }
+
+    @Test
+    @DisplayName("[currentStreak] Отметки после today не учитываются")
+    void currentStreak_ShouldIgnoreDaysAfterToday() {
+        CompletionBitmap bitmap = new CompletionBitmap(ANCHOR);
+        bitmap.set(ANCHOR.plusDays(3));
+        bitmap.set(ANCHOR.plusDays(4));
+        bitmap.set(ANCHOR.plusDays(6));
+
+        assertEquals(2, bitmap.currentStreak(ANCHOR.plusDays(5)));
+        assertEquals(0, bitmap.currentStreak(ANCHOR.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("[set] Дни раньше начала карты сдвигают начало на целое число слов")
+    void set_ShouldPrependDaysBeforeAnchor() {
+        CompletionBitmap bitmap = new CompletionBitmap(ANCHOR);
+        bitmap.set(ANCHOR);
+        bitmap.set(ANCHOR.minusDays(1));
+        bitmap.set(ANCHOR.minusDays(100));
+
+        assertTrue(bitmap.get(ANCHOR));
+        assertTrue(bitmap.get(ANCHOR.minusDays(1)));
+        assertTrue(bitmap.get(ANCHOR.minusDays(100)));
+        assertFalse(bitmap.get(ANCHOR.minusDays(2)));
+        assertEquals(3, bitmap.count(ANCHOR.minusDays(365), ANCHOR));
+        assertEquals(2, bitmap.currentStreak(ANCHOR));
+    }
+
+    @Test
+    @DisplayName("Случайные истории совпадают с StreakCalculator и прямым подсчетом")
+    void randomHistories_ShouldMatchReferenceImplementation() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            CompletionBitmap bitmap = new CompletionBitmap(ANCHOR);
+            TreeSet<LocalDate> dates = new TreeSet<>();
+            int span = 1 + random.nextInt(400);
+            for (int i = 0; i < span; i++) {
+                if (random.nextInt(4) != 0) {
+                    LocalDate day = ANCHOR.plusDays(i - 30);
+                    dates.add(day);
+                    bitmap.set(day);
+                }
+            }
+            LocalDate today = ANCHOR.plusDays(random.nextInt(span + 2) - 30);
+            LocalDate from = today.minusDays(random.nextInt(100));
+
+            assertEquals(StreakCalculator.calculate(dates.headSet(today, true), today).getCurrentStreak(),
+                    bitmap.currentStreak(today));
+            assertEquals(dates.subSet(from, true, today, true).size(), bitmap.count(from, today));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.habitApp.utils;
+
+import org.habitApp.domain.dto.KeysetPageDto;
+import org.habitApp.domain.entities.HabitEntity;
+import org.habitApp.repositories.HabitRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KeysetPaginationTest {
+
+    @Mock
+    private HabitRepository habitRepository;
+
+    @Test
+    @DisplayName("[fetchPage] Возвращает курсор, если есть следующая страница")
+    void shouldReturnCursorWhenMoreRowsExist() throws SQLException {
+        when(habitRepository.findPage(null, 3)).thenReturn(List.of(habit(1), habit(2), habit(3)));
+
+        KeysetPageDto<HabitEntity> page = KeysetPagination.fetchPage(
+                habitRepository, null, 2, HabitEntity::getId, Function.identity());
+
+        assertEquals(List.of(1L, 2L), page.getItems().stream().map(HabitEntity::getId).toList());
+        assertEquals(2L, page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("[fetchPage] Последняя страница возвращается без курсора")
+    void shouldReturnNoCursorOnLastPage() throws SQLException {
+        when(habitRepository.findPage(2L, 3)).thenReturn(List.of(habit(3)));
+
+        KeysetPageDto<Long> page = KeysetPagination.fetchPage(
+                habitRepository, 2L, 2, HabitEntity::getId, HabitEntity::getId);
+
+        assertEquals(List.of(3L), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("[fetchPage] Отклоняет размер страницы вне допустимого диапазона")
+    void shouldRejectInvalidLimit() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.fetchPage(
+                habitRepository, null, 0, HabitEntity::getId, Function.identity()));
+        assertThrows(IllegalArgumentException.class, () -> KeysetPagination.fetchPage(
+                habitRepository, null, KeysetPagination.MAX_LIMIT + 1, HabitEntity::getId, Function.identity()));
+        verifyNoInteractions(habitRepository);
+    }
+
+    private HabitEntity habit(long id) {
+        return new HabitEntity(id, "Habit " + id, "", "day", LocalDate.of(2024, 10, 1), 1L);
+    }
+}
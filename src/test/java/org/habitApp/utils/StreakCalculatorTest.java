@@ -0,0 +1,55 @@
+package org.habitApp.utils;
+
+import org.habitApp.domain.dto.habitDto.HabitStreakDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreakCalculatorTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 10, 20);
+
+    @Test
+    @DisplayName("[calculate] Пустая история дает нулевые серии")
+    void calculate_ShouldReturnZeroForEmptyHistory() {
+        assertEquals(new HabitStreakDto(0, 0), StreakCalculator.calculate(List.of(), TODAY));
+    }
+
+    @Test
+    @DisplayName("[calculate] Текущая серия заканчивается сегодня, максимальная - раньше")
+    void calculate_ShouldReturnCurrentAndLongestStreak() {
+        List<LocalDate> dates = List.of(
+                TODAY, TODAY.minusDays(1),
+                TODAY.minusDays(5), TODAY.minusDays(6), TODAY.minusDays(7), TODAY.minusDays(8));
+
+        assertEquals(new HabitStreakDto(2, 4), StreakCalculator.calculate(dates, TODAY));
+    }
+
+    @Test
+    @DisplayName("[calculate] Серия, закончившаяся вчера, еще считается текущей")
+    void calculate_ShouldKeepStreakEndingYesterday() {
+        List<LocalDate> dates = List.of(TODAY.minusDays(1), TODAY.minusDays(2));
+
+        assertEquals(new HabitStreakDto(2, 2), StreakCalculator.calculate(dates, TODAY));
+    }
+
+    @Test
+    @DisplayName("[calculate] Пропуск больше одного дня сбрасывает текущую серию")
+    void calculate_ShouldResetStreakAfterGap() {
+        List<LocalDate> dates = List.of(TODAY.minusDays(2), TODAY.minusDays(3), TODAY.minusDays(4));
+
+        assertEquals(new HabitStreakDto(0, 3), StreakCalculator.calculate(dates, TODAY));
+    }
+
+    @Test
+    @DisplayName("[calculate] Повторные отметки за один день не ломают серию")
+    void calculate_ShouldIgnoreDuplicateDays() {
+        List<LocalDate> dates = List.of(TODAY, TODAY, TODAY.minusDays(1), TODAY.minusDays(1));
+
+        assertEquals(new HabitStreakDto(2, 2), StreakCalculator.calculate(dates, TODAY));
+    }
+}